@@ -0,0 +1,74 @@
+#!/bin/sh
+# MySuikaGame ビルドスクリプト
+#
+#   ./build.sh              jarを作成（build/mysuika.jar）
+#   ./build.sh cds          jarを作成し、起動を速くするCDSアーカイブ（build/mysuika.jsa）を作成
+#   ./build.sh run          CDSアーカイブがあれば使って起動
+#   ./build.sh bench-startup [回数]  最初のフレーム描画までの時間を計測
+#   ./build.sh test [--update] [場面...]  物理演算・合体の回帰テスト（ゴールデンファイルと時間・メモリ確保量の予算）を実行
+#                                        （遅い計算機では MYSUIKA_BUDGET_SCALE=2.0 のように予算を一律に緩める）
+#   ./build.sh clean        build/ を削除
+#
+# CDSアーカイブの作成と起動ベンチマークは画面のある環境で実行してください。
+set -e
+cd "$(dirname "$0")"
+
+BUILD=build
+JAR=$BUILD/mysuika.jar
+ARCHIVE=$BUILD/mysuika.jsa
+JBOX2D=lib/jbox2d-library-2.2.1.1.jar
+RELEASE=${JAVA_RELEASE:-21}
+
+jar_build() {
+	rm -rf "$BUILD/classes"
+	mkdir -p "$BUILD/classes" "$BUILD/lib"
+	find src/main/java -name '*.java' > "$BUILD/sources.txt"
+	javac --release "$RELEASE" -encoding UTF-8 -cp "$JBOX2D" -d "$BUILD/classes" @"$BUILD/sources.txt"
+	cp "$JBOX2D" "$BUILD/lib/"
+	printf 'Main-Class: mysuika.Main\nClass-Path: lib/%s\n' "$(basename "$JBOX2D")" > "$BUILD/manifest.txt"
+	jar --create --file "$JAR" --manifest "$BUILD/manifest.txt" -C "$BUILD/classes" .
+	echo "built $JAR"
+}
+
+# 回帰テスト（src/test/java）をコンパイルして実行する（失敗があれば終了コード1）
+test_run() {
+	jar_build
+	rm -rf "$BUILD/test-classes"
+	mkdir -p "$BUILD/test-classes"
+	find src/test/java -name '*.java' > "$BUILD/test-sources.txt"
+	javac --release "$RELEASE" -encoding UTF-8 -cp "$BUILD/classes:$JBOX2D" -d "$BUILD/test-classes" @"$BUILD/test-sources.txt"
+	java -ea -Dmysuika.test.budgetScale="${MYSUIKA_BUDGET_SCALE:-1.0}" \
+		-cp "$BUILD/classes:$BUILD/test-classes:$JBOX2D" mysuika.scenario.ScenarioSuite src/test/resources/scenarios "$@"
+}
+
+# 最初のフレームを描画するまでに読み込まれたクラスをアーカイブに記録する
+cds_build() {
+	rm -f "$ARCHIVE"
+	java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dmysuika.startup.exit=true -jar "$JAR"
+	echo "built $ARCHIVE"
+}
+
+case "${1:-jar}" in
+	jar)
+		jar_build ;;
+	cds)
+		jar_build
+		cds_build ;;
+	run)
+		if [ -f "$ARCHIVE" ]; then
+			exec java -XX:SharedArchiveFile="$ARCHIVE" -jar "$JAR"
+		else
+			exec java -jar "$JAR"
+		fi ;;
+	bench-startup)
+		[ -f "$JAR" ] || jar_build
+		java -cp "$JAR" mysuika.tools.StartupBenchmark "$JAR" "$ARCHIVE" "${2:-10}" ;;
+	test)
+		shift
+		test_run "$@" ;;
+	clean)
+		rm -rf "$BUILD" ;;
+	*)
+		echo "usage: $0 [jar|cds|run|bench-startup [runs]|test [--update] [scenario...]|clean]" >&2
+		exit 1 ;;
+esac
@@ -1,10 +1,20 @@
 package mysuika;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
 import javax.swing.SwingUtilities;
 
 import mysuika.logic.GameManager;
+import mysuika.model.GameConfig;
+import mysuika.model.SpawnMode;
+import mysuika.net.RemoteBoard;
+import mysuika.net.VersusLink;
+import mysuika.net.VersusSession;
 import mysuika.physics.PhysicsWorld;
 import mysuika.ui.GameFrame;
+import mysuika.ui.OpponentPanel;
+import mysuika.ui.SidePanel;
 
 /**
  * Main クラス
@@ -12,22 +22,79 @@ import mysuika.ui.GameFrame;
 * アプリケーションのエントリポイントです。
  * ゲームに必要なオブジェクト（PhysicsWorld, GameManager, GameFrame）を初期化し、
  * Swingのイベントディスパッチスレッド上でゲームウィンドウを表示します。
+ * ハイスコアとフォントの読み込みは裏で並行して行い、最初の画面表示を待たせません。
  * 
  * 作成者: 岡本
  * 更新日: 2025-06-02
  * 
  */
 public class Main {
+	private static final int MEGA_SCALE = 10; // メガボードの幅の倍率の既定値
+	private static final int STEPS_PER_SECOND = 60; // 1秒あたりの物理ステップ数
 	
 	public static void main(String[] args) {
-		PhysicsWorld physics = new PhysicsWorld();
-		GameManager manager  = new GameManager(physics);
+		// フォントの読み込みは時間がかかるため、画面の構築と並行して裏で済ませておく
+		CompletableFuture.runAsync(SidePanel::preloadFonts);
+		PhysicsWorld physics = new PhysicsWorld(createConfig());
+		GameManager manager  = new GameManager(physics); // ハイスコアは裏で読み込まれる
 		physics.setGameManager(manager);
+		VersusSession versus = createVersus(manager);
 		// Swingアプリケーションのスレッドセーフな起動
 		SwingUtilities.invokeLater(() -> {
 		GameFrame frame = new GameFrame(manager);
 		manager.setFrame(frame);
+		if (versus != null) frame.showOpponent(new OpponentPanel(versus.getBoard(), versus.getLink()));
 		frame.setVisible(true);
 		});
 	}
+	
+	/**
+	 * 対戦モードの通信を始める
+	 * システムプロパティ mysuika.versus=host:ポート で相手の接続を待ち受け、
+	 * mysuika.versus=join:ホスト:ポート で相手に接続する（同じPCならホストに localhost を指定）
+	 * @param manager 自分のゲーム
+	 * @return 対戦の通信（指定がない場合・通信を始められない場合はnull）
+	 */
+	private static VersusSession createVersus(GameManager manager) {
+		String spec = System.getProperty("mysuika.versus");
+		if (spec == null) return null;
+		String[] parts = spec.split(":");
+		try {
+			VersusLink link = "host".equals(parts[0])
+					? VersusLink.host(Integer.parseInt(parts[1]))
+					: VersusLink.join(parts[1], Integer.parseInt(parts[2]));
+			VersusSession session = new VersusSession(manager, link, new RemoteBoard());
+			manager.setAfterTick(session::afterTick); // ゲームループのスレッドで各ステップ後に送受信
+			session.startIdlePolling(); // ゲームオーバー後などループが止まっている間も受信を続ける
+			return session;
+		} catch (IOException | RuntimeException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	/**
+	 * 起動時の調整値を作成
+	 * システムプロパティ mysuika.board=mega の場合は、通常の mysuika.boardScale 倍（既定10倍）の
+	 * 横長フィールド（メガボード）にする
+	 * mysuika.parallel=true の場合は接触の島を並列に解く（実験的、mysuika.deterministic=true で割り当て固定）
+	 * mysuika.spawn=uniform|bag で次のフルーツの決め方、mysuika.lookahead で先読みして表示する個数を指定する
+	 * mysuika.rewind=秒数 で直近の指定秒数を巻き戻せる練習モードにする（対戦モードでは無効）
+	 * （対戦モードの指定 mysuika.versus は createVersus を参照）
+	 * @return 調整値
+	 */
+	private static GameConfig createConfig() {
+		GameConfig config = new GameConfig();
+		if ("mega".equals(System.getProperty("mysuika.board"))) {
+			config.megaBoard(Integer.getInteger("mysuika.boardScale", MEGA_SCALE));
+		}
+		config.setParallelIslands(Boolean.getBoolean("mysuika.parallel"));
+		config.setDeterministic(Boolean.getBoolean("mysuika.deterministic"));
+		config.setSpawnMode(SpawnMode.valueOf(System.getProperty("mysuika.spawn", "uniform").toUpperCase()));
+		config.setLookahead(Integer.getInteger("mysuika.lookahead", config.getLookahead()));
+		if (System.getProperty("mysuika.versus") == null) {
+			config.setRewindSteps(Integer.getInteger("mysuika.rewind", 0) * STEPS_PER_SECOND);
+		}
+		return config;
+	}
 }
@@ -0,0 +1,40 @@
+package mysuika;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * StartupProbe クラス
+ * 
+ * 起動から最初のフレームが描画されるまでの時間を計測します。
+ * 以下のシステムプロパティを指定した時だけ動作し、通常起動では何もしません。
+ * - mysuika.startup.report=true : 最初のフレーム描画時に "first-frame-ms=<ミリ秒>" を標準出力へ出す
+ * - mysuika.startup.exit=true   : 最初のフレーム描画後に終了する（CDSアーカイブ作成・起動ベンチマーク用）
+ * 
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class StartupProbe {
+	private static final boolean       REPORT = Boolean.getBoolean("mysuika.startup.report");
+	private static final boolean       EXIT   = Boolean.getBoolean("mysuika.startup.exit");
+	private static final AtomicBoolean DONE   = new AtomicBoolean();
+	
+	private StartupProbe() {}
+	
+	/**
+	 * フレームを描画し終えた時に呼ぶ（2回目以降は何もしない）
+	 */
+	public static void framePainted() {
+		if (!REPORT && !EXIT) return;
+		if (!DONE.compareAndSet(false, true)) return;
+		if (REPORT) {
+			// JVMの起動時刻からの経過時間（計測時だけ管理用APIを読み込む）
+			long startMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+			System.out.println("first-frame-ms=" + (System.currentTimeMillis() - startMillis));
+		}
+		// 描画処理が終わってから終了する
+		if (EXIT) SwingUtilities.invokeLater(() -> System.exit(0));
+	}
+}
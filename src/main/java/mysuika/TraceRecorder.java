@@ -0,0 +1,349 @@
+package mysuika;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TraceRecorder クラス
+ *
+ * 物理ステップの各段階・衝突処理・ゲームオーバー判定・描画などの処理時間（スパン）を常時記録し、
+ * フレームが重くなったときに直前の数秒分をファイルに書き出します。
+ * スパンはスレッドごとの固定長のリングバッファ（プリミティブ型の配列）に上書きで記録するため、
+ * 記録中もオブジェクトを生成せず、スレッド間で書き込み位置を取り合うこともありません
+ * （1スパンあたりSystem.nanoTimeの呼び出し2回程度で済みます）。
+ *
+ * 書き出し形式:
+ * - Chrome trace JSON : chrome://tracing や Perfetto で時系列に表示できる
+ * - collapsed stack   : flamegraph.pl や speedscope でフレームグラフにできる（値は自分自身の時間、µs）
+ *
+ * 使い方:
+ *   long t = TraceRecorder.begin();
+ *   ...処理...
+ *   TraceRecorder.end(TraceRecorder.Span.PAINT_FIELD, t);
+ *
+ * システムプロパティ mysuika.trace=false で記録を止められます。
+ * 終了したスレッドのリングは、書き出したとき（書き出しには含める）か、別のスレッドが新しく記録を始めたときに捨てます。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class TraceRecorder {
+	private static final int                       CAPACITY = 1 << 16; // スレッドごとに記録するスパン数（60fpsで1分程度）
+	private static final int                       MASK     = CAPACITY - 1;
+	private static final List<Ring>                RINGS    = new CopyOnWriteArrayList<>(); // 記録中のスレッドのリング（書き出し用）
+	private static final AtomicInteger             NEXT_ID  = new AtomicInteger(1); // リングに振る番号（書き出し時のスレッドの番号）
+	private static final ThreadLocal<Ring>         LOCAL    = ThreadLocal.withInitial(TraceRecorder::register); // このスレッドのリング
+	private static volatile boolean                enabled  = !"false".equals(System.getProperty("mysuika.trace")); // 記録するか（どのスレッドからでも切り替えられる）
+
+	/**
+	 * 記録するスパンの種類
+	 */
+	public enum Span {
+		TICK           ("GameManager.tick"),
+		PHYSICS_STEP   ("PhysicsWorld.step"),
+		WORLD_STEP     ("World.step"),
+		REMOVE_BODIES  ("PhysicsWorld.removeBody"),
+		ADD_BODIES     ("PhysicsWorld.addBody"),
+		SYNC_STATE     ("PhysicsWorld.syncFruitState"),
+		DROP_PREDICTOR ("DropPredictor.onStep"),
+		CHUNK_GRID     ("ChunkGrid.onStep"),
+		ANALYTICS      ("BoardAnalytics.onStep"),
+		BEGIN_CONTACT  ("ContactListener.beginContact"),
+		END_CONTACT    ("ContactListener.endContact"),
+		GAME_OVER      ("GameManager.isGameOver"),
+		HIGH_SCORES    ("GameManager.updateHighScores"),
+		PAINT_FIELD    ("GamePanel.paintComponent"),
+		PAINT_SIDE     ("SidePanel.paintComponent"),
+		RENDER_FRAME   ("ActiveRenderLoop.render");
+
+		private final String label; // 書き出し時の名前
+
+		Span(String label) {
+			this.label = label;
+		}
+		public String getLabel() {
+			return label;
+		}
+	}
+
+	/**
+	 * 書き出し形式
+	 */
+	public enum Format {
+		CHROME_JSON(".json"),
+		COLLAPSED  (".collapsed.txt");
+
+		private final String extension; // ファイルの拡張子
+
+		Format(String extension) {
+			this.extension = extension;
+		}
+	}
+
+	private static final Span[] SPANS_BY_ORDINAL = Span.values(); // 番号からスパンの種類を引く表
+
+	private TraceRecorder() {}
+
+	/**
+	 * スパンの開始時刻を取得
+	 * @return 開始時刻（記録を止めている場合は0）
+	 */
+	public static long begin() {
+		return enabled ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * スパンを記録する
+	 * @param span スパンの種類
+	 * @param start beginで取得した開始時刻
+	 */
+	public static void end(Span span, long start) {
+		if (start != 0L) record(span, start, System.nanoTime());
+	}
+
+	/**
+	 * スパンを記録し、続けて次のスパンを開始する（連続する段階の計測用）
+	 * @param span 終了するスパンの種類
+	 * @param start 終了するスパンの開始時刻
+	 * @return 次のスパンの開始時刻（記録を止めている場合は0）
+	 */
+	public static long lap(Span span, long start) {
+		if (start == 0L) return 0L;
+		long now = System.nanoTime();
+		record(span, start, now);
+		return now;
+	}
+
+	/**
+	 * 終了時刻を指定してスパンを記録する（lapの戻り値を外側のスパンの終了時刻に使い回す場合）
+	 * @param span スパンの種類
+	 * @param start 開始時刻
+	 * @param end 終了時刻
+	 */
+	public static void end(Span span, long start, long end) {
+		if (start != 0L) record(span, start, end);
+	}
+
+	private static void record(Span span, long start, long end) {
+		LOCAL.get().record(span, start, end);
+	}
+
+	/** 初めて記録するスレッドのリングを作り、書き出し対象に加える（終了したスレッドのリングはここで捨てる） */
+	private static Ring register() {
+		RINGS.removeIf(Ring::isDead);
+		Ring ring = new Ring(Thread.currentThread(), NEXT_ID.getAndIncrement());
+		RINGS.add(ring);
+		return ring;
+	}
+
+	/**
+	 * 直前の指定秒数分のスパンをファイルに書き出す
+	 * @param seconds 書き出す秒数
+	 * @param format 書き出し形式
+	 * @param dir 書き出し先のディレクトリ
+	 * @return 書き出したファイル
+	 * @throws IOException 書き込みに失敗した場合
+	 */
+	public static Path dump(double seconds, Format format, Path dir) throws IOException {
+		Map<Long, String> threads = threadNames(); // 終了したスレッドのリングを捨てる前に名前を取る
+		List<long[]>      spans   = snapshot(System.nanoTime() - (long) (seconds * 1e9));
+		String name = "trace-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + format.extension;
+		Path   path = dir.resolve(name);
+		try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			if (format == Format.CHROME_JSON) writeChromeJson(spans, threads, out);
+			else                              writeCollapsed(spans, threads, out);
+		}
+		return path;
+	}
+
+	/**
+	 * 直前の指定秒数分のスパンを、設定に応じた秒数・形式でカレントディレクトリに書き出す
+	 * （ホットキーから呼ぶ。秒数は mysuika.trace.seconds、既定10秒）
+	 * @param format 書き出し形式
+	 * @return 書き出したファイル
+	 * @throws IOException 書き込みに失敗した場合
+	 */
+	public static Path dump(Format format) throws IOException {
+		double seconds = Double.parseDouble(System.getProperty("mysuika.trace.seconds", "10"));
+		return dump(seconds, format, Paths.get("."));
+	}
+
+	/**
+	 * 各スレッドのリングバッファから指定時刻以降に始まったスパンを取り出す
+	 * 書き込み中の要素は壊れている可能性があるため、値が不正なものは捨てる。
+	 * 終了したスレッドのリングは、取り出した後で捨てる
+	 * @param since この時刻（ns）以降に始まったスパン
+	 * @return {開始時刻, 処理時間, リングの番号, 種類} の一覧（開始時刻順）
+	 */
+	private static List<long[]> snapshot(long since) {
+		List<long[]> spans = new ArrayList<>();
+		for (Ring ring : RINGS) ring.collect(since, spans);
+		RINGS.removeIf(Ring::isDead);
+		// 開始時刻順、同時刻なら長い方（外側）を先に
+		spans.sort(Comparator.<long[]>comparingLong(s -> s[0]).thenComparingLong(s -> -s[1]));
+		return spans;
+	}
+
+	/**
+	 * Chrome trace JSON 形式で書き出す（時刻はµs、最初のスパンを0とする）
+	 */
+	private static void writeChromeJson(List<long[]> spans, Map<Long, String> threads, Writer out) throws IOException {
+		long origin = spans.isEmpty() ? 0 : spans.get(0)[0];
+		out.write("{\"traceEvents\":[\n");
+		boolean first = true;
+		for (long tid : distinctThreads(spans)) {
+			if (!first) out.write(",\n");
+			out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + tid
+					+ ",\"args\":{\"name\":\"" + escape(threads.getOrDefault(tid, "thread-" + tid)) + "\"}}");
+			first = false;
+		}
+		for (long[] s : spans) {
+			if (!first) out.write(",\n");
+			out.write(String.format(Locale.ROOT, "{\"name\":\"%s\",\"ph\":\"X\",\"pid\":1,\"tid\":%d,\"ts\":%.3f,\"dur\":%.3f}",
+					SPANS_BY_ORDINAL[(int) s[3]].getLabel(), s[2], (s[0] - origin) / 1e3, s[1] / 1e3));
+			first = false;
+		}
+		out.write("\n]}\n");
+	}
+
+	/**
+	 * collapsed stack 形式で書き出す
+	 * 同じスレッドで時間的に内側にあるスパンを子とみなし、「スレッド;外側;内側 自分自身の時間(µs)」の行にまとめる
+	 * （1µs未満のスパンが切り捨てで消えないよう、ns単位で合計してから最後にµsにする）
+	 */
+	private static void writeCollapsed(List<long[]> spans, Map<Long, String> threads, Writer out) throws IOException {
+		Map<String, Long> totals  = new TreeMap<>();
+		for (long tid : distinctThreads(spans)) {
+			String   root  = threads.getOrDefault(tid, "thread-" + tid).replace(';', '_').replace(' ', '_');
+			long[][] stack = new long[64][]; // {終了時刻, 子の合計時間, 処理時間}
+			String[] paths = new String[64];
+			int      depth = 0;
+			for (long[] s : spans) {
+				if (s[2] != tid) continue;
+				// このスパンより前に終わったスパンを閉じる
+				while (depth > 0 && stack[depth - 1][0] <= s[0]) {
+					depth--;
+					addSelf(totals, paths[depth], stack[depth]);
+				}
+				if (depth > 0) stack[depth - 1][1] += s[1];
+				if (depth == stack.length) { // 想定より深い場合は広げる
+					stack = Arrays.copyOf(stack, depth * 2);
+					paths = Arrays.copyOf(paths, depth * 2);
+				}
+				paths[depth] = (depth == 0 ? root : paths[depth - 1]) + ";" + SPANS_BY_ORDINAL[(int) s[3]].getLabel();
+				stack[depth] = new long[] { s[0] + s[1], 0, s[1] };
+				depth++;
+			}
+			while (depth > 0) {
+				depth--;
+				addSelf(totals, paths[depth], stack[depth]);
+			}
+		}
+		for (Map.Entry<String, Long> e : totals.entrySet()) {
+			long micros = e.getValue() / 1000;
+			if (micros > 0) out.write(e.getKey() + " " + micros + "\n");
+		}
+	}
+
+	/** 閉じたスパンの自分自身の時間（子を除く、ns）を加算 */
+	private static void addSelf(Map<String, Long> totals, String path, long[] frame) {
+		totals.merge(path, Math.max(0, frame[2] - frame[1]), Long::sum);
+	}
+
+	/** スパンを記録したスレッドの一覧（記録順） */
+	private static long[] distinctThreads(List<long[]> spans) {
+		return spans.stream().mapToLong(s -> s[2]).distinct().toArray();
+	}
+
+	/** リングの番号とスレッドの名前（記録を始めたときの名前） */
+	private static Map<Long, String> threadNames() {
+		Map<Long, String> names = new HashMap<>();
+		for (Ring ring : RINGS) names.put(ring.id, ring.name);
+		return names;
+	}
+
+	private static String escape(String s) {
+		return s.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	// 以下、ゲッター・セッター
+	public static boolean isEnabled() {
+		return enabled;
+	}
+	public static void setEnabled(boolean enabled) {
+		TraceRecorder.enabled = enabled;
+	}
+	/** これまでに記録したスパンの総数（残っているリングの合計、上書きされた分を含む） */
+	public static long getRecorded() {
+		long recorded = 0;
+		for (Ring ring : RINGS) recorded += ring.cursor.get();
+		return recorded;
+	}
+
+	/**
+	 * 1スレッド分のリングバッファ
+	 * 書き込むのは持ち主のスレッドだけなので、書き込み位置は取り合わずに進め、
+	 * 書き出すスレッドから見えるよう要素を書いた後で公開する（lazySetのため全体のメモリバリアは張らない）
+	 * 持ち主のスレッドは弱参照で持ち、終了したスレッドをリングが引き止めないようにする
+	 */
+	private static class Ring {
+		private final WeakReference<Thread> owner;                // 持ち主のスレッド
+		private final long       id;                              // リングの番号（書き出し時のスレッドの番号）
+		private final String     name;                            // 持ち主のスレッドの名前
+		private final long[]     starts    = new long[CAPACITY];  // 開始時刻（ns）
+		private final long[]     durations = new long[CAPACITY];  // 処理時間（ns）
+		private final byte[]     spans     = new byte[CAPACITY];  // スパンの種類（Spanの番号）
+		private final AtomicLong cursor    = new AtomicLong();    // 次に書き込む通し番号（持ち主のスレッドだけが進める）
+		private long             next;                            // cursorの持ち主側の写し
+
+		Ring(Thread owner, long id) {
+			this.owner = new WeakReference<>(owner);
+			this.id    = id;
+			this.name  = owner.getName();
+		}
+
+		/** 持ち主のスレッドが終了したか */
+		boolean isDead() {
+			Thread t = owner.get();
+			return t == null || !t.isAlive();
+		}
+
+		void record(Span span, long start, long end) {
+			int i = (int) (next & MASK);
+			starts[i]    = start;
+			durations[i] = end - start;
+			spans[i]     = (byte) span.ordinal();
+			cursor.lazySet(++next);
+		}
+
+		void collect(long since, List<long[]> out) {
+			long last  = cursor.get();
+			long first = Math.max(0, last - CAPACITY);
+			for (long n = first; n < last; n++) {
+				int  i     = (int) (n & MASK);
+				long start = starts[i], duration = durations[i];
+				int  span  = spans[i];
+				if (start < since || duration < 0 || span < 0 || span >= SPANS_BY_ORDINAL.length) continue;
+				out.add(new long[] { start, duration, id, span });
+			}
+		}
+	}
+}
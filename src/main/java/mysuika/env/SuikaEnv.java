@@ -0,0 +1,149 @@
+package mysuika.env;
+
+import java.util.Arrays;
+
+import mysuika.logic.GameManager;
+import mysuika.model.GameConfig;
+import mysuika.physics.FruitStateBuffer;
+import mysuika.physics.PhysicsWorld;
+
+/**
+ * SuikaEnv クラス
+ *
+ * 落下位置を決める方策を強化学習で学ぶための、Gym形式の環境です（画面なしで動作）。
+ * 1回の行動は「フルーツを落とす位置を決めて落とし、着地して盤面が落ち着くまで進める」ことです。
+ * 落ち着くまでは物理演算だけを続けて進めます（GameManager.fastForward、判定はSettleDetector）。
+ *
+ * - reset(seed)          : 新しいゲームを始め、最初の観測を書き込む
+ * - step(action, obs, i) : 落下位置（0.0＝左端～1.0＝右端）にフルーツを落とし、報酬（増えたスコア）を返す
+ * - isDone()             : ゲームオーバーか、1ゲームの落下回数の上限に達したか
+ *
+ * 観測は長さ OBS_SIZE の固定長のfloat配列で、呼び出し側が用意した配列の指定位置に書き込みます。
+ *   [0, COLUMNS)                     : 列ごとの高さ（ゲームオーバーラインの高さを1.0とする）
+ *   [COLUMNS, COLUMNS + TYPES)       : 現在のフルーツ型（one-hot）
+ *   [COLUMNS + TYPES, OBS_SIZE)      : 次のフルーツ型（one-hot）
+ * 観測・報酬の受け渡しで配列やオブジェクトを作らず、状態はGameManagerから直接読むため
+ * スナップショットの公開も止めています（GameManager.setPublishing）。行動ごとのメモリ確保は
+ * ほぼすべて物理エンジン（JBox2D）の中のもので、接触の並べ替えや拘束の計算のたびに一時的な配列・オブジェクトを作ります。
+ *
+ * 1つの環境は1つのスレッドから使います（最初にresetかstepを呼んだスレッドがゲームループのスレッドになる）。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class SuikaEnv {
+	public  static final int   COLUMNS          = 16;                       // 高さを観測する列の数
+	public  static final int   TYPES            = GameManager.TYPES.length; // フルーツ型の数
+	public  static final int   OBS_SIZE         = COLUMNS + 2 * TYPES;      // 観測の長さ
+	private static final int   MAX_ACTION_STEPS = 600;   // 1回の行動で進める物理ステップ数の上限
+	private static final int   MAX_DROPS        = 1000;  // 1ゲームの落下回数の上限
+	private static final float WALL_HALF        = 0.1f;  // 壁の厚みの半分（壁の内側までの距離、m単位）
+
+	private final GameConfig   config;
+	private final PhysicsWorld physics;
+	private final GameManager  manager;
+	private int                lastActionSteps; // 直前の行動で進めた物理ステップ数
+
+	/**
+	 * コンストラクタ（盤面の集計は速度を優先して止める）
+	 */
+	public SuikaEnv() {
+		this(new GameConfig().setAnalyticsInterval(0));
+	}
+
+	/**
+	 * コンストラクタ
+	 * @param config 調整値
+	 */
+	public SuikaEnv(GameConfig config) {
+		this.config  = config;
+		this.physics = new PhysicsWorld(config);
+		this.manager = new GameManager(physics, 0L);
+		manager.setPublishing(false); // 観測はGameManagerと物理ワールドから直接作る
+	}
+
+	/**
+	 * 新しいゲームを始める
+	 * @param seed 乱数の種（同じ種と同じ行動列なら同じ展開になる）
+	 * @param obs 観測の書き込み先
+	 * @param offset 書き込み位置
+	 */
+	public void reset(long seed, float[] obs, int offset) {
+		manager.reset(seed);
+		lastActionSteps = 0;
+		observe(obs, offset);
+	}
+
+	/**
+	 * フルーツを落として、着地して盤面が落ち着くまで進める
+	 * @param action 落下位置（0.0＝左端～1.0＝右端、範囲外は端に寄せる）
+	 * @param obs 行動後の観測の書き込み先
+	 * @param offset 書き込み位置
+	 * @return 報酬（この行動で増えたスコア）
+	 */
+	public float step(float action, float[] obs, int offset) {
+		int before = manager.getScore();
+		int steps  = 0;
+		if (!isDone()) {
+			manager.dropFruitAt(dropX(action));
+			steps = manager.fastForward(MAX_ACTION_STEPS);
+		}
+		lastActionSteps = steps;
+		observe(obs, offset);
+		return manager.getScore() - before;
+	}
+
+	/**
+	 * 行動を落下位置に変換する（壁にめり込まない範囲に収める）
+	 * @return X座標（m単位）
+	 */
+	private float dropX(float action) {
+		float a     = Math.max(0.0f, Math.min(1.0f, action));
+		float r     = config.getRadius(manager.getConst());
+		float inner = config.getFieldWidth() - 2 * WALL_HALF; // 壁の内側の幅
+		return WALL_HALF + r + a * (inner - 2 * r);
+	}
+
+	/**
+	 * 観測を書き込む（列ごとの高さと、現在・次のフルーツ型）
+	 * 列の高さは、その列の中央を通る縦線と交わるフルーツの上端のうち最も高いもの
+	 */
+	private void observe(float[] obs, int offset) {
+		Arrays.fill(obs, offset, offset + OBS_SIZE, 0.0f);
+		FruitStateBuffer state = physics.getFruitState();
+		float column = config.getFieldWidth() / COLUMNS;
+		for (int s = 0; s < state.getHighWater(); s++) {
+			if (!state.isLive(s)) continue;
+			float x = state.getX(s), y = state.getY(s), r = config.getRadius(state.getType(s));
+			int first = Math.max(0, (int) Math.ceil((x - r) / column - 0.5f));
+			int last  = Math.min(COLUMNS - 1, (int) Math.floor((x + r) / column - 0.5f));
+			for (int c = first; c <= last; c++) {
+				float dx  = (c + 0.5f) * column - x;
+				float top = (y + (float) Math.sqrt(Math.max(0.0f, r * r - dx * dx))) / GameManager.GAMEOVER_LINE;
+				if (top > obs[offset + c]) obs[offset + c] = top;
+			}
+		}
+		int current = manager.getConst();
+		if (current >= 0) obs[offset + COLUMNS + current] = 1.0f;
+		obs[offset + COLUMNS + TYPES + manager.getNext()] = 1.0f;
+	}
+
+	// 以下、ゲッター
+	/** ゲームオーバーか、1ゲームの落下回数の上限に達したか */
+	public boolean isDone() {
+		return manager.siGameOver() || manager.getDropCount() >= MAX_DROPS;
+	}
+	public int getScore() {
+		return manager.getScore();
+	}
+	public int getDropCount() {
+		return manager.getDropCount();
+	}
+	/** 直前の行動で進めた物理ステップ数 */
+	public int getLastActionSteps() {
+		return lastActionSteps;
+	}
+	public GameManager getManager() {
+		return manager;
+	}
+}
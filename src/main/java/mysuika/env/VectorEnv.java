@@ -0,0 +1,185 @@
+package mysuika.env;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import mysuika.model.GameConfig;
+
+/**
+ * VectorEnv クラス
+ *
+ * N個のSuikaEnvをまとめて1回の呼び出しで進める環境です（学習のバッチ収集用）。
+ * 環境はスレッド数で等分して、常に同じ作業スレッドが同じ環境を担当します
+ * （各環境のゲームループのスレッドが固定されるため、単一の書き込み側の前提を崩しません）。
+ *
+ * 行動・観測・報酬・終了フラグは呼び出し側が用意した配列でやり取りし、
+ * 作業スレッドへの指示と完了待ちもpark/unparkと共有のカウンターだけで行うため、
+ * stepごとに配列やタスクのオブジェクトを作りません。
+ *
+ * 終了した環境は、そのstepの中で自動的に次のゲームを始めます（Gymのベクトル環境と同じ）。
+ * その場合、終了フラグはtrueになり、観測は次のゲームの最初の観測になります。
+ * 環境iの乱数の種は、reset(seed)で seed + i、以降のゲームごとに N ずつ増やした値を使います。
+ *
+ * 作業スレッドで例外が起きても残りのスレッドの完了を待ってから、最初に起きた例外を呼び出し側に投げ直します
+ * （その回の結果は一部の環境しか進んでいないため、resetし直してから使ってください）。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class VectorEnv implements AutoCloseable {
+	private static final int RESET = 0, STEP = 1; // 作業の種類
+
+	private final SuikaEnv[]    envs;      // 環境
+	private final long[]        seeds;     // 環境ごとの次のゲームの乱数の種
+	private final int[]         episodes;  // 環境ごとの終了したゲーム数
+	private final Thread[]      workers;   // 作業スレッド（スレッド数1なら空で、呼び出し側で進める）
+	private final AtomicInteger remaining = new AtomicInteger(); // 作業中のスレッド数
+	private final AtomicReference<Throwable> failure = new AtomicReference<>(); // 今回の作業で最初に起きた例外
+	private volatile int        generation; // 指示の通し番号（増えたら作業を始める）
+	private volatile boolean    closed;
+	private Thread              caller;     // 完了を待っている呼び出し側のスレッド
+	private int                 mode;       // 今回の作業の種類（generationの書き込みで作業スレッドに公開）
+	private long                baseSeed;
+	private float[]             actions, obs, rewards;
+	private boolean[]           dones;
+
+	/**
+	 * コンストラクタ
+	 * @param count 環境の数
+	 * @param threads 作業スレッド数（1なら呼び出し側のスレッドで順に進める）
+	 */
+	public VectorEnv(int count, int threads) {
+		this(count, threads, new GameConfig().setAnalyticsInterval(0));
+	}
+
+	/**
+	 * コンストラクタ
+	 * @param count 環境の数
+	 * @param threads 作業スレッド数（1なら呼び出し側のスレッドで順に進める）
+	 * @param config 調整値（全環境で共有する。変更しないこと）
+	 */
+	public VectorEnv(int count, int threads, GameConfig config) {
+		this.envs     = new SuikaEnv[count];
+		this.seeds    = new long[count];
+		this.episodes = new int[count];
+		for (int i = 0; i < count; i++) envs[i] = new SuikaEnv(config);
+		int n = Math.max(1, Math.min(threads, count));
+		this.workers = new Thread[n == 1 ? 0 : n];
+		for (int w = 0; w < workers.length; w++) {
+			int from = w * count / n, to = (w + 1) * count / n;
+			workers[w] = new Thread(() -> work(from, to), "vector-env-" + w);
+			workers[w].setDaemon(true);
+			workers[w].start();
+		}
+	}
+
+	/**
+	 * 全環境で新しいゲームを始める
+	 * @param seed 乱数の種（環境iは seed + i）
+	 * @param obs 観測の書き込み先（長さ N × SuikaEnv.OBS_SIZE、環境iは i × OBS_SIZE から）
+	 */
+	public void reset(long seed, float[] obs) {
+		this.baseSeed = seed;
+		this.obs      = obs;
+		dispatch(RESET);
+	}
+
+	/**
+	 * 全環境を1行動ずつ進める
+	 * @param actions 環境ごとの落下位置（0.0＝左端～1.0＝右端）
+	 * @param obs 行動後の観測の書き込み先（長さ N × SuikaEnv.OBS_SIZE）
+	 * @param rewards 環境ごとの報酬の書き込み先
+	 * @param dones 環境ごとの終了フラグの書き込み先（trueなら次のゲームを始めている）
+	 */
+	public void step(float[] actions, float[] obs, float[] rewards, boolean[] dones) {
+		this.actions = actions;
+		this.obs     = obs;
+		this.rewards = rewards;
+		this.dones   = dones;
+		dispatch(STEP);
+	}
+
+	/**
+	 * 作業スレッドに作業を指示して、全員の完了を待つ（スレッド数1なら呼び出し側で進める）
+	 */
+	private void dispatch(int mode) {
+		if (closed) throw new IllegalStateException("closed");
+		this.mode = mode;
+		if (workers.length == 0) {
+			run(0, envs.length);
+			return;
+		}
+		caller = Thread.currentThread();
+		remaining.set(workers.length);
+		generation++; // ここまでの書き込みを作業スレッドに公開する
+		for (Thread w : workers) LockSupport.unpark(w);
+		while (remaining.get() != 0) LockSupport.park(this);
+		Throwable error = failure.getAndSet(null);
+		if (error instanceof RuntimeException e) throw e;
+		if (error instanceof Error e) throw e;
+		if (error != null) throw new IllegalStateException(error);
+	}
+
+	/**
+	 * 作業スレッドの処理（指示を待って担当の環境を進め、最後に終えたスレッドが呼び出し側を起こす）
+	 * 環境が例外を投げても完了として数え、最初の例外だけを呼び出し側に渡す
+	 */
+	private void work(int from, int to) {
+		int seen = 0;
+		while (true) {
+			while (generation == seen && !closed) LockSupport.park(this);
+			if (closed) return;
+			seen = generation;
+			try {
+				run(from, to);
+			} catch (Throwable e) {
+				failure.compareAndSet(null, e);
+			} finally {
+				if (remaining.decrementAndGet() == 0) LockSupport.unpark(caller);
+			}
+		}
+	}
+
+	/** 担当の環境を進める */
+	private void run(int from, int to) {
+		int size = SuikaEnv.OBS_SIZE;
+		for (int i = from; i < to; i++) {
+			if (mode == RESET) {
+				seeds[i]    = baseSeed + i;
+				episodes[i] = 0;
+				envs[i].reset(seeds[i], obs, i * size);
+				continue;
+			}
+			rewards[i] = envs[i].step(actions[i], obs, i * size);
+			dones[i]   = envs[i].isDone();
+			if (dones[i]) {
+				episodes[i]++;
+				seeds[i] += envs.length;
+				envs[i].reset(seeds[i], obs, i * size);
+			}
+		}
+	}
+
+	/** 作業スレッドを終了する */
+	@Override
+	public void close() {
+		closed = true;
+		for (Thread w : workers) LockSupport.unpark(w);
+	}
+
+	// 以下、ゲッター
+	public int size() {
+		return envs.length;
+	}
+	public SuikaEnv getEnv(int index) {
+		return envs[index];
+	}
+	/** 環境ごとの終了したゲーム数 */
+	public int getEpisodes(int index) {
+		return episodes[index];
+	}
+	public int getThreads() {
+		return Math.max(1, workers.length);
+	}
+}
@@ -0,0 +1,45 @@
+package mysuika.logic;
+
+import java.util.SplittableRandom;
+
+/**
+ * BagGenerator クラス
+ *
+ * 出現する種類を1つずつ袋に入れて混ぜ（フィッシャー・イェーツのシャッフル）、
+ * 袋が空になるまで順に取り出す生成器です。
+ * 同じ種類が長く続いたり長く出なかったりする偏りが、種類数の2倍の間隔までに抑えられます。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class BagGenerator implements FruitGenerator {
+	private final int[]            bag;    // 袋の中身（混ぜた順）
+	private final SplittableRandom random; // 乱数
+	private int                    taken;  // 袋から取り出した数
+
+	/**
+	 * コンストラクタ
+	 * @param types 出現する種類数（0～types-1）
+	 * @param random 乱数
+	 */
+	public BagGenerator(int types, SplittableRandom random) {
+		this.bag    = new int[types];
+		this.random = random;
+		for (int i = 0; i < types; i++) bag[i] = i;
+		this.taken  = types; // 最初の呼び出しで混ぜる
+	}
+
+	@Override
+	public int next() {
+		if (taken == bag.length) { // 袋が空になったら全種類を入れ直して混ぜる
+			for (int i = bag.length - 1; i > 0; i--) {
+				int j   = random.nextInt(i + 1);
+				int tmp = bag[i];
+				bag[i]  = bag[j];
+				bag[j]  = tmp;
+			}
+			taken = 0;
+		}
+		return bag[taken++];
+	}
+}
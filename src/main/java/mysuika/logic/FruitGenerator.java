@@ -0,0 +1,38 @@
+package mysuika.logic;
+
+import java.util.SplittableRandom;
+
+import mysuika.model.GameConfig;
+
+/**
+ * FruitGenerator インターフェース
+ *
+ * 次に出現するフルーツの型を1つずつ作る仕組みです。
+ * 実装は出現方法（GameConfigのSpawnMode）ごとに分かれ、どれも乱数にSplittableRandomを使います。
+ * SplittableRandomは同期を取らないため、多数のゲームを並列に回す場合も
+ * ゲームごとに別のインスタンスを持たせれば、スレッド間で待ち合わせが起きません。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public interface FruitGenerator {
+	/**
+	 * 次のフルーツ型を作る
+	 * @return フルーツ型（0～出現する種類数-1）
+	 */
+	int next();
+
+	/**
+	 * 調整値の出現方法に応じた生成器を作る
+	 * @param config 出現する種類数・出現方法・重みなどの調整値
+	 * @param random 乱数（生成器ごとに別のインスタンスを渡すこと）
+	 * @return 生成器
+	 */
+	static FruitGenerator create(GameConfig config, SplittableRandom random) {
+		switch (config.getSpawnMode()) {
+		case BAG:      return new BagGenerator(config.getNextTypes(), random);
+		case WEIGHTED: return new WeightedGenerator(config.getSpawnWeights(), config.getNextTypes(), random);
+		default:       return new UniformGenerator(config.getNextTypes(), random);
+		}
+	}
+}
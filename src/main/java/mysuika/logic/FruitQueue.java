@@ -0,0 +1,74 @@
+package mysuika.logic;
+
+/**
+ * FruitQueue クラス
+ *
+ * 生成器が作ったフルーツ型を先に何個か用意しておく先読みキューです。
+ * サイドパネルの「ネクスト」表示や、自動プレイが先の展開を考える際に使います。
+ * 先読み分は固定長のリングバッファに保持し、取り出すたびに1つ補充します。
+ *
+ * ゲームループのスレッドだけが操作します。他のスレッドへはGameManagerのスナップショットで公開します。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class FruitQueue {
+	private final FruitGenerator generator; // フルーツ型の生成器
+	private final int[]          ring;      // 先読みしたフルーツ型
+	private int                  head;      // 次に取り出す位置
+
+	/**
+	 * コンストラクタ
+	 * @param generator フルーツ型の生成器
+	 * @param lookahead 先読みする個数（1以上）
+	 */
+	public FruitQueue(FruitGenerator generator, int lookahead) {
+		this.generator = generator;
+		this.ring      = new int[Math.max(1, lookahead)];
+		for (int i = 0; i < ring.length; i++) ring[i] = generator.next();
+	}
+
+	/**
+	 * 先頭のフルーツ型を取り出し、末尾に1つ補充する
+	 * @return フルーツ型
+	 */
+	public int poll() {
+		int type   = ring[head];
+		ring[head] = generator.next();
+		head       = (head + 1) % ring.length;
+		return type;
+	}
+
+	/**
+	 * 先読み中のフルーツ型を見る（取り出さない）
+	 * @param index 先頭からの位置（0が次に取り出すもの）
+	 * @return フルーツ型
+	 */
+	public int peek(int index) {
+		return ring[(head + index) % ring.length];
+	}
+
+	/**
+	 * 先読み中のフルーツ型を順に並べた配列（公開用の写し）
+	 * @return 先頭から順のフルーツ型
+	 */
+	public int[] toArray() {
+		int[] types = new int[ring.length];
+		for (int i = 0; i < types.length; i++) types[i] = peek(i);
+		return types;
+	}
+
+	/**
+	 * 先読み中のフルーツ型を置き換える（巻き戻し用）
+	 * 生成器は巻き戻さないため、置き換えた分より後に補充されるフルーツ型は元の展開とは異なる
+	 * @param types 先頭から順のフルーツ型（toArrayで得たもの）
+	 */
+	void restore(int[] types) {
+		System.arraycopy(types, 0, ring, 0, Math.min(types.length, ring.length));
+		this.head = 0;
+	}
+
+	public int size() {
+		return ring.length;
+	}
+}
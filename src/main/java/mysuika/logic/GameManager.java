@@ -1,14 +1,21 @@
 package mysuika.logic;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.jbox2d.dynamics.Body;
-
+import mysuika.TraceRecorder;
 import mysuika.model.FruitType;
+import mysuika.model.GameConfig;
+import mysuika.physics.DropPredictor;
+import mysuika.physics.FruitStateBuffer;
 import mysuika.physics.PhysicsWorld;
 import mysuika.repository.HighScoreRepository;
 import mysuika.ui.GameFrame;
 import mysuika.ui.GamePanel;
+import mysuika.ui.ViewTransform;
 
 /**
  * GameManager クラス
@@ -17,6 +24,11 @@ import mysuika.ui.GamePanel;
  * フルーツの生成・落下・衝突判定・スコア管理・ゲームオーバー判定など
  * ゲームの主要なロジックを一括して管理します。
  * 
+ * 状態を変更するのはゲームループのスレッド（最初にtickを呼んだスレッド）だけで、
+ * 描画やイベント処理のスレッドはgetSnapshotで変更不可のスナップショットを読み出します。
+ * スナップショットはステップごとにvolatileのフィールドで公開するため、読み出し側にロックは不要です。
+ * （ゲームループ以外のスレッドから変更しようとするとIllegalStateExceptionを投げます）
+ * 
  * 作成者: 岡本
  * 作成日: 2025-06-02
  */
@@ -27,17 +39,40 @@ public class GameManager {
 	 */
 	public  static final FruitType[] TYPES = FruitType.values();
 	
-	public  static final int     GUIDE_Y        = 50;        // ガイド表示の縦座標は上から50px
-	private static final int     NEXT_FURITSIZE = 5;         // ランダムに出現するフルーツのサイズ範囲（0～4までのランダムとして使用）
-	private static final int     GUIDE_MOVE     = 20;        // キーボード入力でガイドを左右に動かすのは20px
-	private static final float   GAMEOVER_LINE  = 17.0f;     // ゲームオーバーとなる高さ（物理ワールド上で18m相当）
-	private static boolean       isGameover     = false;     // ゲームオーバー状態を管理する。trueならゲームを終了する。
-	private static boolean       isDrop         = false;     //フルーツ落下中かどうかを管理する。trueの間はフルーツを落下させる入力をを受け付けない
+	public  static final float   DROP_Y         = 550 / ViewTransform.REFERENCE_SCALE; // フルーツを落とす高さ（m単位、既定の大きさの画面で上から50px）
+	private static final int     GUIDE_MOVE     = 20;        // キーボード入力でガイドを左右に動かすのは20（既定の拡大率でのpx単位）
+	public  static final float   GAMEOVER_LINE  = 17.0f;     // ゲームオーバーとなる高さ（物理ワールド上で18m相当）
+	private static final int     GAMEOVER_DWELL = 120;       // ライン超えがこのステップ数（約2秒）続いたらゲームオーバー
+	private static final float[] EMPTY_XY       = new float[0]; // 画面を持たない時のスナップショットのフルーツ座標
+	private static final int[]   EMPTY_TYPES    = new int[0];
+	private static final int     GARBAGE_ROW    = 5;         // 1ステップに降らせるお邪魔フルーツの最大数（横一列分）
+	private static final int     GARBAGE_TYPES  = 2;         // お邪魔フルーツの種別（小さい方から2種類を交互に並べ、隣どうしで合体しないようにする）
+	private boolean              isGameover     = false;     // ゲームオーバー状態を管理する。trueならゲームを終了する。
+	private boolean              isDrop         = false;     //フルーツ落下中かどうかを管理する。trueの間はフルーツを落下させる入力をを受け付けない
 	private GameFrame            frame;                      // ゲームウィンドウのフレーム
 	private PhysicsWorld         physics;                    // 物理演算を管理するクラス
-	private int                  constType, nextType, score; // 現在のフルーツ型、次に出現するフルーツ型、スコア
-	private List<Integer>        topScores;
-	private HighScoreRepository  repo;
+	private int                  constType, nextType;        // 現在のフルーツ型、次に出現するフルーツ型
+	private ScoreEngine          scoreEngine;                // スコアと連鎖・合体回数の集計
+	private volatile List<Integer> topScores;                // ハイスコア上位3件（読み込み完了までは空）
+	private CompletableFuture<Void> topScoresLoading;         // ハイスコアの読み込み処理
+	private HighScoreRepository  repo;                       // ハイスコアの保存先（ヘッドレス時はnull）
+	private FruitQueue           queue;                      // 次に出現するフルーツ型の先読みキュー
+	private int[]                upcoming;                   // 先読み中のフルーツ型（公開用の写し、取り出した後に求められたときに作り直す）
+	private boolean              upcomingStale;              // 取り出した後、upcomingを作り直していないか
+	private int                  dropCount;                  // フルーツを落下させた回数
+	private InputQueue           input        = new InputQueue();   // 入力コマンドのキュー
+	private InputLatency         inputLatency = new InputLatency(); // 入力遅延の計測
+	private volatile GameSnapshot snapshot    = GameSnapshot.EMPTY; // 描画・イベント処理向けに公開中の状態
+	private Thread               writer;                     // 状態を変更するスレッド（最初にtickを呼んだスレッド）
+	private boolean              captureFruits;              // 画面を持たない場合もスナップショットにフルーツの写しを含めるか（画像の書き出し用）
+	private boolean              publishing = true;          // スナップショットを公開するか（強化学習の環境など、読む側がいなければ止める）
+	private float                lastDropX;                  // 最後にフルーツを落とした位置（m単位、画面を持たない場合のガイド位置）
+	private final AtomicInteger  pendingGarbage = new AtomicInteger(); // 降らせる予定のお邪魔フルーツの数（対戦相手から届く）
+	private Runnable             afterTick;                  // 各ステップの公開後の処理（対戦の通信など、未使用時はnull）
+	private int                  settleRecorded;             // 落ち着くまでのステップ数を記録済みの落下回数（早送り用）
+	private RewindBuffer         rewind;                     // 巻き戻し用の記録（練習モード以外はnull）
+	private boolean              scrubbing;                  // 巻き戻し中か（物理演算を止めて、選んだステップの状態を表示する）
+	private int                  scrubTarget = -1;           // このステップで戻す先のステップ（なければ-1）
 	
 	/**
 	 * コンストラクタ
@@ -45,12 +80,283 @@ public class GameManager {
 	 */
 	public GameManager(PhysicsWorld physics){
 		this.physics   = physics;
-		this.score     = 0;
+		this.scoreEngine = new ScoreEngine(physics.getConfig());
 		this.repo      = new HighScoreRepository();
-		this.topScores = repo.loadTopScores();
-		this.constType = randType(); // 現在のフルーツ型をランダムに設定
-		this.nextType  = randType(); // 次のフルーツ型をランダムに設定
+		this.topScores = new ArrayList<>();
+		// ハイスコアはファイル読み込みを待たずに裏で読み込み、完了したらサイドパネルに反映
+		this.topScoresLoading = CompletableFuture
+				.supplyAsync(repo::loadTopScores)
+				.thenAccept(scores -> {
+					this.topScores = scores;
+					repaintPanels();
+				});
+		this.queue     = new FruitQueue(FruitGenerator.create(physics.getConfig(), new SplittableRandom()),
+				physics.getConfig().getLookahead());
+		this.constType = pollType(); // 現在のフルーツ型を先読みキューから取り出す（次のフルーツ型も更新される）
+		this.rewind    = createRewind(physics, queue.size());
 		physics.init(); // 物理ワールドの初期化
+		publish();      // 最初のステップ前の状態を公開
+	}
+	
+	/**
+	 * ヘッドレス用コンストラクタ
+	 * 画面・ハイスコア保存を持たず、乱数の種を固定して同じ展開を再現できる
+	 * （バランス調整ツールなどで多数のゲームを並列に回すために使用）
+	 * @param physics 物理ワールド
+	 * @param seed フルーツ型の抽選に使う乱数の種
+	 */
+	public GameManager(PhysicsWorld physics, long seed) {
+		this.physics   = physics;
+		this.scoreEngine = new ScoreEngine(physics.getConfig());
+		this.topScores = new ArrayList<>();
+		this.queue     = new FruitQueue(FruitGenerator.create(physics.getConfig(), new SplittableRandom(seed)),
+				physics.getConfig().getLookahead());
+		this.constType = pollType();
+		this.rewind    = createRewind(physics, queue.size());
+		physics.setGameManager(this);
+		physics.init();
+		publish();
+	}
+	
+	/**
+	 * 新しいゲームを始める（JVMを起動し直さずに次のゲームを始める用、ゲームループのスレッドから呼ぶ）
+	 * 物理ワールド・スコア・先読みキュー・落下回数を初期化して、最初のステップ前の状態を公開する。
+	 * ハイスコアと入力遅延の計測は引き継ぐ。
+	 * @param random フルーツ型の抽選に使う乱数
+	 */
+	private void reset(SplittableRandom random) {
+		if (!isWriter()) throw new IllegalStateException("reset must be called from the game loop thread");
+		physics.reset();
+		this.scoreEngine = new ScoreEngine(physics.getConfig());
+		this.queue       = new FruitQueue(FruitGenerator.create(physics.getConfig(), random),
+				physics.getConfig().getLookahead());
+		this.constType   = pollType();
+		this.isGameover  = false;
+		this.isDrop      = false;
+		this.dropCount   = 0;
+		this.settleRecorded = 0;
+		this.lastDropX   = 0.0f;
+		this.scrubbing   = false;
+		if (rewind != null) rewind.clear();
+		publish();
+	}
+	
+	/**
+	 * 調整値で巻き戻せるステップ数が指定されていれば、巻き戻し用の記録を作る
+	 * （記録の大きさはフィールドに置けるフルーツ数の上限・種類数・先読み数から決める）
+	 * @param physics 物理ワールド
+	 * @param lookahead 先読みするフルーツ型の数
+	 * @return 巻き戻し用の記録（指定がなければnull）
+	 */
+	private static RewindBuffer createRewind(PhysicsWorld physics, int lookahead) {
+		GameConfig config = physics.getConfig();
+		if (config.getRewindSteps() <= 0) return null;
+		return new RewindBuffer(config.getRewindSteps(), config.getMaxFruits(), config.getTypeCount(), lookahead);
+	}
+	
+	/**
+	 * 新しいゲームを始める（フルーツ型の抽選は毎回異なる）
+	 */
+	public void reset() {
+		reset(new SplittableRandom());
+	}
+	
+	/**
+	 * 乱数の種を指定して新しいゲームを始める（同じ種なら起動直後のゲームと同じ展開になる）
+	 * @param seed フルーツ型の抽選に使う乱数の種
+	 */
+	public void reset(long seed) {
+		reset(new SplittableRandom(seed));
+	}
+	
+	/**
+	 * ゲームループ1回分の処理（呼び出した時刻をこのステップの予定時刻とする）
+	 */
+	public void tick() {
+		tick(System.nanoTime());
+	}
+	
+	/**
+	 * ゲームループ1回分の処理
+	 * - このステップの予定時刻までに受け付けた入力を適用
+	 * - 物理ワールドを1ステップ進める
+	 * - ゲームオーバー判定
+	 * - 巻き戻し用に記録（練習モードのみ）
+	 * - 更新後の状態をスナップショットとして公開
+	 * 巻き戻し中は入力の適用（戻す先の切り替え）と公開だけを行う
+	 * 物理ワールドの変更はすべてゲームループのスレッドから行う
+	 * 遅れを取り戻すために続けて複数のステップを進める場合は、各ステップの予定時刻を渡すことで
+	 * 入力が受け付けた時刻の属するステップに適用される（全てが最初のステップにまとまらない）
+	 * @param scheduledNanos このステップの予定時刻（System.nanoTime基準）
+	 */
+	public void tick(long scheduledNanos) {
+		long t = TraceRecorder.begin();
+		if (!isWriter()) throw new IllegalStateException("tick must be called from the game loop thread");
+		applyInputs(scheduledNanos);
+		if (!scrubbing) {
+			dropGarbage();
+			physics.step();
+			isGameOver();
+			if (rewind != null) rewind.record(this);
+		}
+		publish();
+		if (afterTick != null) afterTick.run();
+		TraceRecorder.end(TraceRecorder.Span.TICK, t);
+	}
+	
+	/**
+	 * 盤面が落ち着くまで物理演算だけを続けて進める（画面を持たない場合の早送り、ゲームループのスレッドから呼ぶ）
+	 * 落下中のフルーツがあれば着地も待つ。dropFruitAtの直後に呼ぶと、その落下の落ち着くまでのステップ数を
+	 * SettleDetectorに記録する。
+	 * tickと違い、ステップごとの入力の適用・お邪魔フルーツ・スナップショットの公開・afterTickを行わず、
+	 * ゲームオーバー判定だけをステップごとに行う。スナップショットは最後に1度だけ公開する（setPublishingで止めていれば公開しない）。
+	 * @param maxSteps 進める物理ステップ数の上限
+	 * @return 進めた物理ステップ数
+	 */
+	public int fastForward(int maxSteps) {
+		if (!isWriter()) throw new IllegalStateException("fastForward must be called from the game loop thread");
+		int     steps   = 0;
+		boolean settled = false;
+		while (!isGameover && steps < maxSteps) {
+			physics.step();
+			steps++;
+			isGameOver();
+			if (physics.isSettled()) {
+				settled = true;
+				break;
+			}
+		}
+		if (dropCount != settleRecorded && !isGameover) { // ゲームオーバーで終えた落下は記録しない
+			physics.getSettleDetector().record(steps, settled);
+			settleRecorded = dropCount;
+		}
+		publish();
+		return steps;
+	}
+	
+	/**
+	 * 現在の状態から変更不可のスナップショットを作り、volatileのフィールドで公開する
+	 * 画面を持つ場合（または画像の書き出し用に指定された場合）は、描画用にフルーツの写しと
+	 * ガイドの着地点予測も含める（画面を持たない場合のガイド位置は最後に落とした位置）
+	 * フルーツの写しは公開のたびに新しい配列に書き、公開した後は書き換えない
+	 * （描画が遅れて古いスナップショットを持ち続けても、そのステップの値のまま読める）
+	 */
+	private void publish() {
+		if (!publishing) return;
+		FruitStateBuffer state = physics.getFruitState();
+		int     count  = 0;
+		float[] xy     = EMPTY_XY;
+		int[]   types  = EMPTY_TYPES;
+		int     cursor = 0, hitIndex = -1;
+		float   landY  = 0.0f;
+		if (frame != null || captureFruits) {
+			int live = state.getLiveCount();
+			xy    = new float[live * 2];
+			types = new int[live];
+			int hitSlot = DropPredictor.NONE;
+			cursor = frame != null ? frame.getGamePanel().getCursorX() : (int) (lastDropX * ViewTransform.REFERENCE_SCALE);
+			if (constType != -1) {
+				DropPredictor predictor = physics.getDropPredictor();
+				float x = cursor / ViewTransform.REFERENCE_SCALE, r = physics.getConfig().getRadius(constType);
+				landY   = predictor.predictY(x, r);
+				hitSlot = predictor.predictHit(x, r);
+			}
+			for (int s = 0; s < state.getHighWater() && count < live; s++) {
+				if (!state.isLive(s)) continue;
+				if (s == hitSlot) hitIndex = count;
+				xy[2 * count]     = state.getX(s);
+				xy[2 * count + 1] = state.getY(s);
+				types[count++]    = state.getType(s);
+			}
+		}
+		int step = state.getStep();
+		this.snapshot = new GameSnapshot(snapshot.getVersion() + 1, step, scoreEngine.getScore(), constType, nextType,
+				isDrop, isGameover, getDangerLevel(), dropCount, xy, types, count, cursor, landY, hitIndex,
+				scoreEngine.isComboActive(step) ? scoreEngine.getCombo() : 0, scoreEngine.getBestCombo(),
+				scoreEngine.pointsPerSecond(step), scoreEngine.getMergesByType(), getUpcomingTypes());
+	}
+	
+	/**
+	 * 呼び出し元が状態を変更してよいスレッドか（最初に呼んだスレッドを書き込み側として記録する）
+	 * 呼び出し元は違反時にIllegalStateExceptionを投げる（-eaの有無に関わらず検出する）
+	 */
+	private boolean isWriter() {
+		if (writer == null) writer = Thread.currentThread();
+		return writer == Thread.currentThread();
+	}
+	
+	/**
+	 * 入力キューから指定時刻までのコマンドを取り出して適用
+	 * @param until 適用対象とする受付時刻の上限
+	 */
+	private void applyInputs(long until) {
+		InputCommand command;
+		while ((command = input.pollUntil(until)) != null) {
+			if (command.getType() == InputCommand.Type.RESTART) {
+				reset(); // 以降のコマンドは新しいゲームに適用する
+				continue;
+			}
+			if (command.getType() == InputCommand.Type.REWIND) { // ゲームオーバー後も受け付ける
+				scrubbing   = rewind != null;
+				scrubTarget = command.getX(); // 続けて届いた場合は最後のものだけ戻す
+				continue;
+			}
+			if (command.getType() == InputCommand.Type.RESUME) {
+				scrubbing = false;
+				continue;
+			}
+			if (isGameover) continue; // ゲームオーバー時は操作不可
+			if (frame == null) continue; // 画面を持たない場合は操作するガイドがない
+			switch (command.getType()) {
+			case DROP       -> dropFruit();
+			case MOVE_LEFT  -> moveGuideLeft();
+			case MOVE_RIGHT -> moveGuideRight();
+			case MOVE_TO    -> moveGuideTo(command.getX());
+			case SELECT_CURSOR -> frame.getGamePanel().selectCursor(command.getX());
+			case RESTART, REWIND, RESUME -> { } // 上で処理済み
+			}
+			inputLatency.applied(command.getCapturedNanos());
+		}
+		if (scrubTarget >= 0) {
+			rewindTo(scrubTarget);
+			scrubTarget = -1;
+		}
+	}
+	
+	/**
+	 * 巻き戻し用の記録から、指定のステップの状態に戻す（練習モード、ゲームループのスレッドから呼ぶ）
+	 * 物理ワールド・スコア・現在と次のフルーツ・先読み・落下回数を戻し、ゲームオーバーも解除する。
+	 * 戻した後に進めると、それより後の記録は捨てられる。
+	 * @param step 戻すステップ（RewindBuffer.getAvailableFrom～getAvailableTo）
+	 * @return 戻せればtrue（練習モードでない場合や範囲外ならfalse）
+	 */
+	public boolean rewindTo(int step) {
+		if (!isWriter()) throw new IllegalStateException("rewindTo must be called from the game loop thread");
+		if (rewind == null) return false;
+		if (step == physics.getFruitState().getStep()) return true; // 既にそのステップの状態
+		if (!rewind.restore(this, step)) return false;
+		this.isGameover     = false;
+		this.settleRecorded = dropCount;
+		publish();
+		return true;
+	}
+	
+	/**
+	 * 巻き戻し用の記録からゲームの進行状態を戻す（RewindBufferから呼ぶ）
+	 * @param constType 現在のフルーツ型
+	 * @param nextType 次に出現するフルーツ型
+	 * @param upcoming 先読み中のフルーツ型（記録したときの写し）
+	 * @param dropCount フルーツを落下させた回数
+	 * @param dropping 落下中か
+	 */
+	void restoreState(int constType, int nextType, int[] upcoming, int dropCount, boolean dropping) {
+		this.constType     = constType;
+		this.nextType      = nextType;
+		this.upcoming      = upcoming;
+		this.upcomingStale = false;
+		queue.restore(upcoming);
+		this.dropCount     = dropCount;
+		this.isDrop        = dropping;
 	}
 	
 	/**
@@ -60,10 +366,8 @@ public class GameManager {
 	 * - 落下中フラグの解除
 	 */
 	public void CollisionDetection() {
-		this.constType = nextType;
-		this.nextType  = randType();
-		frame.getSidePanel().repaint();
-		frame.getGamePanel().repaint();
+		this.constType = pollType();
+		repaintPanels();
 		physics.clearDrop(); // 監視中のBodyをnullにする
 		isDrop = false; // 落下中フラグをfalseに
 	}
@@ -75,36 +379,57 @@ public class GameManager {
 	 * - ガイド表示を一時的に非表示（落下中フラグがtrueの間）
 	 */
 	public void dropFruit() {
+		// ガイド位置から物理ワールド座標へ変換
+		dropFruitAt(frame.getGamePanel().getCursorX() / ViewTransform.REFERENCE_SCALE);
+	}
+	
+	/**
+	 * 物理ワールド上の指定X座標からフルーツを落下させる
+	 * （ヘッドレス時はガイドを使わずこちらを直接呼ぶ）
+	 * @param x 落下位置のX座標（m単位）
+	 */
+	public void dropFruitAt(float x) {
+		if (!isWriter()) throw new IllegalStateException("dropFruitAt must be called from the game loop thread");
 		if (isDrop) return;// 既に落下中なら何もしない
 		isDrop = true;// 落下中フラグを立てる
-		// ガイド位置から物理ワールド座標へ変換
-		float x = frame.getGamePanel().getCursorX() / GamePanel.SCALE;
-		float y = (frame.getGamePanel().getHeight() - GUIDE_Y) / GamePanel.SCALE;
+		lastDropX = x;
 		// フルーツを物理ワールドに生成し、落下開始。同時に監視用フィールドにsetする。
-		physics.setDrop(physics.spawnFruit(x, y,constType));
+		// 落とす高さは画面の大きさによらない（ウィンドウの大きさを変えても展開は変わらない）
+		physics.setDrop(physics.spawnFruit(x, DROP_Y, constType));
+		dropCount++;
 		// 落下中はガイドに何も表示しない
 		this.constType = -1;
-		frame.getGamePanel().repaint();
+		if (frame != null) frame.getGamePanel().repaint();
+	}
+	
+	/**
+	 * 対戦相手から届いたお邪魔フルーツを、フィールドの上から横一列ずつ降らせる
+	 * 位置はフィールドを等分した点とし、乱数を使わないため展開の再現性に影響しない
+	 * 種別は隣どうしで異なるようにし、降らせた列の中で連鎖が起きにくくする
+	 */
+	private void dropGarbage() {
+		if (isGameover || pendingGarbage.get() == 0) return;
+		int   count  = Math.min(GARBAGE_ROW, pendingGarbage.getAndUpdate(n -> n - Math.min(GARBAGE_ROW, n)));
+		float width  = physics.getConfig().getFieldWidth();
+		for (int i = 0; i < count; i++) {
+			physics.spawnFruit(width * (i + 0.5f) / count, DROP_Y, i % GARBAGE_TYPES);
+		}
 	}
 	
 	/**
 	 * ゲームオーバー判定
-	 * - 全フルーツの座標をチェックし、上部ラインを超えていればゲームオーバー
+	 * - 危険ゾーンのセンサーが記録した滞在時間をチェックし、
+	 *   上部ラインを超えたまま一定時間経過していればゲームオーバー
 	 * - ゲームオーバー時はタイマー停止
 	 */
 	public void isGameOver() {
-		for (Body fruit : physics.getActiveFruitBodies()) {
-			if (isDrop)  continue; // 落下中のフルーツは処理をスキップ
-			// フルーツの上端がゲームオーバーラインを超えたか判定
-			if (fruit.getPosition().y + TYPES[(int) fruit.getUserData()].getRadius() > GAMEOVER_LINE) {
-				isGameover = true;
-				break;
-			}
-		}
-		if(isGameover) {
-			frame.getGamePanel().getTimer().stop();	// ゲーム停止
-			updateHighScores();
+		long t = TraceRecorder.begin();
+		if (physics.getDangerDwellSteps() >= GAMEOVER_DWELL) isGameover = true;
+		if(isGameover && frame != null) {
+			frame.getGamePanel().stopLoop();	// ゲーム停止
+			if (rewind == null) updateHighScores(); // 巻き戻せる練習モードのスコアはハイスコアに残さない
 		}
+		TraceRecorder.end(TraceRecorder.Span.GAME_OVER, t);
 	}
 	
 	/**
@@ -124,34 +449,88 @@ public class GameManager {
 	 */
 	public void moveGuideRight() {
 		GamePanel panel = frame.getGamePanel();
-		int maxX = panel.getWidth(); // パネルの右端
+		int maxX = panel.getFieldUnits(); // フィールドの右端
 		int newX = panel.getCursorX() + GUIDE_MOVE;
 		// 右端に到達したらそれ以上行かない
 		if (newX > maxX) newX = maxX;
 		panel.setCursorX(newX);
 		panel.repaint();
 	}
+	
+	/**
+	 * ガイド（カーソル）を指定位置に移動
+	 * @param x 移動先X座標（既定の拡大率でのpx単位）
+	 */
+	public void moveGuideTo(int x) {
+		GamePanel panel = frame.getGamePanel();
+		// 画面端からはみ出さないように制限
+		panel.setCursorX(Math.max(0, Math.min(panel.getFieldUnits() - 1, x)));
+		panel.repaint();
+	}
 	/**
 	 * スコアがハイスコア上位3件に入るかを判定し、該当する場合はCSVに保存します。
 	 * 保存後は、ハイスコアリストを再読み込みして最新状態に更新します。
 	 * 
 	 */
 	public void updateHighScores() {
+		long t = TraceRecorder.begin();
+		if (topScoresLoading != null) topScoresLoading.join(); // 読み込み完了前なら待つ
+		int score = scoreEngine.getScore();
 		if (topScores.isEmpty() || score > topScores.get(topScores.size() - 1) || topScores.size() < 3) {
 			repo.saveScore(score);
 			topScores = repo.loadTopScores();
 		}
+		TraceRecorder.end(TraceRecorder.Span.HIGH_SCORES, t);
+	}
+	
+	/**
+	 * サイドパネルとゲーム画面の再描画を依頼（ヘッドレス時は何もしない）
+	 */
+	public void repaintPanels() {
+		if (frame == null) return;
+		frame.getSidePanel().repaint();
+		frame.getGamePanel().repaint();
 	}
 	
 	/**
-	 * フルーツのtypeをランダムに返す
-	 * @return 0～NEXT_FURITSIZE-1 の整数
+	 * 先読みキューから次のフルーツ型を取り出し、次に出現するフルーツ型を更新する
+	 * 先読みの写しは次に求められたときに作り直す（公開しない間は取り出しごとのメモリ確保がない）
+	 * @return 0～（出現する種類数-1）の整数
 	 */
-	private int randType() {
-		return (int)(Math.random() * NEXT_FURITSIZE);
+	private int pollType() {
+		int type           = queue.poll();
+		this.nextType      = queue.peek(0);
+		this.upcomingStale = true;
+		return type;
 	}
 	
 	// 以下、ゲッター・セッター
+	/**
+	 * 最後に公開された状態（どのスレッドからでも呼べる）
+	 * @return 変更不可のスナップショット
+	 */
+	public GameSnapshot getSnapshot() {
+		return snapshot;
+	}
+	/**
+	 * 画面を持たない場合もスナップショットにフルーツの写しを含める（画像の書き出し用）
+	 * @param captureFruits 含めるか
+	 */
+	public void setCaptureFruits(boolean captureFruits) {
+		this.captureFruits = captureFruits;
+		publish();
+	}
+	/**
+	 * スナップショットを公開するかを切り替える（ゲームループのスレッドから呼ぶ）
+	 * 止めている間はgetSnapshotが止めた時点の状態のまま変わらず、tick・fastForwardでスナップショットや
+	 * その写しを作らない（強化学習の環境など、状態をGameManagerから直接読む場合の行動ごとのメモリ確保を省く）
+	 * 再開するとすぐに現在の状態を公開する
+	 * @param publishing 公開するか
+	 */
+	public void setPublishing(boolean publishing) {
+		this.publishing = publishing;
+		publish();
+	}
 	public void setFrame(GameFrame gameframe) {
 		this.frame = gameframe;
 	}
@@ -161,11 +540,40 @@ public class GameManager {
 	public PhysicsWorld getWorld() {
 		return physics;
 	}
+	/**
+	 * 合体1回分のスコアを加算する（物理ワールドが合体を確定したときに1度だけ呼ぶ）
+	 * @param type 合体したフルーツの種別
+	 */
+	public void onMerge(int type) {
+		if (!isWriter()) throw new IllegalStateException("onMerge must be called from the game loop thread");
+		scoreEngine.onMerge(type, physics.getFruitState().getStep());
+	}
 	public int getScore() {
-		return score;
+		return scoreEngine.getScore();
+	}
+	/**
+	 * お邪魔フルーツを降らせる予定に加える（どのスレッドからでも呼べる。次のステップから降らせる）
+	 * @param count 個数
+	 */
+	public void addGarbage(int count) {
+		pendingGarbage.addAndGet(count);
+	}
+	public int getPendingGarbage() {
+		return pendingGarbage.get();
+	}
+	/**
+	 * 各ステップの公開後に呼ぶ処理を設定する（ゲームループのスレッドで呼ばれる）
+	 * @param afterTick 処理（nullで解除）
+	 */
+	public void setAfterTick(Runnable afterTick) {
+		this.afterTick = afterTick;
 	}
-	public void addScore(int add) {
-		this.score += add;
+	/** 最後にフルーツを落とした位置（m単位） */
+	public float getLastDropX() {
+		return lastDropX;
+	}
+	public ScoreEngine getScoreEngine() {
+		return scoreEngine;
 	}
 	public List<Integer> getTopScores() {
 		return topScores;
@@ -179,11 +587,50 @@ public class GameManager {
 	public int getNext() {
 		return nextType;
 	}
-	public void setNext(int type) {
-		this.nextType = type;
+	/**
+	 * 先読み中のフルーツ型（ゲームループのスレッドから使う。他のスレッドはスナップショットを使う）
+	 * @param index 先頭からの位置（0が次に出現するもの）
+	 * @return フルーツ型
+	 */
+	public int getUpcoming(int index) {
+		return queue.peek(index);
+	}
+	public int getLookahead() {
+		return queue.size();
+	}
+	/** 先読み中のフルーツ型の写し（変更しないこと。取り出した後は別の配列に差し替わる） */
+	int[] getUpcomingTypes() {
+		if (upcomingStale) {
+			upcoming      = queue.toArray();
+			upcomingStale = false;
+		}
+		return upcoming;
+	}
+	/** 巻き戻し用の記録（練習モード以外はnull） */
+	public RewindBuffer getRewind() {
+		return rewind;
+	}
+	public InputQueue getInput() {
+		return input;
+	}
+	public InputLatency getInputLatency() {
+		return inputLatency;
 	}
 	public boolean siGameOver() {
 		return isGameover;
 	}
+	public boolean isDropping() {
+		return isDrop;
+	}
+	public int getDropCount() {
+		return dropCount;
+	}
+	/**
+	 * 危険度（ライン超えの滞在時間がゲームオーバーまでどれだけ進んだか）
+	 * @return 0.0（安全）～1.0（ゲームオーバー）
+	 */
+	public float getDangerLevel() {
+		return Math.min(1.0f, physics.getDangerDwellSteps() / (float) GAMEOVER_DWELL);
+	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package mysuika.logic;
+
+/**
+ * GameSnapshot クラス
+ *
+ * ある時点のゲーム状態（スコア・連鎖・現在と次のフルーツ・落下中か・ゲームオーバーか・危険度など）を
+ * まとめた変更不可のオブジェクトです。
+ * GameManagerの状態はゲームループのスレッド（単一の書き込み側）だけが変更し、
+ * ステップごとに新しいスナップショットを作ってvolatileのフィールドで公開します。
+ * 描画やイベント処理のスレッドはロックを取らずに最新のスナップショットを読み出し、
+ * 1つのスナップショットの中では常に同じステップの値どうしが揃っています。
+ *
+ * 画面を持つ場合は、描画用にフルーツの位置と種類の写しと、操作中のガイドの着地点予測も含みます。
+ * フルーツの写しの配列も公開のたびに新しく作り、公開後に書き換えることはないため、
+ * 描画が遅れて古いスナップショットを持ち続けても、どのスレッドから読んでも構いません。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public final class GameSnapshot {
+	/** 最初のステップ前の空のスナップショット */
+	public static final GameSnapshot EMPTY = new GameSnapshot(0, 0, 0, -1, 0, false, false, 0.0f, 0,
+			new float[0], new int[0], 0, 0, 0.0f, -1,
+			0, 0, 0.0f, new int[0], new int[] { 0 });
+
+	private final long    version;     // 公開した通し番号（公開のたびに1増える）
+	private final int     step;        // 物理ステップ数
+	private final int     score;       // スコア
+	private final int     constType;   // 現在のフルーツ型（落下中は-1）
+	private final int     nextType;    // 次に出現するフルーツ型
+	private final boolean dropping;    // フルーツ落下中か
+	private final boolean gameOver;    // ゲームオーバーか
+	private final float   dangerLevel; // 危険度（0.0～1.0）
+	private final int     dropCount;   // フルーツを落下させた回数
+	private final float[] fruitXY;     // フルーツの座標（x, yの順に並べる、m単位、画面なしでは空）
+	private final int[]   fruitTypes;  // フルーツの種類（fruitXYと同じ順）
+	private final int     fruitCount;  // フルーツの数
+	private final int     cursorX;     // 予測に使ったガイドのX座標（既定の拡大率でのpx単位）
+	private final float   landY;       // ガイドから落とした場合の着地点のY座標（m単位）
+	private final int     hitIndex;    // 最初に触れるフルーツの番号（fruitXY内、床なら-1）
+	private final int     combo;       // 続いている連鎖の数（連鎖が途切れていれば0）
+	private final int     bestCombo;   // これまでの最大の連鎖数
+	private final float   pointsPerSecond; // 直近数秒の1秒あたりのスコア
+	private final int[]   mergesByType;    // フルーツ種別ごとの合体回数（ScoreEngineが差し替えるため変化しない）
+	private final int[]   upcoming;        // 先読み中のフルーツ型（先頭が次に出現するもの、GameManagerが差し替えるため変化しない）
+
+	GameSnapshot(long version, int step, int score, int constType, int nextType, boolean dropping,
+			boolean gameOver, float dangerLevel, int dropCount, float[] fruitXY, int[] fruitTypes,
+			int fruitCount, int cursorX, float landY, int hitIndex,
+			int combo, int bestCombo, float pointsPerSecond, int[] mergesByType, int[] upcoming) {
+		this.version     = version;
+		this.step        = step;
+		this.score       = score;
+		this.constType   = constType;
+		this.nextType    = nextType;
+		this.dropping    = dropping;
+		this.gameOver    = gameOver;
+		this.dangerLevel = dangerLevel;
+		this.dropCount   = dropCount;
+		this.fruitXY     = fruitXY;
+		this.fruitTypes  = fruitTypes;
+		this.fruitCount  = fruitCount;
+		this.cursorX     = cursorX;
+		this.landY       = landY;
+		this.hitIndex    = hitIndex;
+		this.combo       = combo;
+		this.bestCombo   = bestCombo;
+		this.pointsPerSecond = pointsPerSecond;
+		this.mergesByType    = mergesByType;
+		this.upcoming        = upcoming;
+	}
+
+	/**
+	 * 対戦相手の盤面を描画するためのスナップショットを作る（相手から受け取った値だけを持つ）
+	 * @param step 相手の物理ステップ数
+	 * @param score 相手のスコア
+	 * @param dropping 相手のフルーツが落下中か
+	 * @param gameOver 相手がゲームオーバーか
+	 * @param dangerLevel 相手の危険度（0.0～1.0）
+	 * @param fruitXY フルーツの座標（x, yの順、m単位）
+	 * @param fruitTypes フルーツの種類
+	 * @param fruitCount フルーツの数
+	 * @param cursorX 相手のガイドのX座標（既定の拡大率でのpx単位）
+	 * @return スナップショット（現在・次のフルーツと着地点予測は持たない）
+	 */
+	public static GameSnapshot remote(int step, int score, boolean dropping, boolean gameOver, float dangerLevel,
+			float[] fruitXY, int[] fruitTypes, int fruitCount, int cursorX) {
+		return new GameSnapshot(0, step, score, -1, 0, dropping, gameOver, dangerLevel, 0,
+				fruitXY, fruitTypes, fruitCount, cursorX, 0.0f, -1,
+				0, 0, 0.0f, EMPTY.mergesByType, EMPTY.upcoming);
+	}
+
+	// 以下、ゲッター
+	public long getVersion() {
+		return version;
+	}
+	public int getStep() {
+		return step;
+	}
+	public int getScore() {
+		return score;
+	}
+	public int getConst() {
+		return constType;
+	}
+	public int getNext() {
+		return nextType;
+	}
+	public boolean isDropping() {
+		return dropping;
+	}
+	public boolean isGameOver() {
+		return gameOver;
+	}
+	public float getDangerLevel() {
+		return dangerLevel;
+	}
+	public int getDropCount() {
+		return dropCount;
+	}
+	public int getFruitCount() {
+		return fruitCount;
+	}
+	/** 指定番号のフルーツのX座標（m単位） */
+	public float getFruitX(int i) {
+		return fruitXY[2 * i];
+	}
+	/** 指定番号のフルーツのY座標（m単位） */
+	public float getFruitY(int i) {
+		return fruitXY[2 * i + 1];
+	}
+	public int getFruitType(int i) {
+		return fruitTypes[i];
+	}
+	public int getCursorX() {
+		return cursorX;
+	}
+	public float getLandY() {
+		return landY;
+	}
+	public int getHitIndex() {
+		return hitIndex;
+	}
+	public int getCombo() {
+		return combo;
+	}
+	public int getBestCombo() {
+		return bestCombo;
+	}
+	public float getPointsPerSecond() {
+		return pointsPerSecond;
+	}
+	/** 先読み中のフルーツの個数 */
+	public int getUpcomingCount() {
+		return upcoming.length;
+	}
+	/**
+	 * 先読み中のフルーツ型
+	 * @param index 先頭からの位置（0が次に出現するもの、getNextと同じ）
+	 */
+	public int getUpcoming(int index) {
+		return upcoming[index];
+	}
+	/** 指定種別のフルーツの合体回数 */
+	public int getMerges(int type) {
+		return type < mergesByType.length ? mergesByType[type] : 0;
+	}
+}
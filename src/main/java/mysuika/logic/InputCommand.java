@@ -0,0 +1,51 @@
+package mysuika.logic;
+
+/**
+ * InputCommand クラス
+ * 
+ * マウス・キーボード入力を、発生時刻（ナノ秒）付きのコマンドとして表します。
+ * 入力リスナーが生成してInputQueueに積み、ゲームループが物理演算のステップ前に適用します。
+ * 
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class InputCommand {
+	/** コマンドの種類 */
+	public enum Type {
+		DROP,       // フルーツを落下
+		MOVE_LEFT,  // ガイドを左へ
+		MOVE_RIGHT, // ガイドを右へ
+		MOVE_TO,    // ガイドを指定位置へ（マウス移動）
+		SELECT_CURSOR, // 操作するガイドを切り替え（xにガイドの番号）
+		RESTART,    // 新しいゲームを始める（ゲームオーバー後も受け付ける）
+		REWIND,     // 物理演算を止めて、xのステップの状態に戻す（練習モード、ゲームオーバー後も受け付ける）
+		RESUME      // 巻き戻しをやめて、表示中のステップから続ける
+	}
+	
+	private final Type type;          // コマンドの種類
+	private final int  x;             // MOVE_TOの移動先X座標（既定の拡大率でのpx単位）、SELECT_CURSORのガイド番号、REWINDのステップ
+	private final long capturedNanos; // 入力を受け取った時刻（System.nanoTime基準）
+	
+	/**
+	 * コンストラクタ
+	 * @param type コマンドの種類
+	 * @param x MOVE_TOの移動先X座標（その他は0）
+	 * @param capturedNanos 入力を受け取った時刻
+	 */
+	public InputCommand(Type type, int x, long capturedNanos) {
+		this.type          = type;
+		this.x             = x;
+		this.capturedNanos = capturedNanos;
+	}
+	
+	// 以下、ゲッター
+	public Type getType() {
+		return type;
+	}
+	public int getX() {
+		return x;
+	}
+	public long getCapturedNanos() {
+		return capturedNanos;
+	}
+}
@@ -0,0 +1,45 @@
+package mysuika.logic;
+
+import mysuika.ui.FrameStats;
+
+/**
+ * InputLatency クラス
+ *
+ * 入力を受け取ってから、その結果が画面に表示されるまでの時間（入力遅延）を計測します。
+ * ゲームループがコマンドを適用した時点で受付時刻を保持し、
+ * 描画側が次のフレームを表示し終えた時点で差分を記録します。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class InputLatency {
+	private final FrameStats samples = new FrameStats(); // 遅延の記録（直近分）
+	private volatile long    pendingNanos;               // 表示待ちの入力のうち最も古い受付時刻（なければ0）
+
+	/**
+	 * コマンド適用時に呼ぶ
+	 * @param capturedNanos 入力を受け取った時刻
+	 */
+	void applied(long capturedNanos) {
+		if (pendingNanos == 0) pendingNanos = capturedNanos;
+	}
+
+	/**
+	 * フレームを表示し終えた時に呼ぶ（描画スレッド）
+	 */
+	public void presented() {
+		long captured = pendingNanos;
+		if (captured == 0) return;
+		pendingNanos = 0;
+		samples.record(System.nanoTime() - captured);
+	}
+
+	/**
+	 * 表示用の1行テキスト
+	 * @return 例: "input avg 9.2ms p99 16.8ms max 18.1ms"
+	 */
+	public String summary() {
+		return String.format("input avg %.1fms p99 %.1fms max %.1fms",
+				samples.getAverageMillis(), samples.getP99Millis(), samples.getMaxMillis());
+	}
+}
@@ -0,0 +1,41 @@
+package mysuika.logic;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * InputQueue クラス
+ * 
+ * 入力スレッド（EDT）からゲームループへコマンドを受け渡すロックフリーのキューです。
+ * 積む側は何スレッドでもよく、取り出すのはゲームループのスレッドだけです。
+ * 
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class InputQueue {
+	private final ConcurrentLinkedQueue<InputCommand> queue = new ConcurrentLinkedQueue<>();
+	
+	/**
+	 * 現在時刻を付けてコマンドを積む
+	 * @param type コマンドの種類
+	 * @param x MOVE_TOの移動先X座標（その他は0）
+	 */
+	public void submit(InputCommand.Type type, int x) {
+		queue.offer(new InputCommand(type, x, System.nanoTime()));
+	}
+	
+	/**
+	 * 指定時刻までに発生したコマンドを1つ取り出す
+	 * @param until この時刻以前に発生したものだけを対象にする（System.nanoTime基準）
+	 * @return コマンド（該当なしならnull）
+	 */
+	InputCommand pollUntil(long until) {
+		InputCommand head = queue.peek();
+		if (head == null || head.getCapturedNanos() - until > 0) return null;
+		return queue.poll();
+	}
+	
+	/** 未処理のコマンドを破棄 */
+	public void clear() {
+		queue.clear();
+	}
+}
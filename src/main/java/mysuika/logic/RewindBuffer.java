@@ -0,0 +1,301 @@
+package mysuika.logic;
+
+import java.util.Arrays;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+
+import mysuika.physics.FruitStateBuffer;
+import mysuika.physics.PhysicsWorld;
+
+/**
+ * RewindBuffer クラス
+ *
+ * 練習モードで直近の数秒を巻き戻すための記録です。
+ * ゲームループが1ステップ進めるたびに、フルーツの状態（位置・角度・速度・角速度・種別）のうち
+ * 前のステップから変わったものだけと、生成・消去されたフルーツ、スコアと次のフルーツを記録します。
+ * KEYFRAME_INTERVAL ステップごとに全フルーツを記録し（キーフレーム）、指定のステップの状態は
+ * 直前のキーフレームから差分を順に当てて組み立てます。
+ *
+ * 記録はすべて最初に確保した固定長のリング（プリミティブ配列）に書き、あふれた分は古い方から捨てます。
+ * 配列の大きさはすべて、フィールドに置けるフルーツ数の上限（GameConfig.getMaxFruits）・種類数・先読み数から
+ * 確保時に決まり、使用メモリ（getMemoryBytes）はプレイ時間やフルーツの数では増えません。
+ * 記録のリングは、上限の数のフルーツが毎ステップ動いてもキーフレーム間隔1つ分が入る大きさ以上にするため、
+ * 最新のキーフレームから先は必ず巻き戻せます。それより古い範囲は、動くフルーツが多いステップが続くと短くなります
+ * （実際に巻き戻せる範囲は getAvailableFrom / getAvailableTo で分かります）。
+ * 1ステップの記録は、フルーツごとに前回の値と比べて変わったものを書き写すだけです。
+ *
+ * 巻き戻した後に進めると、巻き戻した先より後の記録は捨てて新しい展開を記録します。
+ * 接触の状態・危険ゾーンの滞在時間・先読みより後のフルーツ型は記録しないため、巻き戻した後の展開は
+ * 元の展開と同じになるとは限りません。
+ *
+ * ゲームループのスレッドから使います（巻き戻せる範囲 getAvailableFrom / getAvailableTo だけはどのスレッドからも読めます）。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class RewindBuffer {
+	public  static final int KEYFRAME_INTERVAL = 30;  // 全フルーツを記録する間隔（ステップ数、約0.5秒）
+	public  static final int RECORDS_PER_STEP  = 48;  // 記録領域の大きさを決める1ステップあたりの記録数の見込み
+	private static final int KINEMATICS = 6;           // 1件あたりの状態の項目数（x, y, 角度, vx, vy, 角速度）
+	// ステップごとの見出しの項目番号
+	private static final int H_STEP = 0, H_COUNT = 1, H_KEY = 2, H_SCORE = 3, H_COMBO = 4, H_BEST_COMBO = 5,
+			H_LAST_MERGE = 6, H_MERGES = 7, H_CONST = 8, H_NEXT = 9, H_DROPS = 10, H_DROP_SLOT = 11,
+			H_DROPPING = 12, H_MERGE_COUNT = 13, H_MAX_TYPE = 14, HEADER = 15;
+
+	private final int     steps;         // 見出しのリングの長さ（巻き戻せるステップ数＋キーフレーム間隔）
+	private final int     maxSlots;      // 記録するスロット数（フィールドに置けるフルーツ数の上限）
+	private final int     typeCount;     // フルーツの種類数（種別ごとの合体回数の項目数）
+	private final int     lookahead;     // 先読みするフルーツ型の数
+	private final int     capacity;      // 記録のリングの長さ（件数）
+	private final int[]   header;        // ステップごとの見出し（steps×HEADER）
+	private final long[]  start;         // ステップごとの最初の記録の通し番号
+	private final int[]   mergesByType;  // ステップごとの種別ごとの合体回数（steps×typeCount）
+	private final int[]   upcoming;      // ステップごとの先読み中のフルーツ型（steps×lookahead）
+	private final int[]   recSlot;       // 記録ごとのスロット番号
+	private final int[]   recType;       // 記録ごとのフルーツ種別（消去はFREE）
+	private final float[] recData;       // 記録ごとの状態（capacity×KINEMATICS）
+	private final int[]   knownType;     // スロットごとの直前に記録した種別（差分の判定用）
+	private final float[] known;         // スロットごとの直前に記録した状態
+	private final int[]   workType;      // 組み立て用のスロットごとの種別
+	private final float[] work;          // 組み立て用のスロットごとの状態
+	private final int[]   outTypes;      // 組み立てたフルーツの種別（詰めたもの）
+	private final float[] outData;       // 組み立てたフルーツの状態（詰めたもの）
+	private long          total;         // これまでに書いた記録の数（通し番号）
+	private int           oldest = -1;   // 残っている最も古いステップ（なければ-1）
+	private int           newest = -1;   // 最新のステップ（なければ-1）
+	private boolean       forceKey = true; // 次のステップをキーフレームにするか
+	private volatile int  availableFrom = -1; // 巻き戻せる最も古いステップ（なければ-1）
+	private volatile int  availableTo   = -1; // 巻き戻せる最も新しいステップ（なければ-1）
+
+	/**
+	 * コンストラクタ（記録のリングは、見込みの大きさとキーフレーム間隔1つ分の最大の記録数の大きい方で確保する）
+	 * @param windowSteps 巻き戻せるステップ数
+	 * @param maxSlots フィールドに置けるフルーツ数の上限（GameConfig.getMaxFruits）
+	 * @param typeCount フルーツの種類数
+	 * @param lookahead 先読みするフルーツ型の数
+	 */
+	public RewindBuffer(int windowSteps, int maxSlots, int typeCount, int lookahead) {
+		this(windowSteps, maxSlots, typeCount, lookahead, (windowSteps + KEYFRAME_INTERVAL) * RECORDS_PER_STEP);
+	}
+
+	/**
+	 * コンストラクタ
+	 * @param windowSteps 巻き戻せるステップ数
+	 * @param maxSlots フィールドに置けるフルーツ数の上限（GameConfig.getMaxFruits）
+	 * @param typeCount フルーツの種類数
+	 * @param lookahead 先読みするフルーツ型の数
+	 * @param capacity 記録のリングの長さ（件数、KEYFRAME_INTERVAL×maxSlots 未満は切り上げる）
+	 */
+	public RewindBuffer(int windowSteps, int maxSlots, int typeCount, int lookahead, int capacity) {
+		this.steps        = windowSteps + KEYFRAME_INTERVAL;
+		this.maxSlots     = maxSlots;
+		this.typeCount    = typeCount;
+		this.lookahead    = lookahead;
+		this.capacity     = Math.max(capacity, KEYFRAME_INTERVAL * maxSlots); // 最新のキーフレームから先は必ず残す
+		this.header       = new int[steps * HEADER];
+		this.start        = new long[steps];
+		this.mergesByType = new int[steps * typeCount];
+		this.upcoming     = new int[steps * lookahead];
+		this.recSlot      = new int[this.capacity];
+		this.recType      = new int[this.capacity];
+		this.recData      = new float[this.capacity * KINEMATICS];
+		this.knownType    = new int[maxSlots];
+		this.known        = new float[maxSlots * KINEMATICS];
+		this.workType     = new int[maxSlots];
+		this.work         = new float[maxSlots * KINEMATICS];
+		this.outTypes     = new int[maxSlots];
+		this.outData      = new float[maxSlots * KINEMATICS];
+		Arrays.fill(knownType, FruitStateBuffer.FREE);
+	}
+
+	/** 全ての記録を捨てる（新しいゲームを始めたとき） */
+	public void clear() {
+		oldest   = -1;
+		newest   = -1;
+		forceKey = true;
+		publishRange();
+	}
+
+	/**
+	 * 現在のステップの状態を記録する（ゲームループが物理演算を1ステップ進めた後に呼ぶ）
+	 * @param manager ゲーム全体の管理クラス
+	 */
+	void record(GameManager manager) {
+		PhysicsWorld     physics = manager.getWorld();
+		FruitStateBuffer state   = physics.getFruitState();
+		int step = state.getStep();
+		if (newest >= 0 && step <= newest && step - 1 >= oldest) {
+			truncate(step - 1); // 巻き戻した先から進めた（それより後の記録は捨てる）
+		} else if (newest >= 0 && step != newest + 1) {
+			clear(); // 記録していないステップがある（早送りなど）
+		}
+		if (state.getHighWater() > maxSlots) { // フィールドに置けるフルーツ数の上限を超えた（起こらない想定。記録できないステップとして扱う）
+			clear();
+			return;
+		}
+		if (newest >= 0 && step - oldest >= steps) evictOldest(); // 見出しのリングが一杯
+		boolean key = forceKey || step % KEYFRAME_INTERVAL == 0;
+		int     h   = (step % steps) * HEADER;
+		start[step % steps] = total;
+		int     count = writeRecords(physics, state, key);
+		ScoreEngine score = manager.getScoreEngine();
+		header[h + H_STEP]        = step;
+		header[h + H_COUNT]       = count;
+		header[h + H_KEY]         = key ? 1 : 0;
+		header[h + H_SCORE]       = score.getScore();
+		header[h + H_COMBO]       = score.getCombo();
+		header[h + H_BEST_COMBO]  = score.getBestCombo();
+		header[h + H_LAST_MERGE]  = score.getLastStep();
+		header[h + H_MERGES]      = score.getMerges();
+		header[h + H_CONST]       = manager.getConst();
+		header[h + H_NEXT]        = manager.getNext();
+		header[h + H_DROPS]       = manager.getDropCount();
+		header[h + H_DROP_SLOT]   = physics.getDrop() != null ? physics.slotOf(physics.getDrop()) : -1;
+		header[h + H_DROPPING]    = manager.isDropping() ? 1 : 0;
+		header[h + H_MERGE_COUNT] = physics.getMergeCount();
+		header[h + H_MAX_TYPE]    = physics.getMaxType();
+		System.arraycopy(score.getMergesByType(), 0, mergesByType, (step % steps) * typeCount, typeCount);
+		System.arraycopy(manager.getUpcomingTypes(), 0, upcoming, (step % steps) * lookahead, lookahead);
+		forceKey = false;
+		if (oldest < 0) oldest = step;
+		newest = step;
+		while (oldest < newest && start[oldest % steps] < total - capacity) evictOldest(); // 上書きされた記録のステップを捨てる
+		publishRange();
+	}
+
+	/**
+	 * フルーツの状態のうち、前回の記録から変わったものを書く（キーフレームなら全て）
+	 * @return 書いた記録の数
+	 */
+	private int writeRecords(PhysicsWorld physics, FruitStateBuffer state, boolean key) {
+		if (key) Arrays.fill(knownType, FruitStateBuffer.FREE); // キーフレームは前回の記録と比べない
+		int count = 0;
+		for (int s = 0; s < maxSlots; s++) {
+			if (!state.isLive(s)) {
+				if (knownType[s] != FruitStateBuffer.FREE) { // 前回の記録の後に消えた
+					knownType[s] = FruitStateBuffer.FREE;
+					put(s, FruitStateBuffer.FREE, 0, 0, 0, 0, 0, 0);
+					count++;
+				}
+				continue;
+			}
+			Body  b    = physics.getBody(s);
+			Vec2  pos  = b.getPosition();
+			Vec2  vel  = b.getLinearVelocity();
+			float a    = b.getAngle(), w = b.getAngularVelocity();
+			int   type = state.getType(s);
+			int   k    = s * KINEMATICS;
+			if (type == knownType[s] && known[k] == pos.x && known[k + 1] == pos.y && known[k + 2] == a
+					&& known[k + 3] == vel.x && known[k + 4] == vel.y && known[k + 5] == w) continue; // 変わっていない
+			knownType[s] = type;
+			known[k] = pos.x; known[k + 1] = pos.y; known[k + 2] = a;
+			known[k + 3] = vel.x; known[k + 4] = vel.y; known[k + 5] = w;
+			put(s, type, pos.x, pos.y, a, vel.x, vel.y, w);
+			count++;
+		}
+		return count;
+	}
+
+	/** 記録を1件書く */
+	private void put(int slot, int type, float x, float y, float a, float vx, float vy, float w) {
+		int i = (int) (total++ % capacity);
+		int k = i * KINEMATICS;
+		recSlot[i] = slot;
+		recType[i] = type;
+		recData[k] = x; recData[k + 1] = y; recData[k + 2] = a;
+		recData[k + 3] = vx; recData[k + 4] = vy; recData[k + 5] = w;
+	}
+
+	/** 指定のステップより後の記録を捨てる */
+	private void truncate(int step) {
+		int h = (step % steps) * HEADER;
+		total    = start[step % steps] + header[h + H_COUNT];
+		newest   = step;
+		forceKey = true; // 巻き戻しでスロット番号が振り直されるため、差分の基準を作り直す
+	}
+
+	/** 最も古いステップを捨てる */
+	private void evictOldest() {
+		oldest++;
+	}
+
+	/** 巻き戻せる範囲を公開する（最も古いステップはキーフレームから組み立てられるもの） */
+	private void publishRange() {
+		int from = -1;
+		for (int s = oldest; s >= 0 && s <= newest; s++) {
+			if (header[(s % steps) * HEADER + H_KEY] == 1) {
+				from = s;
+				break;
+			}
+		}
+		availableFrom = from;
+		availableTo   = from < 0 ? -1 : newest;
+	}
+
+	/**
+	 * 指定のステップの状態に戻す（ゲームループのスレッドから呼ぶ）
+	 * 物理ワールドはフルーツを記録どおりに置き直して作り直し、スコア・現在と次のフルーツ・先読み・落下回数も戻す。
+	 * 種別ごとの合体回数と先読みは公開用の配列として渡すため、戻すたびに新しい配列に写す。
+	 * 記録は捨てないため、続けて別のステップに戻すこともできる（進めた時点でそれより後の記録を捨てる）。
+	 * @param manager ゲーム全体の管理クラス
+	 * @param step 戻すステップ
+	 * @return 戻せればtrue（範囲外ならfalseで何もしない）
+	 */
+	boolean restore(GameManager manager, int step) {
+		int from = availableFrom;
+		if (from < 0 || step < from || step > newest) return false;
+		int key = step;
+		while (header[(key % steps) * HEADER + H_KEY] == 0) key--; // 直前のキーフレーム
+		// スロットごとの状態をキーフレームから順に組み立てる
+		Arrays.fill(workType, FruitStateBuffer.FREE);
+		for (int s = key; s <= step; s++) {
+			long first = start[s % steps];
+			int  count = header[(s % steps) * HEADER + H_COUNT];
+			for (long r = first; r < first + count; r++) {
+				int i = (int) (r % capacity), slot = recSlot[i];
+				workType[slot] = recType[i];
+				System.arraycopy(recData, i * KINEMATICS, work, slot * KINEMATICS, KINEMATICS);
+			}
+		}
+		// 使われているスロットを詰める
+		int h = (step % steps) * HEADER, n = 0, dropIndex = -1;
+		for (int s = 0; s < maxSlots; s++) {
+			if (workType[s] == FruitStateBuffer.FREE) continue;
+			if (s == header[h + H_DROP_SLOT]) dropIndex = n;
+			outTypes[n] = workType[s];
+			System.arraycopy(work, s * KINEMATICS, outData, n * KINEMATICS, KINEMATICS);
+			n++;
+		}
+		manager.getWorld().restore(step, n, outTypes, outData, dropIndex,
+				header[h + H_MERGE_COUNT], header[h + H_MAX_TYPE]);
+		manager.getScoreEngine().restore(header[h + H_SCORE], header[h + H_COMBO], header[h + H_BEST_COMBO],
+				header[h + H_LAST_MERGE], header[h + H_MERGES], Arrays.copyOfRange(mergesByType,
+						(step % steps) * typeCount, (step % steps + 1) * typeCount));
+		manager.restoreState(header[h + H_CONST], header[h + H_NEXT], Arrays.copyOfRange(upcoming,
+				(step % steps) * lookahead, (step % steps + 1) * lookahead),
+				header[h + H_DROPS], header[h + H_DROPPING] == 1);
+		forceKey = true;
+		return true;
+	}
+
+	// 以下、ゲッター
+	/** 巻き戻せる最も古いステップ（なければ-1） */
+	public int getAvailableFrom() {
+		return availableFrom;
+	}
+	/** 巻き戻せる最も新しいステップ（なければ-1） */
+	public int getAvailableTo() {
+		return availableTo;
+	}
+	/** 巻き戻せるステップ数の上限 */
+	public int getWindowSteps() {
+		return steps - KEYFRAME_INTERVAL;
+	}
+	/** 確保したメモリの量（バイト、見出し・記録のリングとスロットごとの作業用の配列。配列の見出しは含まない） */
+	public long getMemoryBytes() {
+		return ((long) header.length + mergesByType.length + upcoming.length) * 4 + start.length * 8L
+				+ (long) capacity * (4 + 4 + KINEMATICS * 4)
+				+ (long) maxSlots * 3 * (4 + KINEMATICS * 4); // 直前の記録・組み立て用・詰めたもの
+	}
+}
@@ -0,0 +1,158 @@
+package mysuika.logic;
+
+import java.util.Arrays;
+
+import mysuika.model.GameConfig;
+
+/**
+ * ScoreEngine クラス
+ *
+ * 合体（スイカ同士の消去を含む）1回につき1度だけ呼ばれ、スコアと集計値を更新します。
+ * 前の合体から一定ステップ数以内に続いた合体は連鎖（コンボ）とみなし、
+ * 連鎖の段数に応じてスコアを上乗せします。
+ *
+ * 集計値（合計スコア・現在と最大の連鎖数・フルーツ種別ごとの合体回数・直近数秒のスコア毎秒）は
+ * 1回の合体ごとに一定の手間（O(1)）で更新し、全体を数え直すことはありません。
+ * 時間はステップ数で数えるため、同じ入力なら同じ結果になります。
+ *
+ * ゲームループのスレッドだけが更新し、描画側はGameManagerが公開するスナップショット経由で読みます。
+ * 種別ごとの合体回数は更新のたびに新しい配列に差し替えるため、読み出し側が持つ配列は変化しません。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class ScoreEngine {
+	private static final int STEPS_PER_SECOND = 60; // 1秒あたりのステップ数
+	private static final int RATE_SECONDS     = 5;  // スコア毎秒を求める直近の秒数
+
+	private final GameConfig config;       // 種別ごとのスコアと連鎖の調整値
+	private int              score;        // 合計スコア
+	private int              combo;        // 現在の連鎖数（最後の合体が連鎖の何段目か）
+	private int              bestCombo;    // これまでの最大の連鎖数
+	private int              lastStep = Integer.MIN_VALUE / 2; // 最後に合体したステップ
+	private int              merges;       // 合体の総回数
+	private final int[]      mergesByType; // フルーツ種別ごとの合体回数
+	private int[]            mergesShared; // 合体回数の公開用の写し（合体のたびに捨て、次に求められたときに作り直す）
+	private final int[]      rateBuckets = new int[RATE_SECONDS]; // 1秒ごとのスコア（リングバッファ）
+	private int              rateSecond;   // リングバッファの最新の秒
+	private int              rateSum;      // リングバッファの合計
+
+	/**
+	 * コンストラクタ
+	 * @param config 種別ごとのスコアと連鎖の調整値
+	 */
+	public ScoreEngine(GameConfig config) {
+		this.config       = config;
+		this.mergesByType = new int[config.getTypeCount()];
+	}
+
+	/**
+	 * 合体1回分のスコアを加算する（同じ合体について2度呼ばないこと）
+	 * @param type 合体したフルーツの種別
+	 * @param step 合体したステップ
+	 * @return 加算したスコア
+	 */
+	public int onMerge(int type, int step) {
+		combo     = step - lastStep <= config.getComboWindow() ? combo + 1 : 1;
+		bestCombo = Math.max(bestCombo, combo);
+		lastStep  = step;
+		int points = config.getScore(type) * (100 + (combo - 1) * config.getComboBonus()) / 100;
+		score += points;
+		merges++;
+		mergesByType[type]++;
+		mergesShared = null;
+		advance(step);
+		rateBuckets[rateSecond % RATE_SECONDS] += points;
+		rateSum += points;
+		return points;
+	}
+
+	/**
+	 * リングバッファを指定ステップの秒まで進め、範囲外になった秒のスコアを合計から除く
+	 * （進める秒数はバッファの長さで頭打ちになるため一定の手間で済む）
+	 */
+	private void advance(int step) {
+		int second = step / STEPS_PER_SECOND;
+		if (second - rateSecond >= RATE_SECONDS) {
+			Arrays.fill(rateBuckets, 0);
+			rateSum    = 0;
+			rateSecond = second;
+			return;
+		}
+		while (rateSecond < second) {
+			rateSecond++;
+			rateSum -= rateBuckets[rateSecond % RATE_SECONDS];
+			rateBuckets[rateSecond % RATE_SECONDS] = 0;
+		}
+	}
+
+	/**
+	 * 直近数秒の1秒あたりのスコア
+	 * @param step 現在のステップ
+	 * @return スコア毎秒（ゲーム開始直後は経過秒数で割る）
+	 */
+	public float pointsPerSecond(int step) {
+		advance(step);
+		int seconds = Math.min(RATE_SECONDS, step / STEPS_PER_SECOND + 1);
+		return rateSum / (float) seconds;
+	}
+
+	/**
+	 * 現在の連鎖が続いているか
+	 * @param step 現在のステップ
+	 * @return 最後の合体から連鎖とみなす時間内ならtrue
+	 */
+	public boolean isComboActive(int step) {
+		return step - lastStep <= config.getComboWindow();
+	}
+
+	/**
+	 * 巻き戻し用に、記録しておいた値に戻す
+	 * 直近数秒のスコア毎秒は記録していないため、0から数え直す
+	 * @param score 合計スコア
+	 * @param combo 現在の連鎖数
+	 * @param bestCombo 最大の連鎖数
+	 * @param lastStep 最後に合体したステップ
+	 * @param merges 合体の総回数
+	 * @param mergesByType フルーツ種別ごとの合体回数
+	 */
+	void restore(int score, int combo, int bestCombo, int lastStep, int merges, int[] mergesByType) {
+		this.score        = score;
+		this.combo        = combo;
+		this.bestCombo    = bestCombo;
+		this.lastStep     = lastStep;
+		this.merges       = merges;
+		System.arraycopy(mergesByType, 0, this.mergesByType, 0, this.mergesByType.length);
+		this.mergesShared = null;
+		Arrays.fill(rateBuckets, 0);
+		this.rateSum      = 0;
+		this.rateSecond   = 0;
+	}
+
+	// 以下、ゲッター
+	public int getScore() {
+		return score;
+	}
+	public int getCombo() {
+		return combo;
+	}
+	public int getBestCombo() {
+		return bestCombo;
+	}
+	public int getMerges() {
+		return merges;
+	}
+	/**
+	 * フルーツ種別ごとの合体回数（変更しないこと）
+	 * 写しは合体があった後に求められたときだけ作り直すため、公開しない間は合体ごとのメモリ確保がない
+	 * @return 合体回数の写し（その後の合体で書き換わることはない）
+	 */
+	public int[] getMergesByType() {
+		if (mergesShared == null) mergesShared = mergesByType.clone();
+		return mergesShared;
+	}
+	/** 最後に合体したステップ */
+	int getLastStep() {
+		return lastStep;
+	}
+}
@@ -0,0 +1,84 @@
+package mysuika.logic;
+
+/**
+ * SimulationLoop クラス
+ *
+ * 物理演算とゲームの進行（GameManager.tick）を、イベントディスパッチスレッドではなく
+ * 専用のスレッドで1/60秒固定ステップで進めるループです。
+ * GameManagerの状態を変更するのはこのスレッドだけになり、描画側は公開されたスナップショットを読みます。
+ * 各ステップ後に指定の処理（再描画の依頼など）を呼びます。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class SimulationLoop implements Runnable {
+	private static final long STEP_NANOS = 1_000_000_000L / 60; // 物理演算1ステップの時間
+	private static final int  MAX_STEPS  = 5;                   // 遅れたときに一度に追いつく最大ステップ数
+
+	private final GameManager manager;    // ゲーム全体の管理クラスへの参照
+	private final Runnable    afterTick;  // 各ステップ後の処理
+	private volatile boolean  running;    // ループ実行中か
+	private volatile boolean  simulating = true; // 物理演算を進めるか（ゲームオーバーで停止）
+	private Thread            thread;
+
+	/**
+	 * コンストラクタ
+	 * @param manager ゲームロジック管理クラス
+	 * @param afterTick 各ステップ後の処理（どのスレッドから呼んでもよい処理にすること）
+	 */
+	public SimulationLoop(GameManager manager, Runnable afterTick) {
+		this.manager   = manager;
+		this.afterTick = afterTick;
+	}
+
+	/** ループ用スレッドを開始 */
+	public void start() {
+		if (running) return;
+		running = true;
+		thread  = new Thread(this, "simulation-loop");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/** ループを終了 */
+	public void stop() {
+		running = false;
+	}
+
+	/** 物理演算を止める（ゲームオーバー時） */
+	public void pause() {
+		simulating = false;
+	}
+
+	/** 止めていた物理演算を再開する（新しいゲームを始めるとき） */
+	public void resume() {
+		simulating = true;
+	}
+
+	@Override
+	public void run() {
+		long next = System.nanoTime();
+		while (running) {
+			if (simulating) {
+				manager.tick(next);
+				afterTick.run();
+			}
+			next += STEP_NANOS;
+			long remain = next - System.nanoTime();
+			if (remain < -STEP_NANOS * MAX_STEPS) {
+				next = System.nanoTime(); // 大きく遅れた分は持ち越さない
+			} else if (remain > 0) {
+				try {
+					Thread.sleep(remain / 1_000_000L, (int) (remain % 1_000_000L));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+}
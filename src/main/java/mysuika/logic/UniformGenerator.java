@@ -0,0 +1,31 @@
+package mysuika.logic;
+
+import java.util.SplittableRandom;
+
+/**
+ * UniformGenerator クラス
+ *
+ * 出現する種類から毎回等確率にフルーツ型を選ぶ生成器です（従来の出現方法）。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class UniformGenerator implements FruitGenerator {
+	private final int              types;  // 出現する種類数
+	private final SplittableRandom random; // 乱数
+
+	/**
+	 * コンストラクタ
+	 * @param types 出現する種類数（0～types-1）
+	 * @param random 乱数
+	 */
+	public UniformGenerator(int types, SplittableRandom random) {
+		this.types  = types;
+		this.random = random;
+	}
+
+	@Override
+	public int next() {
+		return random.nextInt(types);
+	}
+}
@@ -0,0 +1,46 @@
+package mysuika.logic;
+
+import java.util.SplittableRandom;
+
+/**
+ * WeightedGenerator クラス
+ *
+ * 種類ごとの重みに比例した確率でフルーツ型を選ぶ生成器です。
+ * 重みの累積和を作っておき、1回の抽選は累積和の二分探索で行います。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class WeightedGenerator implements FruitGenerator {
+	private final double[]         cumulative; // 重みの累積和（最後の要素が合計）
+	private final SplittableRandom random;     // 乱数
+
+	/**
+	 * コンストラクタ
+	 * @param weights 種類ごとの重み（nullまたは不足分は1とみなす、負の値は0とみなす）
+	 * @param types 出現する種類数（0～types-1）
+	 * @param random 乱数
+	 */
+	public WeightedGenerator(float[] weights, int types, SplittableRandom random) {
+		this.cumulative = new double[types];
+		this.random     = random;
+		double sum = 0;
+		for (int i = 0; i < types; i++) {
+			sum += (weights != null && i < weights.length) ? Math.max(0.0f, weights[i]) : 1.0f;
+			cumulative[i] = sum;
+		}
+		if (sum <= 0) throw new IllegalArgumentException("spawn weights must not all be zero");
+	}
+
+	@Override
+	public int next() {
+		double r  = random.nextDouble() * cumulative[cumulative.length - 1];
+		int    lo = 0, hi = cumulative.length - 1;
+		while (lo < hi) { // r未満にならない最初の累積和の位置
+			int mid = (lo + hi) >>> 1;
+			if (cumulative[mid] <= r) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+}
@@ -3,7 +3,6 @@ package mysuika.model;
 import java.awt.Color;
 
 import mysuika.logic.GameManager;
-import mysuika.ui.GamePanel;
 
 /**
  * FruitBlueprint クラス
@@ -49,11 +48,4 @@ public class FruitBlueprint {
 	public Color getColor() {
 		return fruit.getColor();
 	}
-	/**
-	 * フルーツの直径をピクセル単位で取得
-	 * @return 直径（px単位）
-	 */
-	public int getScale() {
-		return (int)(fruit.getRadius() * 2 * GamePanel.SCALE);
-	}
 }
@@ -0,0 +1,239 @@
+package mysuika.model;
+
+/**
+ * GameConfig クラス
+ *
+ * ゲームバランスに関わる調整値（フルーツの半径・スコア、重力、減衰、摩擦、
+ * ランダム出現するフルーツの種類数、フィールドの幅など）をまとめて保持します。
+ * 既定値は通常プレイの値で、バランス調整ツールは値を変えた設定で物理ワールドを生成します。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class GameConfig {
+	public  static final float FIELD_TOP = 29.0f; // 壁の上端の高さ（PhysicsWorld.createWallの壁の上端、m単位）
+	private float[] radius;                    // フルーツ種別ごとの半径（m単位）
+	private int[]   scores;                    // フルーツ種別ごとの合体時スコア
+	private float   gravity         = -150.0f; // 重力（下向き）
+	private float   linearDamping   = 1.0f;    // 移動の減衰
+	private float   angularDamping  = 15.0f;   // 回転の減衰
+	private float   friction        = 0.3f;    // フルーツの摩擦係数
+	private int     nextTypes       = 5;       // ランダムに出現するフルーツの種類数（0～nextTypes-1）
+	private float   fieldWidth      = 12.9f;   // フィールドの幅（左壁から右壁まで、m単位）
+	private boolean merging         = true;    // 同種フルーツの合体を行うか（ベンチマークで個数を保つ場合はfalse）
+	private boolean continuous      = true;    // 連続衝突判定（すり抜け防止）を行うか
+	private boolean chunked         = false;   // 静止した区画を凍結するか（メガボード用）
+	private boolean parallelIslands = false;   // 接触の島を並列に解くか（実験的、連続衝突判定が無効な場合のみ）
+	private boolean deterministic   = false;   // 並列に解く場合に島とスレッドの割り当てを固定するか
+	private int     comboWindow     = 20;      // 前の合体からこのステップ数（約0.33秒）以内の合体を連鎖とみなす
+	private int     comboBonus      = 25;      // 連鎖1段ごとに上乗せするスコアの割合（%、0で連鎖ボーナスなし）
+	private SpawnMode spawnMode     = SpawnMode.UNIFORM; // 次に出現するフルーツの決め方
+	private float[] spawnWeights;              // WEIGHTEDの場合の種類ごとの重み（nullなら等確率）
+	private int     lookahead       = 3;       // 先読みして表示する次のフルーツの個数
+	private int     analyticsInterval = 10;    // 盤面の集計の標本を取るステップ間隔（0で集計しない）
+	private int     rewindSteps     = 0;       // 巻き戻せるステップ数（練習モード用、0で記録しない）
+
+	/**
+	 * コンストラクタ
+	 * 半径・スコアはFruitTypeの値で初期化する
+	 */
+	public GameConfig() {
+		FruitType[] types = FruitType.values();
+		this.radius = new float[types.length];
+		this.scores = new int[types.length];
+		for (int i = 0; i < types.length; i++) {
+			radius[i] = types[i].getRadius();
+			scores[i] = types[i].getScores();
+		}
+	}
+
+	/**
+	 * 全フルーツの半径を一律に拡大・縮小する
+	 * @param factor 倍率
+	 * @return この設定
+	 */
+	public GameConfig scaleRadius(float factor) {
+		for (int i = 0; i < radius.length; i++) radius[i] *= factor;
+		return this;
+	}
+
+	/**
+	 * 全フルーツのスコアを一律に拡大・縮小する（四捨五入、最低1点）
+	 * @param factor 倍率
+	 * @return この設定
+	 */
+	public GameConfig scaleScores(float factor) {
+		for (int i = 0; i < scores.length; i++) scores[i] = Math.max(1, Math.round(scores[i] * factor));
+		return this;
+	}
+
+	/**
+	 * フィールドに同時に存在できるフルーツ数の上限
+	 * 壁の上端までの範囲に最も小さいフルーツを最密（六方）に詰めた数に、壁際で詰め込める分の余裕を足した値。
+	 * 受け取った盤面の検証や、巻き戻し用の記録の大きさを事前に決めるために使う
+	 * @return フルーツ数の上限
+	 */
+	public int getMaxFruits() {
+		float r = Float.MAX_VALUE;
+		for (float v : radius) r = Math.min(r, v);
+		double cell = 2.0 * Math.sqrt(3.0) * r * r; // 最密に詰めたときの1個あたりの面積
+		return (int) Math.ceil(fieldWidth * FIELD_TOP / cell + (fieldWidth + FIELD_TOP) / r);
+	}
+
+	// 以下、ゲッター・セッター
+	public int getTypeCount() {
+		return radius.length;
+	}
+	public float getRadius(int type) {
+		return radius[type];
+	}
+	public int getScore(int type) {
+		return scores[type];
+	}
+	public float getGravity() {
+		return gravity;
+	}
+	public GameConfig setGravity(float gravity) {
+		this.gravity = gravity;
+		return this;
+	}
+	public float getLinearDamping() {
+		return linearDamping;
+	}
+	public GameConfig setLinearDamping(float linearDamping) {
+		this.linearDamping = linearDamping;
+		return this;
+	}
+	public float getAngularDamping() {
+		return angularDamping;
+	}
+	public GameConfig setAngularDamping(float angularDamping) {
+		this.angularDamping = angularDamping;
+		return this;
+	}
+	public float getFriction() {
+		return friction;
+	}
+	public GameConfig setFriction(float friction) {
+		this.friction = friction;
+		return this;
+	}
+	public float getFieldWidth() {
+		return fieldWidth;
+	}
+	public GameConfig setFieldWidth(float fieldWidth) {
+		this.fieldWidth = fieldWidth;
+		return this;
+	}
+	public boolean isMerging() {
+		return merging;
+	}
+	public GameConfig setMerging(boolean merging) {
+		this.merging = merging;
+		return this;
+	}
+	public boolean isContinuous() {
+		return continuous;
+	}
+	public GameConfig setContinuous(boolean continuous) {
+		this.continuous = continuous;
+		return this;
+	}
+	public boolean isChunked() {
+		return chunked;
+	}
+	public GameConfig setChunked(boolean chunked) {
+		this.chunked = chunked;
+		return this;
+	}
+	public boolean isParallelIslands() {
+		return parallelIslands;
+	}
+	public GameConfig setParallelIslands(boolean parallelIslands) {
+		this.parallelIslands = parallelIslands;
+		return this;
+	}
+	public boolean isDeterministic() {
+		return deterministic;
+	}
+	public GameConfig setDeterministic(boolean deterministic) {
+		this.deterministic = deterministic;
+		return this;
+	}
+	/**
+	 * 横長フィールド（メガボード）用の設定にする
+	 * フルーツ数が多いと連続衝突判定（JBox2DのsolveTOI）が全接触を繰り返し走査して
+	 * 大半の時間を占めるため、これを切る（床・壁は十分厚く、すり抜けは起きない）
+	 * あわせて静止した区画の凍結を有効にする
+	 * @param scale 通常のフィールド幅に対する倍率
+	 * @return この設定
+	 */
+	public GameConfig megaBoard(int scale) {
+		this.fieldWidth *= scale;
+		this.continuous  = false;
+		this.chunked     = true;
+		return this;
+	}
+	public int getComboWindow() {
+		return comboWindow;
+	}
+	public GameConfig setComboWindow(int comboWindow) {
+		this.comboWindow = comboWindow;
+		return this;
+	}
+	public int getComboBonus() {
+		return comboBonus;
+	}
+	public GameConfig setComboBonus(int comboBonus) {
+		this.comboBonus = comboBonus;
+		return this;
+	}
+	public SpawnMode getSpawnMode() {
+		return spawnMode;
+	}
+	public GameConfig setSpawnMode(SpawnMode spawnMode) {
+		this.spawnMode = spawnMode;
+		return this;
+	}
+	public float[] getSpawnWeights() {
+		return spawnWeights;
+	}
+	/**
+	 * WEIGHTEDの場合の種類ごとの重みを設定する（出現方法もWEIGHTEDにする）
+	 * @param spawnWeights 種類ごとの重み（小さい方から順）
+	 * @return この設定
+	 */
+	public GameConfig setSpawnWeights(float... spawnWeights) {
+		this.spawnWeights = spawnWeights.clone();
+		this.spawnMode    = SpawnMode.WEIGHTED;
+		return this;
+	}
+	public int getLookahead() {
+		return lookahead;
+	}
+	public GameConfig setLookahead(int lookahead) {
+		this.lookahead = lookahead;
+		return this;
+	}
+	public int getAnalyticsInterval() {
+		return analyticsInterval;
+	}
+	public GameConfig setAnalyticsInterval(int analyticsInterval) {
+		this.analyticsInterval = analyticsInterval;
+		return this;
+	}
+	public int getNextTypes() {
+		return nextTypes;
+	}
+	public GameConfig setNextTypes(int nextTypes) {
+		this.nextTypes = nextTypes;
+		return this;
+	}
+	public int getRewindSteps() {
+		return rewindSteps;
+	}
+	public GameConfig setRewindSteps(int rewindSteps) {
+		this.rewindSteps = rewindSteps;
+		return this;
+	}
+}
@@ -0,0 +1,15 @@
+package mysuika.model;
+
+/**
+ * SpawnMode 列挙型
+ *
+ * 次に出現するフルーツの決め方です。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public enum SpawnMode {
+	UNIFORM,  // 出現する種類から毎回等確率に選ぶ（従来通り）
+	BAG,      // 出現する種類を1つずつ袋に入れて混ぜ、袋が空になるまで順に出す（偏りが少ない）
+	WEIGHTED  // 種類ごとの重みに比例した確率で選ぶ
+}
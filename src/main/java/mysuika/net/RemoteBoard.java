@@ -0,0 +1,125 @@
+package mysuika.net;
+
+import mysuika.logic.GameSnapshot;
+
+/**
+ * RemoteBoard クラス
+ *
+ * 相手から受け取った盤面を保持し、描画用に補間したスナップショットを作ります。
+ * 盤面は数ステップおきにしか届かないため、最新のフレームより少し（DELAY_STEPS）遅れた時点を表示し、
+ * その前後のフレームの間でフルーツの座標を線形補間して、届く間隔に関係なく滑らかに動かします。
+ *
+ * フレームの追加は受信側のゲームループのスレッドから、描画用のスナップショットの作成は描画スレッドから行います。
+ * 直近のフレームの並びは追加のたびに新しい配列に差し替えてvolatileのフィールドで公開するため、ロックは不要です。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class RemoteBoard {
+	private static final int  HISTORY     = 4;                     // 保持するフレーム数
+	private static final int  DELAY_STEPS = 6;                     // 最新のフレームから遅らせて表示するステップ数
+	private static final long STEP_NANOS  = 1_000_000_000L / 60;   // 1ステップの時間
+
+	private volatile RemoteFrame[] frames = new RemoteFrame[0]; // 直近のフレーム（古い順、追加のたびに差し替える）
+	private volatile int           garbageSent, garbageReceived; // 送った・受け取ったお邪魔フルーツの数
+	private volatile int           drops;                        // 相手が落としたフルーツの数
+	private volatile float         lastDropX;                    // 相手が最後に落とした位置（m単位）
+
+	/**
+	 * 受け取ったフレームを追加する（受信側のゲームループのスレッドから呼ぶ）
+	 * ステップ数が戻った（相手が新しいゲームを始めた）場合は、それまでのフレームを捨てる
+	 * @param frame 差分を適用した後の盤面
+	 */
+	public void add(RemoteFrame frame) {
+		RemoteFrame[] old  = frames;
+		boolean       keep = old.length > 0 && frame.getStep() > old[old.length - 1].getStep();
+		int           from = keep ? Math.max(0, old.length - (HISTORY - 1)) : old.length;
+		RemoteFrame[] next = new RemoteFrame[old.length - from + 1];
+		System.arraycopy(old, from, next, 0, old.length - from);
+		next[next.length - 1] = frame;
+		frames = next;
+	}
+
+	/**
+	 * 描画用のスナップショットを作る（どのスレッドからでも呼べる）
+	 * @param nowNanos 現在時刻（System.nanoTime基準）
+	 * @return 補間した相手の盤面（まだ何も届いていなければ空のスナップショット）
+	 */
+	public GameSnapshot snapshot(long nowNanos) {
+		RemoteFrame[] list = frames;
+		if (list.length == 0) return GameSnapshot.EMPTY;
+		RemoteFrame latest = list[list.length - 1];
+		// 最新のフレームが届いてからの経過時間を相手のステップ数に換算し、少し遅れた時点を表示する
+		float target = latest.getStep() - DELAY_STEPS
+				+ Math.min(DELAY_STEPS, (nowNanos - latest.getReceivedNanos()) / (float) STEP_NANOS);
+		RemoteFrame a = list[0], b = list[0];
+		for (RemoteFrame f : list) {
+			b = f;
+			if (f.getStep() >= target) break;
+			a = f;
+		}
+		float t = b.getStep() == a.getStep() ? 1.0f : Math.max(0.0f, Math.min(1.0f, (target - a.getStep()) / (b.getStep() - a.getStep())));
+		return interpolate(a, b, t);
+	}
+
+	/**
+	 * 2つのフレームの間を補間したスナップショット
+	 * 両方にある同じフルーツ（同じスロット・同じ世代）は座標を補間し、
+	 * 片方にしかないフルーツは近い方のフレームに合わせて表示する
+	 */
+	private static GameSnapshot interpolate(RemoteFrame a, RemoteFrame b, float t) {
+		RemoteFrame near  = t < 0.5f ? a : b;
+		int         slots = near.getSlots();
+		float[]     xy    = new float[slots * 2];
+		int[]       types = new int[slots];
+		int         count = 0;
+		for (int s = 0; s < slots; s++) {
+			int type = near.getType(s);
+			if (type < 0) continue;
+			float x = near.getX(s), y = near.getY(s);
+			if (s < a.getSlots() && s < b.getSlots() && a.getType(s) == b.getType(s)
+					&& a.getGeneration(s) == b.getGeneration(s) && b.getType(s) >= 0) {
+				x = a.getX(s) + (b.getX(s) - a.getX(s)) * t;
+				y = a.getY(s) + (b.getY(s) - a.getY(s)) * t;
+			}
+			xy[2 * count]     = x;
+			xy[2 * count + 1] = y;
+			types[count++]    = type;
+		}
+		return GameSnapshot.remote(b.getStep(), b.getScore(), b.isDropping(), b.isGameOver(), b.getDangerLevel(),
+				xy, types, count, b.getCursorX());
+	}
+
+	/** 相手が落としたフルーツを記録する（受信側のゲームループのスレッドから呼ぶ） */
+	void recordDrop(float x) {
+		drops++;
+		lastDropX = x;
+	}
+	/** 送ったお邪魔フルーツを記録する */
+	void addGarbageSent(int count) {
+		garbageSent += count;
+	}
+	/** 受け取ったお邪魔フルーツを記録する */
+	void addGarbageReceived(int count) {
+		garbageReceived += count;
+	}
+
+	// 以下、ゲッター
+	/** 最新のフレーム（まだ何も届いていなければnull） */
+	public RemoteFrame getLatest() {
+		RemoteFrame[] list = frames;
+		return list.length == 0 ? null : list[list.length - 1];
+	}
+	public int getGarbageSent() {
+		return garbageSent;
+	}
+	public int getGarbageReceived() {
+		return garbageReceived;
+	}
+	public int getDrops() {
+		return drops;
+	}
+	public float getLastDropX() {
+		return lastDropX;
+	}
+}
@@ -0,0 +1,79 @@
+package mysuika.net;
+
+/**
+ * RemoteFrame クラス
+ *
+ * 相手から受け取ったある時点の盤面（差分を適用した後の全体）を表す変更不可のオブジェクトです。
+ * フルーツは相手側のスロット番号ごとに並べ、空きスロットの種別は-1とします。
+ * 世代（generation）はスロットに新しいフルーツが現れるたびに増えるため、
+ * 2つのフレームで同じスロット・同じ世代なら同じフルーツとして補間できます。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public final class RemoteFrame {
+	private final int     step;         // 相手の物理ステップ数
+	private final int     score;        // 相手のスコア
+	private final boolean gameOver;     // 相手がゲームオーバーか
+	private final boolean dropping;     // 相手のフルーツが落下中か
+	private final float   dangerLevel;  // 相手の危険度（0.0～1.0）
+	private final int     cursorX;      // 相手のガイドのX座標（既定の拡大率でのpx単位）
+	private final int[]   types;        // スロットごとのフルーツ種別（空きは-1）
+	private final int[]   generations;  // スロットごとの世代
+	private final float[] xs, ys;       // スロットごとの座標（m単位）
+	private final long    receivedNanos; // 受け取った時刻（System.nanoTime基準）
+
+	RemoteFrame(int step, int score, boolean gameOver, boolean dropping, float dangerLevel, int cursorX,
+			int[] types, int[] generations, float[] xs, float[] ys, long receivedNanos) {
+		this.step          = step;
+		this.score         = score;
+		this.gameOver      = gameOver;
+		this.dropping      = dropping;
+		this.dangerLevel   = dangerLevel;
+		this.cursorX       = cursorX;
+		this.types         = types;
+		this.generations   = generations;
+		this.xs            = xs;
+		this.ys            = ys;
+		this.receivedNanos = receivedNanos;
+	}
+
+	// 以下、ゲッター
+	public int getStep() {
+		return step;
+	}
+	public int getScore() {
+		return score;
+	}
+	public boolean isGameOver() {
+		return gameOver;
+	}
+	public boolean isDropping() {
+		return dropping;
+	}
+	public float getDangerLevel() {
+		return dangerLevel;
+	}
+	public int getCursorX() {
+		return cursorX;
+	}
+	/** スロット数（この値未満のスロット番号を getType で判定して読む） */
+	public int getSlots() {
+		return types.length;
+	}
+	public int getType(int slot) {
+		return types[slot];
+	}
+	public int getGeneration(int slot) {
+		return generations[slot];
+	}
+	public float getX(int slot) {
+		return xs[slot];
+	}
+	public float getY(int slot) {
+		return ys[slot];
+	}
+	public long getReceivedNanos() {
+		return receivedNanos;
+	}
+}
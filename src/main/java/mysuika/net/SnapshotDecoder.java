@@ -0,0 +1,102 @@
+package mysuika.net;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import mysuika.physics.FruitStateBuffer;
+
+/**
+ * SnapshotDecoder クラス
+ *
+ * SnapshotEncoderが書き込んだ差分メッセージを、相手の盤面の現在の状態に適用し、
+ * 適用後の盤面全体をRemoteFrameとして返します。
+ * キーフレームを受け取ると、それまでの状態を捨ててから適用します。
+ * 続きがある（FLAG_PARTIAL）メッセージは適用だけ行い、最後の部分を受け取った時点で盤面を返します。
+ * 相手から届いた値は信用せず、スロット番号はフィールドに置けるフルーツ数の上限まで、
+ * 種別はフルーツの種類数の範囲だけを受け付けます（範囲外なら形式が正しくないとして扱う）。
+ * 受信側のゲームループのスレッドから使います。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class SnapshotDecoder {
+	private final int maxSlots;             // 受け付けるスロット数の上限（フィールドに置けるフルーツ数）
+	private final int typeCount;            // フルーツの種類数（種別は0～typeCount-1）
+	private int[] types       = new int[0]; // スロットごとのフルーツ種別（空きはFREE）
+	private int[] generations = new int[0]; // スロットごとの世代（新しいフルーツが現れるたびに増える）
+	private int[] qxs         = new int[0]; // スロットごとの量子化済みの座標
+	private int[] qys         = new int[0];
+
+	/**
+	 * コンストラクタ
+	 * @param maxSlots 受け付けるスロット数の上限（GameConfig.getMaxFruits）
+	 * @param typeCount フルーツの種類数
+	 */
+	public SnapshotDecoder(int maxSlots, int typeCount) {
+		this.maxSlots  = maxSlots;
+		this.typeCount = typeCount;
+	}
+
+	/**
+	 * 差分メッセージを適用する
+	 * @param message SnapshotEncoderが書き込んだメッセージ（読み出し位置から末尾まで）
+	 * @param receivedNanos 受け取った時刻
+	 * @return 適用後の盤面（続きのある部分ならnull）
+	 * @throws IllegalArgumentException メッセージの形式が正しくない場合（範囲外のスロット番号・種別を含む）
+	 */
+	public RemoteFrame decode(ByteBuffer message, long receivedNanos) {
+		try {
+			int     step     = Wire.getVarint(message);
+			int     flags    = message.get();
+			int     score    = Wire.getVarint(message);
+			float   danger   = (message.get() & 0xFF) / 255.0f;
+			int     cursorX  = Wire.getVarint(message);
+			int     changes  = message.getShort() & 0xFFFF;
+			if ((flags & SnapshotEncoder.FLAG_KEYFRAME) != 0) Arrays.fill(types, FruitStateBuffer.FREE);
+			for (int i = 0; i < changes; i++) {
+				int slot = Wire.getVarint(message);
+				int op   = message.get();
+				if (slot < 0 || slot >= maxSlots) throw new IllegalArgumentException("slot out of range: " + slot);
+				if (slot >= types.length) grow(Math.min(maxSlots, Math.max(slot + 1, types.length * 2)));
+				switch (op) {
+				case SnapshotEncoder.OP_REMOVE -> types[slot] = FruitStateBuffer.FREE;
+				case SnapshotEncoder.OP_MOVE -> {
+					qxs[slot] += Wire.getZigzag(message);
+					qys[slot] += Wire.getZigzag(message);
+				}
+				case SnapshotEncoder.OP_SPAWN -> {
+					int type = message.get();
+					if (type < 0 || type >= typeCount) throw new IllegalArgumentException("type out of range: " + type);
+					types[slot] = type;
+					qxs[slot]   = Wire.getZigzag(message);
+					qys[slot]   = Wire.getZigzag(message);
+					generations[slot]++;
+				}
+				default -> throw new IllegalArgumentException("unknown op " + op + " for slot " + slot);
+				}
+			}
+			if ((flags & SnapshotEncoder.FLAG_PARTIAL) != 0) return null; // 続きを待つ
+			float[] xs = new float[types.length], ys = new float[types.length];
+			for (int s = 0; s < types.length; s++) {
+				if (types[s] == FruitStateBuffer.FREE) continue;
+				xs[s] = Wire.dequantize(qxs[s]);
+				ys[s] = Wire.dequantize(qys[s]);
+			}
+			return new RemoteFrame(step, score, (flags & SnapshotEncoder.FLAG_GAME_OVER) != 0,
+					(flags & SnapshotEncoder.FLAG_DROPPING) != 0, danger, cursorX,
+					types.clone(), generations.clone(), xs, ys, receivedNanos);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("malformed state message", e);
+		}
+	}
+
+	/** スロット数の増加に合わせて配列を拡張 */
+	private void grow(int size) {
+		int old     = types.length;
+		types       = Arrays.copyOf(types, size);
+		generations = Arrays.copyOf(generations, size);
+		qxs         = Arrays.copyOf(qxs, size);
+		qys         = Arrays.copyOf(qys, size);
+		Arrays.fill(types, old, size, FruitStateBuffer.FREE);
+	}
+}
@@ -0,0 +1,183 @@
+package mysuika.net;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import mysuika.logic.GameSnapshot;
+import mysuika.physics.FruitStateBuffer;
+
+/**
+ * SnapshotEncoder クラス
+ *
+ * 自分の盤面の状態を、前回送った状態との差分として1つのメッセージに書き込みます。
+ * 座標は約4mm刻みに量子化し、前回送った値から量子化後の値が変わったフルーツだけを送るため、
+ * 積み上がって止まっているフルーツには通信量がかかりません。
+ *
+ * メッセージの形式（整数は可変長）:
+ *   ステップ数, フラグ（キーフレーム・ゲームオーバー・落下中・続きあり）, スコア, 危険度（0～255）, ガイドのX座標（px）,
+ *   変化したスロットの数（2バイト）, 変化ごとに [スロット番号, 種類（REMOVE / MOVE / SPAWN）, 内容]
+ *   - REMOVE : なし
+ *   - MOVE   : 量子化した座標の差分（x, y、符号付き）
+ *   - SPAWN  : フルーツ種別, 量子化した座標（x, y）
+ *
+ * 最初のメッセージとステップ数が戻った（新しいゲームを始めた）後のメッセージは、
+ * 全フルーツをSPAWNとして送るキーフレームにします。
+ * 差分が通信路の1メッセージ（約64KB）や変化の数の上限（65535件）に収まらない場合は、
+ * 同じ先頭部分を持つ複数のメッセージに分け、最後以外にはFLAG_PARTIALを付けます。
+ * DropPredictorと同じく、送るたびに全スロットを前回の値と比べます。
+ * ゲームループのスレッドから使います。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class SnapshotEncoder {
+	public static final float PRECISION = 1.0f / Wire.QUANTUM; // 座標の量子化の刻み（m単位）
+	static final int FLAG_KEYFRAME  = 1;      // キーフレーム（受信側は前の状態を捨てる）
+	static final int FLAG_GAME_OVER = 1 << 1; // ゲームオーバー
+	static final int FLAG_DROPPING  = 1 << 2; // フルーツ落下中
+	static final int FLAG_PARTIAL   = 1 << 3; // 続きの部分がある（受信側は最後の部分まで盤面を確定しない）
+	static final int OP_REMOVE      = 0;      // スロットのフルーツが消えた
+	static final int OP_MOVE        = 1;      // スロットのフルーツが動いた
+	static final int OP_SPAWN       = 2;      // スロットに新しいフルーツが現れた
+	private static final int HEADER     = 32;  // 先頭部分の最大バイト数
+	private static final int PER_CHANGE = 18;  // 変化1件の最大バイト数
+	private static final int MAX_PART   = VersusLink.MAX_PAYLOAD; // 1部分の最大バイト数（通信路の1メッセージに収まる大きさ）
+	private static final int MAX_CHANGES = 0xFFFF; // 1部分の変化の数の上限（2バイトで書くため）
+
+	private final FruitStateBuffer state;      // 自分の盤面のフルーツ状態のミラー
+	private int[]                  sentType = new int[0]; // スロットごとに最後に送った種別（空ならFREE）
+	private int[]                  sentX    = new int[0]; // スロットごとに最後に送った量子化済みの座標
+	private int[]                  sentY    = new int[0];
+	private int[]                  sentBorn = new int[0]; // スロットごとに最後に送ったフルーツの生成ステップ（入れ替わりの検出用）
+	private int                    lastStep = -1;         // 最後に送ったステップ数（未送信は-1）
+	private ByteBuffer             buffer   = ByteBuffer.allocate(HEADER);
+	private ByteBuffer             view     = buffer.duplicate(); // 部分を取り出すための同じ中身の窓
+	private int[]                  partEnds = new int[1];  // 部分ごとの終わりの位置
+	private int                    parts;                  // 書き込んだ部分の数
+	private int                    flagsAt;                // 書き込み中の部分のフラグの位置
+
+	/**
+	 * コンストラクタ
+	 * @param state 自分の盤面のフルーツ状態のミラー
+	 */
+	public SnapshotEncoder(FruitStateBuffer state) {
+		this.state = state;
+	}
+
+	/**
+	 * 現在の状態を前回送った状態との差分として書き込む
+	 * 1メッセージに収まらない場合（メガボードのキーフレームなど）は複数の部分に分けて書き込む
+	 * @param snap 同じステップのスナップショット（スコア・危険度などの参照用）
+	 * @return 書き込んだ部分の数（getPartで先頭から順に取り出して送る）
+	 */
+	public int encode(GameSnapshot snap) {
+		int highWater = state.getHighWater();
+		int step      = state.getStep();
+		boolean keyframe = lastStep < 0 || step < lastStep;
+		if (keyframe) Arrays.fill(sentType, FruitStateBuffer.FREE);
+		if (sentType.length < highWater) grow(highWater);
+		int maxParts = 1 + PER_CHANGE * sentType.length / (MAX_PART - HEADER - PER_CHANGE);
+		int capacity = HEADER * maxParts + PER_CHANGE * sentType.length;
+		if (buffer.capacity() < capacity) {
+			buffer = ByteBuffer.allocate(capacity);
+			view   = buffer.duplicate();
+		}
+		if (partEnds.length < maxParts) partEnds = new int[maxParts];
+		buffer.clear();
+		parts = 0;
+
+		int flags = (snap.isGameOver() ? FLAG_GAME_OVER : 0) | (snap.isDropping() ? FLAG_DROPPING : 0);
+		int partStart = 0;
+		int countAt   = putHeader(step, flags | (keyframe ? FLAG_KEYFRAME : 0), snap);
+		int changes   = 0;
+		for (int s = 0; s < sentType.length; s++) {
+			boolean live = s < highWater && state.isLive(s);
+			if (!live && sentType[s] == FruitStateBuffer.FREE) continue;
+			if (buffer.position() - partStart + PER_CHANGE > MAX_PART || changes == MAX_CHANGES) {
+				// この部分を閉じて続きの部分を始める（キーフレームの印は最初の部分だけに付ける）
+				buffer.putShort(countAt, (short) changes);
+				buffer.put(flagsAt, (byte) (buffer.get(flagsAt) | FLAG_PARTIAL));
+				partEnds[parts++] = buffer.position();
+				partStart = buffer.position();
+				countAt   = putHeader(step, flags, snap);
+				changes   = 0;
+			}
+			if (!live) {
+				Wire.putVarint(buffer, s);
+				buffer.put((byte) OP_REMOVE);
+				sentType[s] = FruitStateBuffer.FREE;
+				changes++;
+				continue;
+			}
+			int type = state.getType(s), born = step - state.getAge(s);
+			int qx   = Wire.quantize(state.getX(s)), qy = Wire.quantize(state.getY(s));
+			if (type != sentType[s] || born != sentBorn[s]) {
+				Wire.putVarint(buffer, s);
+				buffer.put((byte) OP_SPAWN);
+				buffer.put((byte) type);
+				Wire.putZigzag(buffer, qx);
+				Wire.putZigzag(buffer, qy);
+			} else if (qx != sentX[s] || qy != sentY[s]) {
+				Wire.putVarint(buffer, s);
+				buffer.put((byte) OP_MOVE);
+				Wire.putZigzag(buffer, qx - sentX[s]);
+				Wire.putZigzag(buffer, qy - sentY[s]);
+			} else {
+				continue; // 変化なし
+			}
+			sentType[s] = type;
+			sentBorn[s] = born;
+			sentX[s]    = qx;
+			sentY[s]    = qy;
+			changes++;
+		}
+		buffer.putShort(countAt, (short) changes);
+		partEnds[parts++] = buffer.position();
+		lastStep = step;
+		return parts;
+	}
+
+	/**
+	 * 書き込んだ部分を取り出す（次にencodeを呼ぶまで有効。同じバッファを指すため、送る前に次の部分を取り出さない）
+	 * @param index 部分の番号（0から）
+	 * @return 部分の内容（読み出し位置から末尾まで）
+	 */
+	public ByteBuffer getPart(int index) {
+		view.clear();
+		view.limit(partEnds[index]);
+		view.position(index == 0 ? 0 : partEnds[index - 1]);
+		return view;
+	}
+
+	/**
+	 * 部分の先頭（ステップ数・フラグ・スコア・危険度・ガイドの位置・変化の数）を書き込む
+	 * フラグの位置はflagsAtに記録する（続きがある場合に後から印を付けるため）
+	 * @return 変化の数を後で書き込む位置
+	 */
+	private int putHeader(int step, int flags, GameSnapshot snap) {
+		Wire.putVarint(buffer, step);
+		flagsAt = buffer.position();
+		buffer.put((byte) flags);
+		Wire.putVarint(buffer, snap.getScore());
+		buffer.put((byte) Math.round(snap.getDangerLevel() * 255));
+		Wire.putVarint(buffer, Math.max(0, snap.getCursorX()));
+		int countAt = buffer.position();
+		buffer.putShort((short) 0); // 変化の数（後で書き込む）
+		return countAt;
+	}
+
+	/** スロット数の増加に合わせて記録用の配列を拡張 */
+	private void grow(int size) {
+		int old  = sentType.length;
+		sentType = Arrays.copyOf(sentType, size);
+		sentX    = Arrays.copyOf(sentX, size);
+		sentY    = Arrays.copyOf(sentY, size);
+		sentBorn = Arrays.copyOf(sentBorn, size);
+		Arrays.fill(sentType, old, size, FruitStateBuffer.FREE);
+	}
+
+	/** 次のメッセージをキーフレームにする（相手と接続し直したときなど） */
+	public void reset() {
+		lastStep = -1;
+	}
+}
@@ -0,0 +1,286 @@
+package mysuika.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * VersusLink クラス
+ *
+ * 対戦相手との1対1の通信路です。ノンブロッキングのNIO（Selector）で、接続の受け付け・接続・
+ * 送受信を専用の1スレッド（versus-net）だけで行うため、ゲームループが通信を待つことはありません。
+ *
+ * - host : 指定ポートで待ち受け、最初に接続してきた1人を相手にする（以降の接続は受け付けない）
+ * - join : 指定ホスト・ポートに接続する
+ * 同じPCの中（localhost）で両方を動かしても使えます。
+ *
+ * メッセージは [長さ（2バイト）][種類（1バイト）][内容] の形で送ります。
+ * sendはどのスレッドから呼んでもよく、送信待ちに積んで通信スレッドを起こすだけです。
+ * 受け取ったメッセージは受信待ちに積まれ、pollで1つずつ取り出します。
+ * 受信待ちは MAX_INBOUND 件までで、いっぱいの間は読み込みを止め（TCPの流量制御で相手の送信が待たされる）、
+ * pollで空きができたら再開します。
+ * 接続前にsendしたメッセージは接続後に送られます。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class VersusLink implements Runnable, AutoCloseable {
+	public  static final int HELLO   = 0;  // 接続時のあいさつ（通信形式の版）
+	public  static final int STATE   = 1;  // 盤面の差分（SnapshotEncoder）
+	public  static final int GARBAGE = 2;  // お邪魔フルーツ（個数）
+	public  static final int DROP    = 3;  // フルーツを落とした入力（ステップ数、落下位置）
+	private static final int MAX_MESSAGE = 0xFFFF;   // 1メッセージの最大バイト数（種類を含む）
+	static final int         MAX_PAYLOAD = MAX_MESSAGE - 1; // 1メッセージの内容の最大バイト数（SnapshotEncoderはこれを超えないよう分ける）
+	private static final int READ_BUFFER = 1 << 17;  // 受信用バッファの大きさ
+	private static final int MAX_INBOUND = 1024;     // 受信待ちに積めるメッセージ数の上限
+
+	private final Selector             selector;
+	private final ServerSocketChannel  server;     // 待ち受け用（joinならnull、接続後は閉じる）
+	private SocketChannel              channel;    // 相手との接続（hostなら接続を受け付けるまでnull）
+	private final Queue<ByteBuffer>    outbound = new ConcurrentLinkedQueue<>(); // 送信待ち
+	private final Queue<Message>       inbound  = new ArrayBlockingQueue<>(MAX_INBOUND); // 受信待ち
+	private final ByteBuffer           readBuffer = ByteBuffer.allocate(READ_BUFFER);
+	private ByteBuffer                 writing;    // 書き込み途中のメッセージ（通信スレッドのみ）
+	private final Thread               thread;
+	private volatile boolean           connected;  // 相手と接続済みか
+	private volatile boolean           closed;     // 閉じたか（相手が切断した場合を含む）
+	private volatile boolean           throttled;  // 受信待ちがいっぱいで読み込みを止めているか
+	private volatile IOException       error;      // 通信中に起きたエラー
+	private volatile long              bytesSent, bytesReceived; // 送受信したバイト数（通信スレッドのみ更新）
+
+	/**
+	 * 指定ポートで相手の接続を待ち受ける
+	 * @param port ポート番号（0なら空いている番号を使う。getLocalPortで確認できる）
+	 * @return 通信路（接続を受け付けるまで isConnected は false）
+	 * @throws IOException 待ち受けを始められない場合
+	 */
+	public static VersusLink host(int port) throws IOException {
+		Selector selector = Selector.open();
+		ServerSocketChannel server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(port));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		return new VersusLink(selector, server, null);
+	}
+
+	/**
+	 * 相手に接続する
+	 * @param host 相手のホスト名またはアドレス
+	 * @param port 相手のポート番号
+	 * @return 通信路（接続が完了するまで isConnected は false）
+	 * @throws IOException 接続を始められない場合
+	 */
+	public static VersusLink join(String host, int port) throws IOException {
+		Selector selector = Selector.open();
+		SocketChannel channel = SocketChannel.open();
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		if (channel.connect(new InetSocketAddress(host, port))) {
+			channel.register(selector, SelectionKey.OP_READ);
+		} else {
+			channel.register(selector, SelectionKey.OP_CONNECT);
+		}
+		return new VersusLink(selector, null, channel);
+	}
+
+	private VersusLink(Selector selector, ServerSocketChannel server, SocketChannel channel) {
+		this.selector = selector;
+		this.server   = server;
+		this.channel  = channel;
+		this.thread   = new Thread(this, "versus-net");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * メッセージを送信待ちに積む（どのスレッドからでも呼べる）
+	 * @param kind 種類（STATEなど）
+	 * @param payload 内容（読み出し位置から末尾まで。呼び出し後に書き換えてよい）
+	 */
+	public void send(int kind, ByteBuffer payload) {
+		if (closed) return;
+		int length = payload.remaining() + 1;
+		if (length > MAX_MESSAGE) throw new IllegalArgumentException("message too large: " + length + " bytes");
+		ByteBuffer frame = ByteBuffer.allocate(length + 2);
+		frame.putShort((short) length);
+		frame.put((byte) kind);
+		frame.put(payload.duplicate());
+		frame.flip();
+		outbound.add(frame);
+		selector.wakeup();
+	}
+
+	/**
+	 * 受け取ったメッセージを1つ取り出す（どのスレッドからでも呼べる）
+	 * @return メッセージ（なければnull）
+	 */
+	public Message poll() {
+		Message message = inbound.poll();
+		if (message != null && throttled) selector.wakeup(); // 空きができたので読み込みを再開させる
+		return message;
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (!closed) {
+				SelectionKey key = channel == null ? null : channel.keyFor(selector);
+				if (key != null && connected) {
+					if (throttled) parse(); // 空きができていれば、読み込み済みのメッセージから積む
+					boolean pending = writing != null || !outbound.isEmpty();
+					key.interestOps((throttled ? 0 : SelectionKey.OP_READ) | (pending ? SelectionKey.OP_WRITE : 0));
+				}
+				selector.select();
+				for (SelectionKey k : selector.selectedKeys()) {
+					if (!k.isValid()) continue;
+					if (k.isAcceptable()) accept();
+					else if (k.isConnectable()) finishConnect(k);
+					else {
+						if (k.isReadable()) read();
+						if (k.isValid() && k.isWritable()) write();
+					}
+				}
+				selector.selectedKeys().clear();
+			}
+		} catch (IOException e) {
+			error = e;
+		} finally {
+			closed    = true;
+			connected = false;
+			closeQuietly();
+		}
+	}
+
+	/** 最初の接続を受け付け、待ち受けをやめる */
+	private void accept() throws IOException {
+		SocketChannel accepted = server.accept();
+		if (accepted == null) return;
+		accepted.configureBlocking(false);
+		accepted.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		accepted.register(selector, SelectionKey.OP_READ);
+		server.close();
+		this.channel   = accepted;
+		this.connected = true;
+	}
+
+	/** 接続を完了する */
+	private void finishConnect(SelectionKey key) throws IOException {
+		if (!channel.finishConnect()) return;
+		key.interestOps(SelectionKey.OP_READ);
+		this.connected = true;
+	}
+
+	/** 受け取ったバイト列を読み込み、メッセージに区切って受信待ちに積む */
+	private void read() throws IOException {
+		int n = channel.read(readBuffer);
+		if (n < 0) {
+			closed = true; // 相手が切断した
+			return;
+		}
+		bytesReceived += n;
+		parse();
+	}
+
+	/** 読み込み済みのバイト列をメッセージに区切って受信待ちに積む（いっぱいになったら残りは受信用バッファに残す） */
+	private void parse() throws IOException {
+		readBuffer.flip();
+		throttled = false;
+		while (readBuffer.remaining() >= 2) {
+			if (inbound.size() >= MAX_INBOUND) {
+				throttled = true;
+				break;
+			}
+			int length = readBuffer.getShort(readBuffer.position()) & 0xFFFF;
+			if (length == 0) throw new IOException("empty message");
+			if (readBuffer.remaining() < 2 + length) break; // 残りは次に届く
+			readBuffer.position(readBuffer.position() + 2);
+			int kind = readBuffer.get() & 0xFF;
+			ByteBuffer payload = ByteBuffer.allocate(length - 1);
+			int limit = readBuffer.limit();
+			readBuffer.limit(readBuffer.position() + length - 1);
+			payload.put(readBuffer);
+			readBuffer.limit(limit);
+			payload.flip();
+			inbound.add(new Message(kind, payload));
+		}
+		readBuffer.compact();
+	}
+
+	/** 送信待ちのメッセージを書き込めるだけ書き込む */
+	private void write() throws IOException {
+		while (true) {
+			if (writing == null) writing = outbound.poll();
+			if (writing == null) return;
+			bytesSent += channel.write(writing);
+			if (writing.hasRemaining()) return; // 送信バッファが空くのを待つ
+			writing = null;
+		}
+	}
+
+	private void closeQuietly() {
+		try {
+			if (channel != null) channel.close();
+			if (server != null) server.close();
+			selector.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/** 通信を終了する */
+	@Override
+	public void close() {
+		closed = true;
+		selector.wakeup();
+	}
+
+	// 以下、ゲッター
+	/** 待ち受け中のポート番号（joinなら-1） */
+	public int getLocalPort() {
+		return server == null ? -1 : server.socket().getLocalPort();
+	}
+	public boolean isConnected() {
+		return connected;
+	}
+	public boolean isClosed() {
+		return closed;
+	}
+	/** 通信中に起きたエラー（なければnull） */
+	public IOException getError() {
+		return error;
+	}
+	public long getBytesSent() {
+		return bytesSent;
+	}
+	public long getBytesReceived() {
+		return bytesReceived;
+	}
+
+	/**
+	 * 受け取ったメッセージ
+	 */
+	public static final class Message {
+		private final int        kind;    // 種類
+		private final ByteBuffer payload; // 内容
+
+		Message(int kind, ByteBuffer payload) {
+			this.kind    = kind;
+			this.payload = payload;
+		}
+
+		public int getKind() {
+			return kind;
+		}
+		public ByteBuffer getPayload() {
+			return payload;
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package mysuika.net;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import mysuika.logic.GameManager;
+import mysuika.logic.GameSnapshot;
+import mysuika.model.GameConfig;
+
+/**
+ * VersusSession クラス
+ *
+ * 自分のゲーム（GameManager）と対戦相手との通信路（VersusLink）をつなぐクラスです。
+ * 自分のゲームループのスレッドで、各ステップの後に afterTick を呼びます。
+ *
+ * - SEND_INTERVAL ステップ（既定で1秒に20回）ごとに、盤面の差分（SnapshotEncoder）を送る
+ * - フルーツを落とすたびに、その入力（ステップ数・落下位置）を送る
+ * - 連鎖が GARBAGE_COMBO 段目以上に伸びるたびに、お邪魔フルーツを1個ずつ相手に送る
+ * - 受け取った盤面はRemoteBoardに渡し、お邪魔フルーツは自分のゲームに降らせる
+ *
+ * 接続が完了する前は何も送らず、接続後の最初の盤面はキーフレームにします。
+ * 相手から届いたメッセージの形式が正しくない（範囲外の値を含む）場合は、ゲームループを止めずに通信路を閉じます。
+ * 自分のゲームオーバー後などゲームループが止まっている間は、startIdlePollingで起動した補助スレッドが
+ * 代わりに受信を続けるため、相手の盤面は動き続け、受信待ちも溜まり続けません。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class VersusSession {
+	public  static final int PROTOCOL      = 2; // 通信形式の版（2: 盤面を複数のメッセージに分けられる）
+	public  static final int SEND_INTERVAL = 3; // 盤面を送るステップ間隔
+	public  static final int GARBAGE_COMBO = 5; // お邪魔フルーツを送り始める連鎖数
+	private static final int MAX_GARBAGE   = 64; // 1メッセージで受け付けるお邪魔フルーツの数の上限（これを超える値は不正とみなす）
+	private static final long IDLE_POLL_MS = 50; // ゲームループが止まっている間に受信する間隔（ミリ秒）
+	private static final long IDLE_NANOS   = 200_000_000L; // この時間afterTickが呼ばれなければゲームループが止まったとみなす
+
+	private final GameManager     manager;    // 自分のゲーム
+	private final VersusLink      link;       // 相手との通信路
+	private final RemoteBoard     board;      // 相手の盤面
+	private final SnapshotEncoder encoder;    // 自分の盤面の差分の書き込み
+	private final SnapshotDecoder decoder;    // 相手の盤面の差分の適用
+	private final ByteBuffer      small   = ByteBuffer.allocate(16); // 盤面以外の小さいメッセージ用
+	private boolean               greeted;    // あいさつを送ったか（接続後に1度だけ）
+	private int                   lastCombo;  // 前のステップの連鎖数
+	private int                   lastDrops;  // 前のステップまでに落とした回数
+	private int                   stepCount;  // 接続後のステップ数
+	private volatile long         lastTickNanos = System.nanoTime(); // 最後にafterTickが呼ばれた時刻
+
+	/**
+	 * コンストラクタ
+	 * @param manager 自分のゲーム
+	 * @param link 相手との通信路
+	 * @param board 受け取った相手の盤面の保存先
+	 */
+	public VersusSession(GameManager manager, VersusLink link, RemoteBoard board) {
+		this.manager = manager;
+		this.link    = link;
+		this.board   = board;
+		this.encoder = new SnapshotEncoder(manager.getWorld().getFruitState());
+		// 相手も同じフィールドで遊ぶ前提で、自分のフィールドの上限を超える盤面は受け付けない
+		GameConfig config = manager.getWorld().getConfig();
+		this.decoder = new SnapshotDecoder(config.getMaxFruits(), config.getTypeCount());
+	}
+
+	/**
+	 * 各ステップの後の処理（自分のゲームループのスレッドから呼ぶ）
+	 */
+	public void afterTick() {
+		lastTickNanos = System.nanoTime();
+		receive();
+		if (!link.isConnected()) return;
+		GameSnapshot snap = manager.getSnapshot();
+		if (!greeted) {
+			small.clear();
+			small.put((byte) PROTOCOL);
+			link.send(VersusLink.HELLO, small.flip());
+			encoder.reset();
+			greeted = true;
+		}
+		if (snap.getDropCount() != lastDrops) { // 新しいゲームを始めた場合（減った場合）は送らない
+			if (snap.getDropCount() > lastDrops) sendDrop(snap.getStep(), manager.getLastDropX());
+			lastDrops = snap.getDropCount();
+		}
+		int combo = snap.getCombo();
+		if (combo > lastCombo && combo >= GARBAGE_COMBO) sendGarbage(combo - Math.max(lastCombo, GARBAGE_COMBO - 1));
+		lastCombo = combo;
+		if (stepCount++ % SEND_INTERVAL == 0 || snap.isGameOver()) sendState();
+	}
+
+	/**
+	 * 現在の盤面の差分をすぐに送る（ゲームを途中で終える前の最後の送信など、自分のゲームループのスレッドから呼ぶ）
+	 */
+	public void sendState() {
+		if (!link.isConnected()) return;
+		int parts = encoder.encode(manager.getSnapshot());
+		for (int i = 0; i < parts; i++) link.send(VersusLink.STATE, encoder.getPart(i));
+	}
+
+	/**
+	 * ゲームループが止まっている間も受信を続ける補助スレッド（versus-idle）を起動する
+	 * afterTickが IDLE_NANOS 以上呼ばれていなければ代わりにreceiveを呼び、通信路が閉じたら終了する
+	 */
+	public void startIdlePolling() {
+		ScheduledExecutorService idle = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "versus-idle");
+			t.setDaemon(true);
+			return t;
+		});
+		idle.scheduleWithFixedDelay(() -> {
+			if (link.isClosed()) idle.shutdown();
+			else if (System.nanoTime() - lastTickNanos > IDLE_NANOS) receive();
+		}, IDLE_POLL_MS, IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 受け取ったメッセージを処理する（afterTickの中でも呼ぶ）
+	 * ゲームループのスレッドと補助スレッドのどちらからも呼ばれるため、同時には1つだけ処理する
+	 * （盤面はRemoteBoard、お邪魔フルーツはGameManager.addGarbageを通して渡すため、ゲームの状態には触れない）
+	 */
+	public synchronized void receive() {
+		VersusLink.Message message;
+		while (!link.isClosed() && (message = link.poll()) != null) {
+			try {
+				handle(message);
+			} catch (RuntimeException e) {
+				// 形式の正しくないメッセージ（範囲外の値・途中で切れた内容など）はゲームループに伝えず、対戦を終える
+				System.err.println("versus: malformed message " + message.getKind() + ", closing link");
+				e.printStackTrace();
+				link.close();
+			}
+		}
+	}
+
+	/**
+	 * 受け取ったメッセージを1つ処理する
+	 * @throws RuntimeException メッセージの形式が正しくない場合
+	 */
+	private void handle(VersusLink.Message message) {
+		ByteBuffer payload = message.getPayload();
+		switch (message.getKind()) {
+		case VersusLink.HELLO -> {
+			int version = payload.get();
+			if (version != PROTOCOL) {
+				System.err.println("versus: protocol mismatch (ours " + PROTOCOL + ", theirs " + version + ")");
+				link.close();
+			}
+		}
+		case VersusLink.STATE -> {
+			RemoteFrame frame = decoder.decode(payload, System.nanoTime());
+			if (frame != null) board.add(frame); // 続きのある部分なら最後の部分を待つ
+		}
+		case VersusLink.GARBAGE -> {
+			int count = Wire.getVarint(payload);
+			if (count <= 0 || count > MAX_GARBAGE) throw new IllegalArgumentException("garbage count out of range: " + count);
+			manager.addGarbage(count);
+			board.addGarbageReceived(count);
+		}
+		case VersusLink.DROP -> {
+			Wire.getVarint(payload); // 相手のステップ数
+			board.recordDrop(Wire.dequantize(Wire.getZigzag(payload)));
+		}
+		default -> System.err.println("versus: unknown message " + message.getKind());
+		}
+	}
+
+	/** フルーツを落とした入力を送る */
+	private void sendDrop(int step, float x) {
+		small.clear();
+		Wire.putVarint(small, step);
+		Wire.putZigzag(small, Wire.quantize(x));
+		link.send(VersusLink.DROP, small.flip());
+	}
+
+	/** お邪魔フルーツを送る（相手が受け付ける上限ごとに分けて送る） */
+	private void sendGarbage(int count) {
+		for (int left = count; left > 0; left -= MAX_GARBAGE) {
+			small.clear();
+			Wire.putVarint(small, Math.min(left, MAX_GARBAGE));
+			link.send(VersusLink.GARBAGE, small.flip());
+		}
+		board.addGarbageSent(count);
+	}
+
+	// 以下、ゲッター
+	public RemoteBoard getBoard() {
+		return board;
+	}
+	public VersusLink getLink() {
+		return link;
+	}
+}
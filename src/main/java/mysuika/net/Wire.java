@@ -0,0 +1,60 @@
+package mysuika.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire クラス
+ *
+ * 対戦用の通信で使う数値の書き込み・読み出しをまとめたクラスです。
+ * 小さい数を少ないバイト数で送るため、整数は可変長（7ビットずつ、上位ビットが続きの印）で、
+ * 符号付きの差分はジグザグ変換（0, -1, 1, -2, ... を 0, 1, 2, 3, ... に対応させる）してから書き込みます。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+final class Wire {
+	static final int QUANTUM = 256;        // 座標の量子化の細かさ（1mあたりの段階数、約4mm刻み）
+
+	private Wire() {
+	}
+
+	/** 0以上の整数を可変長で書き込む */
+	static void putVarint(ByteBuffer buf, int value) {
+		while ((value & ~0x7F) != 0) {
+			buf.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buf.put((byte) value);
+	}
+
+	/** 可変長の整数を読み出す */
+	static int getVarint(ByteBuffer buf) {
+		int value = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = buf.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) return value;
+		}
+	}
+
+	/** 符号付きの整数をジグザグ変換して可変長で書き込む */
+	static void putZigzag(ByteBuffer buf, int value) {
+		putVarint(buf, (value << 1) ^ (value >> 31));
+	}
+
+	/** ジグザグ変換された整数を読み出す */
+	static int getZigzag(ByteBuffer buf) {
+		int v = getVarint(buf);
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	/** 座標（m単位）を量子化する */
+	static int quantize(float meters) {
+		return Math.round(meters * QUANTUM);
+	}
+
+	/** 量子化した座標を戻す（m単位） */
+	static float dequantize(int q) {
+		return q / (float) QUANTUM;
+	}
+}
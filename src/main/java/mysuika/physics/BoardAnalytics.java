@@ -0,0 +1,425 @@
+package mysuika.physics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+import mysuika.model.GameConfig;
+
+/**
+ * BoardAnalytics クラス
+ *
+ * 盤面があふれる原因を調べるため、数ステップおきに状態ミラーを標本として読み、
+ * 次の集計を更新します。
+ * - 密度ヒートマップ : フィールドを CELL 幅の格子に分け、各マスにフルーツの中心があった時間の累計
+ * - 列の高さ        : 格子の列ごとの止まっているフルーツのうち最も高いものの上端（落下中のフルーツは含めない）
+ * - 種類ごとの個数  : フィールド上に今あるフルーツの種類ごとの数
+ * - 落ち着くまでの時間 : フルーツを落としてから全フルーツがほぼ止まるまでのステップ数（平均・最大・分布）
+ *                      前のフルーツが落ち着く前に次を落とした場合は、それぞれの落下から同じ静止時点までを数える
+ *
+ * 標本では全スロットを走査せず、前回の標本以降に生成・削除されたスロットと、動いた（起きている）フルーツの
+ * スロットだけを確認します（PhysicsWorldがonSpawn・onRemove・onMoveで知らせる）。
+ * そのうちマス・種類・動いているかが変わったフルーツについてだけ集計を加減するため、集計全体を数え直すことはありません。
+ * ヒートマップの累計は「マスの個数 × 経過標本数」を、個数が変わったときにだけ足し込みます。
+ *
+ * ゲームループのスレッドから更新します。オーバーレイ表示用の写し（HeatmapView）は、
+ * 公開が有効な間だけ標本ごとに新しく作り、volatileのフィールドで公開します（公開した写しは書き換えません）。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class BoardAnalytics {
+	public  static final float CELL          = 0.5f;  // 格子のマスの大きさ（m単位）
+	public  static final float FIELD_HEIGHT  = 20.0f; // 集計する高さ（m単位、ゲーム画面の高さ相当）
+	private static final float MOVING_SPEED  = 0.3f;  // この速さ以上なら動いているとみなす（m/s）
+	private static final int   SETTLE_LIMIT  = 600;   // これ以上かかった場合は落ち着かなかったとみなす（ステップ数）
+	private static final int   SETTLE_BIN    = 15;    // 落ち着くまでの時間の分布の刻み（ステップ数）
+	private static final int   MAX_PENDING   = 64;    // 落ち着くのを同時に待てる落下の数
+	private static final int   NONE          = -1;    // 空であることを表す値
+
+	private final FruitStateBuffer state;       // フルーツ状態のミラー
+	private final GameConfig       config;      // フルーツの半径の参照用
+	private final int              interval;    // 標本を取るステップ間隔
+	private final int              cols, rows;  // 格子の列数・行数
+	private final int[]            occupancy;   // マスごとの中心があるフルーツの数
+	private final long[]           heat;        // マスごとの累計（個数×標本数、最後に個数が変わった時点まで）
+	private final int[]            heatSince;   // マスごとの最後に個数が変わった標本番号
+	private final int[]            topCount;    // マスごとの上端があるフルーツの数（列の高さ用）
+	private final int[]            columnTop;   // 列ごとの最も高い上端の行（空ならNONE）
+	private final int[]            population;  // 種類ごとのフィールド上の数
+	private final int[]            settleBins = new int[SETTLE_LIMIT / SETTLE_BIN + 1]; // 落ち着くまでの時間の分布
+	private int[]                  lastCell = new int[0], lastTop = new int[0], lastType = new int[0]; // 前回の標本のスロットごとの値
+	private boolean[]              lastMoving = new boolean[0]; // 前回の標本のスロットごとの動いているか
+	private boolean[]              marked   = new boolean[0]; // 次の標本で確認するスロットか
+	private int[]                  dirty    = new int[0];     // 次の標本で確認するスロットの一覧
+	private int                    dirtyCount;                // dirtyの要素数
+	private int                    moving;      // 動いているフルーツの数
+	private int                    samples;     // 取った標本の数
+	private int                    stepCounter;
+	private final int[]            dropSteps = new int[MAX_PENDING]; // 落ち着くのを待っている落下のステップ（古い順のリングバッファ）
+	private int                    dropHead, dropCount; // リングバッファの先頭と個数
+	private int                    settled;     // 落ち着いた回数
+	private long                   settleSum;   // 落ち着くまでのステップ数の合計
+	private int                    settleMax;   // 落ち着くまでのステップ数の最大
+	private int                    unsettled;   // 上限の時間内に落ち着かなかった回数
+	private volatile boolean       publishing;  // オーバーレイ表示用の写しを公開するか（画面のスレッドから切り替える）
+	private volatile HeatmapView   view;        // 公開中の写し（未公開ならnull）
+
+	/**
+	 * コンストラクタ
+	 * @param state フルーツ状態のミラー
+	 * @param config フィールドの幅・標本の間隔・フルーツの半径などの調整値
+	 */
+	public BoardAnalytics(FruitStateBuffer state, GameConfig config) {
+		this.state      = state;
+		this.config     = config;
+		this.interval   = config.getAnalyticsInterval();
+		this.cols       = (int) Math.ceil(config.getFieldWidth() / CELL);
+		this.rows       = (int) Math.ceil(FIELD_HEIGHT / CELL);
+		this.occupancy  = new int[cols * rows];
+		this.heat       = new long[cols * rows];
+		this.heatSince  = new int[cols * rows];
+		this.topCount   = new int[cols * rows];
+		this.columnTop  = new int[cols];
+		this.population = new int[config.getTypeCount()];
+		Arrays.fill(columnTop, NONE);
+	}
+
+	/**
+	 * 集計をすべて捨てて最初の状態に戻す（新しいゲーム・巻き戻し用、PhysicsWorldのresetから呼ぶ）
+	 * 配列は使い回し、オーバーレイ表示用の写しの公開の設定は引き継ぐ（公開中なら空の写しを公開し直す）
+	 */
+	public void clear() {
+		Arrays.fill(occupancy, 0);
+		Arrays.fill(heat, 0L);
+		Arrays.fill(heatSince, 0);
+		Arrays.fill(topCount, 0);
+		Arrays.fill(columnTop, NONE);
+		Arrays.fill(population, 0);
+		Arrays.fill(settleBins, 0);
+		Arrays.fill(lastType, FruitStateBuffer.FREE);
+		Arrays.fill(marked, false);
+		dirtyCount  = 0;
+		moving      = 0;
+		samples     = 0;
+		stepCounter = 0;
+		dropHead    = 0;
+		dropCount   = 0;
+		settled     = 0;
+		settleSum   = 0;
+		settleMax   = 0;
+		unsettled   = 0;
+		if (publishing) view = createView();
+	}
+
+	/**
+	 * フルーツが生成されたときに呼ぶ（次の標本で集計に加える）
+	 * @param slot 状態ミラーのスロット番号
+	 */
+	public void onSpawn(int slot) {
+		mark(slot);
+	}
+
+	/**
+	 * フルーツが削除されるときに呼ぶ（次の標本で集計から除く）
+	 * @param slot 状態ミラーのスロット番号
+	 */
+	public void onRemove(int slot) {
+		mark(slot);
+	}
+
+	/**
+	 * 起きているフルーツの状態ミラーを書き込んだときに呼ぶ（次の標本でマスと動いているかを確認する）
+	 * @param slot 状態ミラーのスロット番号
+	 */
+	public void onMove(int slot) {
+		mark(slot);
+	}
+
+	/** スロットを次の標本で確認する一覧に加える（加え済みなら何もしない） */
+	private void mark(int slot) {
+		if (interval <= 0) return;
+		if (slot >= marked.length) grow(Math.max(slot + 1, marked.length * 2));
+		if (marked[slot]) return;
+		marked[slot]        = true;
+		dirty[dirtyCount++] = slot;
+	}
+
+	/**
+	 * 物理ステップ後に呼ぶ（標本を取るステップでだけ集計を更新する）
+	 */
+	public void onStep() {
+		if (interval <= 0 || ++stepCounter % interval != 0) return;
+		int count = dirtyCount;
+		dirtyCount = 0;
+		for (int i = 0; i < count; i++) {
+			int s = dirty[i];
+			marked[s] = false;
+			update(s);
+			// 動いているとみなしたフルーツは、眠ったり凍結されたりして通知が止まっても止まったことを拾えるよう次の標本でも確認する
+			// （一覧の先頭から詰めて書き直すため、読み終えた位置にしか書き込まない）
+			if (lastType[s] != FruitStateBuffer.FREE && lastMoving[s]) mark(s);
+		}
+		samples++;
+		checkSettled();
+		if (publishing) view = createView();
+	}
+
+	/** スロットの現在の状態を前回の標本と比べ、変わっていれば集計を加減する */
+	private void update(int s) {
+		int type = state.getType(s);
+		if (type == FruitStateBuffer.FREE) {
+			if (lastType[s] != FruitStateBuffer.FREE) remove(s);
+			return;
+		}
+		float x = state.getX(s), y = state.getY(s);
+		int   cell = cellOf(x, y), top = cellOf(x, y + config.getRadius(type));
+		float vx = state.getVX(s), vy = state.getVY(s);
+		boolean isMoving = vx * vx + vy * vy >= MOVING_SPEED * MOVING_SPEED;
+		if (type == lastType[s] && cell == lastCell[s] && top == lastTop[s] && isMoving == lastMoving[s]) return; // 変化なし
+		if (lastType[s] != FruitStateBuffer.FREE) remove(s);
+		add(s, type, cell, top, isMoving);
+	}
+
+	/** スロットのフルーツを集計に加える */
+	private void add(int s, int type, int cell, int top, boolean isMoving) {
+		changeOccupancy(cell, +1);
+		if (isMoving) moving++;
+		else          changeTop(top, +1);
+		population[type]++;
+		lastType[s]   = type;
+		lastCell[s]   = cell;
+		lastTop[s]    = top;
+		lastMoving[s] = isMoving;
+	}
+
+	/** 前回の標本でのスロットのフルーツを集計から除く */
+	private void remove(int s) {
+		changeOccupancy(lastCell[s], -1);
+		if (lastMoving[s]) moving--;
+		else               changeTop(lastTop[s], -1);
+		population[lastType[s]]--;
+		lastType[s] = FruitStateBuffer.FREE;
+	}
+
+	/** マスの個数を変え、それまでの累計を足し込む */
+	private void changeOccupancy(int cell, int delta) {
+		heat[cell]      += (long) occupancy[cell] * (samples - heatSince[cell]);
+		heatSince[cell]  = samples;
+		occupancy[cell] += delta;
+	}
+
+	/**
+	 * 上端のあるマスの個数を変え、列の高さを更新する
+	 * 最も高いマスが空になった場合だけ、その列を下へたどる（1列の行数まで）
+	 */
+	private void changeTop(int cell, int delta) {
+		int col = cell % cols, row = cell / cols;
+		topCount[cell] += delta;
+		if (delta > 0) {
+			if (row > columnTop[col]) columnTop[col] = row;
+		} else if (row == columnTop[col] && topCount[cell] == 0) {
+			int r = row - 1;
+			while (r >= 0 && topCount[r * cols + col] == 0) r--;
+			columnTop[col] = r >= 0 ? r : NONE;
+		}
+	}
+
+	/**
+	 * 落ち着くのを待っている落下について、全体が落ち着いたかを確認し、かかった時間を記録する
+	 * 止まっていれば待っている落下をすべて記録し、動いていれば上限を過ぎた古いものだけを落ち着かなかった回数に数える
+	 */
+	private void checkSettled() {
+		int now = state.getStep();
+		while (dropCount > 0) {
+			int elapsed = now - dropSteps[dropHead];
+			if (moving > 0 && elapsed < SETTLE_LIMIT) return; // 新しい落下ほど経過が短いため、以降も同じ
+			if (moving > 0) {
+				unsettled++;
+			} else {
+				settled++;
+				settleSum += elapsed;
+				settleMax  = Math.max(settleMax, elapsed);
+				settleBins[Math.min(settleBins.length - 1, elapsed / SETTLE_BIN)]++;
+			}
+			dropHead = (dropHead + 1) % MAX_PENDING;
+			dropCount--;
+		}
+	}
+
+	/**
+	 * フルーツを落としたときに呼ぶ（落ち着くまでの時間の計測を始める）
+	 * 待っている落下が上限を超えた場合は、最も古いものを落ち着かなかった回数に数える
+	 */
+	public void onDrop() {
+		if (dropCount == MAX_PENDING) {
+			unsettled++;
+			dropHead = (dropHead + 1) % MAX_PENDING;
+			dropCount--;
+		}
+		dropSteps[(dropHead + dropCount) % MAX_PENDING] = state.getStep();
+		dropCount++;
+	}
+
+	/** 座標が属するマスの番号 */
+	private int cellOf(float x, float y) {
+		int col = Math.max(0, Math.min(cols - 1, (int) (x / CELL)));
+		int row = Math.max(0, Math.min(rows - 1, (int) (y / CELL)));
+		return row * cols + col;
+	}
+
+	/** スロット数の増加に合わせて記録用の配列を拡張 */
+	private void grow(int size) {
+		int old    = lastCell.length;
+		lastCell   = Arrays.copyOf(lastCell, size);
+		lastTop    = Arrays.copyOf(lastTop, size);
+		lastType   = Arrays.copyOf(lastType, size);
+		lastMoving = Arrays.copyOf(lastMoving, size);
+		marked     = Arrays.copyOf(marked, size);
+		dirty      = Arrays.copyOf(dirty, size); // 1スロットは1度しか入らないため、スロット数あれば足りる
+		Arrays.fill(lastType, old, size, FruitStateBuffer.FREE);
+	}
+
+	/**
+	 * マスの密度（中心があったフルーツの数の標本あたりの平均）
+	 * @param col 列
+	 * @param row 行（下から）
+	 * @return 平均個数
+	 */
+	public float getDensity(int col, int row) {
+		int cell = row * cols + col;
+		long total = heat[cell] + (long) occupancy[cell] * (samples - heatSince[cell]);
+		return samples == 0 ? 0.0f : total / (float) samples;
+	}
+
+	/**
+	 * 列の高さ（止まっているフルーツのうち最も高いものの上端があるマスの上辺）
+	 * @param col 列
+	 * @return 高さ（m単位、空なら0）
+	 */
+	public float getColumnHeight(int col) {
+		return (columnTop[col] + 1) * CELL;
+	}
+
+	/**
+	 * オーバーレイ表示用の写しを新しく作る（マス数に比例する手間。公開が有効な場合のみ呼ぶ）
+	 * 公開した写しは書き換えないため、描画のスレッドがいつ読んでも1つの標本の値が揃っている
+	 */
+	private HeatmapView createView() {
+		float[] density = new float[cols * rows];
+		float   max     = 0.0f;
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) {
+				density[r * cols + c] = getDensity(c, r);
+				max = Math.max(max, density[r * cols + c]);
+			}
+		}
+		float[] heights = new float[cols];
+		for (int c = 0; c < cols; c++) heights[c] = getColumnHeight(c);
+		return new HeatmapView(cols, rows, density, max, heights);
+	}
+
+	/**
+	 * 集計をCSVに書き出す（画面なしの実行結果の保存用）
+	 * 節ごとに見出し行を置き、ヒートマップは上の行から順に書く
+	 * @param path 書き出し先
+	 * @throws IOException 書き込みに失敗した場合
+	 */
+	public void export(Path path) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+			out.printf(Locale.ROOT, "# samples=%d interval=%d cell=%.2f%n", samples, interval, CELL);
+			out.println("# settle: settled,unsettled,avg_steps,max_steps");
+			out.printf(Locale.ROOT, "%d,%d,%.1f,%d%n", settled, unsettled, getAverageSettleSteps(), settleMax);
+			out.println("# settle_histogram: from_steps,count");
+			for (int i = 0; i < settleBins.length; i++) out.printf("%d,%d%n", i * SETTLE_BIN, settleBins[i]);
+			out.println("# population: type,count");
+			for (int t = 0; t < population.length; t++) out.printf("%d,%d%n", t, population[t]);
+			out.println("# column_height: x_m,height_m");
+			for (int c = 0; c < cols; c++) out.printf(Locale.ROOT, "%.2f,%.2f%n", c * CELL, getColumnHeight(c));
+			out.println("# density: rows from top, columns from left");
+			for (int r = rows - 1; r >= 0; r--) {
+				StringBuilder line = new StringBuilder();
+				for (int c = 0; c < cols; c++) {
+					if (c > 0) line.append(',');
+					line.append(String.format(Locale.ROOT, "%.3f", getDensity(c, r)));
+				}
+				out.println(line);
+			}
+		}
+	}
+
+	// 以下、ゲッター・セッター
+	public int getCols() {
+		return cols;
+	}
+	public int getRows() {
+		return rows;
+	}
+	public int getPopulation(int type) {
+		return population[type];
+	}
+	public int getSamples() {
+		return samples;
+	}
+	public int getSettledDrops() {
+		return settled;
+	}
+	public int getUnsettledDrops() {
+		return unsettled;
+	}
+	/** 落ち着くまでの平均ステップ数 */
+	public double getAverageSettleSteps() {
+		return settled == 0 ? 0.0 : settleSum / (double) settled;
+	}
+	public int getMaxSettleSteps() {
+		return settleMax;
+	}
+	/**
+	 * オーバーレイ表示用の写しを公開するか（公開しない間は写しを作らない）
+	 * @param publishing 公開するか
+	 */
+	public void setPublishing(boolean publishing) {
+		this.publishing = publishing;
+		if (!publishing) view = null;
+	}
+	/** 公開中の写し（どのスレッドからでも呼べる。未公開ならnull） */
+	public HeatmapView getView() {
+		return view;
+	}
+
+	/**
+	 * オーバーレイ表示用の読み出し専用の写し（作った後は変更しない）
+	 */
+	public static final class HeatmapView {
+		private final int     cols, rows;  // 格子の列数・行数
+		private final float[] density;     // マスごとの密度（下の行から）
+		private final float   maxDensity;  // 密度の最大値
+		private final float[] heights;     // 列ごとの高さ（m単位）
+
+		HeatmapView(int cols, int rows, float[] density, float maxDensity, float[] heights) {
+			this.cols       = cols;
+			this.rows       = rows;
+			this.density    = density;
+			this.maxDensity = maxDensity;
+			this.heights    = heights;
+		}
+
+		public int getCols() {
+			return cols;
+		}
+		public int getRows() {
+			return rows;
+		}
+		/** マスの密度を最大値に対する割合（0.0～1.0）で返す */
+		public float getLevel(int col, int row) {
+			return maxDensity <= 0.0f ? 0.0f : density[row * cols + col] / maxDensity;
+		}
+		public float getHeight(int col) {
+			return heights[col];
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package mysuika.physics;
+
+import java.util.Arrays;
+
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.BodyType;
+
+import mysuika.model.GameConfig;
+
+/**
+ * ChunkGrid クラス
+ *
+ * 横長のフィールド（メガボード）を一定幅の区画（チャンク）に分け、
+ * 区画内のフルーツが十分に静止していれば区画ごとまとめて凍結（静的Bodyに変更）します。
+ * 積み上がったフルーツは全体が接触でつながっているため、JBox2Dのスリープでは
+ * どこか1つが動くと全体が起きてしまいます。静的Bodyは接触をたどる対象にならないので、
+ * 凍結した区画は他の区画の動きに関係なく物理演算の対象から外れます。
+ *
+ * 凍結した区画は、その区画か隣の区画でフルーツが落とされた・消えたときに解凍します。
+ * 判定は数ステップおきに状態ミラーを1回走査するだけで行います。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class ChunkGrid {
+	public  static final float CHUNK_WIDTH    = 4.0f;  // 区画の幅（m単位）
+	private static final int   CHECK_INTERVAL = 15;    // 判定するステップ間隔
+	private static final float SLEEP_SPEED    = 0.15f; // この速さ未満なら静止とみなす（m/s）
+	private static final int   SLEEP_CHECKS   = 2;     // 静止が続いたら凍結する判定回数
+
+	private final FruitStateBuffer state;       // フルーツ状態のミラー
+	private final GameConfig       config;      // フルーツの半径の参照用
+	private final boolean          enabled;     // 凍結を行うか（通常のフィールドでは行わない）
+	private final float            ceiling;     // この高さを超えるフルーツがある区画は凍結しない（危険ゾーンの判定を保つため）
+	private final int              chunks;      // 区画の数
+	private final float[]          maxSpeedSq;  // 区画ごとの最大速度の2乗（判定用の作業領域）
+	private final float[]          top;         // 区画ごとの最も高いフルーツの上端（判定用の作業領域）
+	private final int[]            count;       // 区画ごとのフルーツ数
+	private final int[]            calmChecks;  // 区画ごとの静止が続いた判定回数
+	private final boolean[]        frozen;      // 区画ごとの凍結中か
+	private int                    stepCounter;
+
+	/**
+	 * コンストラクタ
+	 * @param state フルーツ状態のミラー
+	 * @param config フィールドの幅・凍結の有無・フルーツの半径などの調整値
+	 * @param ceiling この高さ（m単位）を超えるフルーツがある区画は凍結しない
+	 */
+	public ChunkGrid(FruitStateBuffer state, GameConfig config, float ceiling) {
+		this.state      = state;
+		this.config     = config;
+		this.enabled    = config.isChunked();
+		this.ceiling    = ceiling;
+		this.chunks     = (int) Math.ceil(config.getFieldWidth() / CHUNK_WIDTH) + 1;
+		this.maxSpeedSq = new float[chunks];
+		this.top        = new float[chunks];
+		this.count      = new int[chunks];
+		this.calmChecks = new int[chunks];
+		this.frozen     = new boolean[chunks];
+	}
+
+	/**
+	 * 物理ステップ後に呼ぶ
+	 * @param slotBodies スロット番号からBodyを引く配列
+	 * @param drop 落下中のフルーツ（その区画と両隣は凍結しない）
+	 */
+	public void onStep(Body[] slotBodies, Body drop) {
+		if (!enabled || ++stepCounter % CHECK_INTERVAL != 0) return;
+		Arrays.fill(maxSpeedSq, 0.0f);
+		Arrays.fill(top, 0.0f);
+		Arrays.fill(count, 0);
+		int dropChunk = -1;
+		for (int s = 0; s < state.getHighWater(); s++) {
+			if (!state.isLive(s)) continue;
+			int   c  = chunkOf(state.getX(s));
+			float vx = state.getVX(s), vy = state.getVY(s);
+			maxSpeedSq[c] = Math.max(maxSpeedSq[c], vx * vx + vy * vy);
+			top[c]        = Math.max(top[c], state.getY(s) + config.getRadius(state.getType(s)));
+			count[c]++;
+			if (slotBodies[s] == drop) dropChunk = c;
+		}
+		boolean freeze = false;
+		for (int c = 0; c < chunks; c++) {
+			if (frozen[c]) continue;
+			boolean calm = count[c] > 0 && Math.abs(c - dropChunk) > 1
+					&& maxSpeedSq[c] < SLEEP_SPEED * SLEEP_SPEED && top[c] < ceiling;
+			calmChecks[c] = calm ? calmChecks[c] + 1 : 0;
+			if (calmChecks[c] >= SLEEP_CHECKS) freeze = frozen[c] = true;
+		}
+		if (!freeze) return;
+		// 静止が続いた区画のフルーツをまとめて静的Bodyに変更
+		for (int s = 0; s < state.getHighWater(); s++) {
+			if (!state.isLive(s) || !frozen[chunkOf(state.getX(s))]) continue;
+			Body body = slotBodies[s];
+			if (body.getType() != BodyType.STATIC) body.setType(BodyType.STATIC);
+		}
+	}
+
+	/**
+	 * 指定位置の区画と両隣の区画を解凍する
+	 * フルーツが落とされた・消えた位置について呼ぶ（周囲のフルーツが動けるようにする）
+	 * @param x X座標（m単位）
+	 * @param slotBodies スロット番号からBodyを引く配列
+	 */
+	public void thaw(float x, Body[] slotBodies) {
+		if (!enabled) return;
+		int center = chunkOf(x);
+		boolean any = false;
+		for (int c = Math.max(0, center - 1); c <= Math.min(chunks - 1, center + 1); c++) {
+			calmChecks[c] = 0;
+			if (frozen[c]) any = true;
+		}
+		if (!any) return;
+		for (int s = 0; s < state.getHighWater(); s++) {
+			if (!state.isLive(s)) continue;
+			int c = chunkOf(state.getX(s));
+			if (c < center - 1 || c > center + 1 || !frozen[c]) continue;
+			Body body = slotBodies[s];
+			if (body != null && body.getType() == BodyType.STATIC) {
+				body.setType(BodyType.DYNAMIC);
+				body.setAwake(true);
+			}
+		}
+		for (int c = Math.max(0, center - 1); c <= Math.min(chunks - 1, center + 1); c++) frozen[c] = false;
+	}
+
+	/**
+	 * X座標が属する区画
+	 * @param x X座標（m単位）
+	 * @return 区画番号
+	 */
+	public int chunkOf(float x) {
+		return Math.max(0, Math.min(chunks - 1, (int)(x / CHUNK_WIDTH)));
+	}
+
+	/** 凍結中の区画数 */
+	public int getFrozenChunks() {
+		int n = 0;
+		for (boolean b : frozen) if (b) n++;
+		return n;
+	}
+	public int getChunks() {
+		return chunks;
+	}
+}
@@ -0,0 +1,184 @@
+package mysuika.physics;
+
+import java.util.Arrays;
+
+import mysuika.model.GameConfig;
+
+/**
+ * DropPredictor クラス
+ *
+ * ガイド位置からフルーツを真下に落としたとき、どの高さで止まり最初に何に触れるかを予測します。
+ * 落下するフルーツの円を真下に動かし、最初に接するフルーツ（または床）を求めます。
+ *
+ * 予測結果は落下位置の列（COLUMN_WIDTH 幅）ごとにキャッシュし、マウスが毎フレーム動いても
+ * キャッシュ済みの列はそのまま返します。物理ステップごとに、しきい値以上動いたフルーツ・
+ * 生成／削除されたフルーツの周囲の列だけを無効化するため、積み上がったフルーツが静止していれば
+ * 再計算は発生しません。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class DropPredictor {
+	public  static final int   NONE         = -1;     // 床に着地する場合の接触スロット
+	private static final float COLUMN_WIDTH = 0.05f;  // キャッシュする列の幅（m単位）
+	private static final float MOVE_EPSILON = 0.05f;  // この距離以上動いたフルーツの周囲を無効化（m単位）
+	private static final float FLOOR_Y      = 0.1f;   // 床の上面のY座標（m単位）
+
+	private final FruitStateBuffer state;      // フルーツ状態のミラー
+	private final GameConfig       config;     // フルーツの半径の参照用
+	private final float            maxRadius;  // フルーツの最大半径（無効化範囲の計算用）
+	private final int              columns;    // 列の数
+	private final float[]          landingY;   // 列ごとの着地時の中心Y座標
+	private final int[]            hitSlot;    // 列ごとの最初に触れるフルーツのスロット（床ならNONE）
+	private final boolean[]        valid;      // 列ごとのキャッシュが有効か
+	private float                  radius = -1; // キャッシュ計算時の落下フルーツの半径
+	private float[]                lastX = new float[0], lastY = new float[0]; // 前回確認時のスロットごとの座標
+	private int[]                  lastType = new int[0]; // 前回確認時のスロットごとの種別
+	private long                   hits, misses; // キャッシュの利用状況
+
+	/**
+	 * コンストラクタ
+	 * @param state フルーツ状態のミラー
+	 * @param config フルーツの半径などの調整値
+	 * @param fieldWidth フィールドの幅（m単位）
+	 */
+	public DropPredictor(FruitStateBuffer state, GameConfig config, float fieldWidth) {
+		float max = 0;
+		for (int t = 0; t < config.getTypeCount(); t++) max = Math.max(max, config.getRadius(t));
+		this.state     = state;
+		this.config    = config;
+		this.maxRadius = max;
+		this.columns   = (int) Math.ceil(fieldWidth / COLUMN_WIDTH) + 1;
+		this.landingY  = new float[columns];
+		this.hitSlot   = new int[columns];
+		this.valid     = new boolean[columns];
+	}
+
+	/**
+	 * 指定位置から落としたときの着地点を予測する
+	 * @param x 落下位置のX座標（m単位）
+	 * @param r 落下するフルーツの半径（m単位）
+	 * @return 着地時の中心Y座標（m単位）
+	 */
+	public synchronized float predictY(float x, float r) {
+		return landingY[lookup(x, r)];
+	}
+
+	/**
+	 * 指定位置から落としたとき最初に触れるフルーツ
+	 * @param x 落下位置のX座標（m単位）
+	 * @param r 落下するフルーツの半径（m単位）
+	 * @return スロット番号（床に着地する場合はNONE）
+	 */
+	public synchronized int predictHit(float x, float r) {
+		return hitSlot[lookup(x, r)];
+	}
+
+	/**
+	 * 列のキャッシュを確認し、無効なら計算する
+	 * @return 列番号
+	 */
+	private int lookup(float x, float r) {
+		if (r != radius) { // 落下するフルーツが変わったら全列を作り直す
+			Arrays.fill(valid, false);
+			radius = r;
+		}
+		int column = Math.max(0, Math.min(columns - 1, (int)(x / COLUMN_WIDTH)));
+		if (valid[column]) {
+			hits++;
+		} else {
+			misses++;
+			compute(column, (column + 0.5f) * COLUMN_WIDTH, r);
+		}
+		return column;
+	}
+
+	/**
+	 * 1列分の着地点を計算（円を真下に動かしたとき最初に接するフルーツを探す）
+	 */
+	private void compute(int column, float x, float r) {
+		float best = FLOOR_Y + r; // 何にも触れなければ床に着地
+		int   slot = NONE;
+		for (int s = 0; s < state.getHighWater(); s++) {
+			if (!state.isLive(s)) continue;
+			float dx    = state.getX(s) - x;
+			float reach = r + radiusOf(s);
+			if (dx >= reach || dx <= -reach) continue; // 横に離れていれば触れない
+			// 2円が接するときの落下フルーツの中心の高さ
+			float touchY = state.getY(s) + (float) Math.sqrt(reach * reach - dx * dx);
+			if (touchY > best) {
+				best = touchY;
+				slot = s;
+			}
+		}
+		landingY[column] = best;
+		hitSlot[column]  = slot;
+		valid[column]    = true;
+	}
+
+	/**
+	 * 物理ステップ後に呼ぶ
+	 * しきい値以上動いた・生成・削除されたフルーツの周囲の列だけ無効化する
+	 */
+	public synchronized void onStep() {
+		int highWater = state.getHighWater();
+		if (lastX.length < highWater) grow(highWater);
+		for (int s = 0; s < highWater; s++) {
+			int   type = state.getType(s);
+			float x    = state.getX(s), y = state.getY(s);
+			if (type == FruitStateBuffer.FREE && lastType[s] == FruitStateBuffer.FREE) continue;
+			if (type != lastType[s]) {
+				// 生成・削除・入れ替わり：前後どちらの位置も影響する
+				if (lastType[s] != FruitStateBuffer.FREE) invalidate(lastX[s], lastX[s]);
+				if (type != FruitStateBuffer.FREE) invalidate(x, x);
+			} else if (Math.abs(x - lastX[s]) < MOVE_EPSILON && Math.abs(y - lastY[s]) < MOVE_EPSILON) {
+				continue; // ほぼ動いていない
+			} else {
+				invalidate(Math.min(x, lastX[s]), Math.max(x, lastX[s]));
+			}
+			lastX[s]    = x;
+			lastY[s]    = y;
+			lastType[s] = type;
+		}
+	}
+
+	/**
+	 * 指定範囲のフルーツが影響しうる列を無効化する
+	 * @param minX 範囲の左端（m単位）
+	 * @param maxX 範囲の右端（m単位）
+	 */
+	private void invalidate(float minX, float maxX) {
+		float reach = maxRadius * 2; // 落下フルーツと既存フルーツの半径の和の最大
+		int from = Math.max(0, (int)((minX - reach) / COLUMN_WIDTH));
+		int to   = Math.min(columns - 1, (int)((maxX + reach) / COLUMN_WIDTH));
+		for (int c = from; c <= to; c++) valid[c] = false;
+	}
+
+	/** スロット数の増加に合わせて記録用の配列を拡張 */
+	private void grow(int size) {
+		int old  = lastX.length;
+		lastX    = Arrays.copyOf(lastX, size);
+		lastY    = Arrays.copyOf(lastY, size);
+		lastType = Arrays.copyOf(lastType, size);
+		Arrays.fill(lastType, old, size, FruitStateBuffer.FREE);
+	}
+
+	/** 全列のキャッシュを無効化 */
+	public synchronized void invalidateAll() {
+		Arrays.fill(valid, false);
+		Arrays.fill(lastType, FruitStateBuffer.FREE);
+	}
+
+	/** スロットのフルーツの半径 */
+	private float radiusOf(int slot) {
+		return config.getRadius(state.getType(slot));
+	}
+
+	// 以下、キャッシュの利用状況
+	public long getHits() {
+		return hits;
+	}
+	public long getMisses() {
+		return misses;
+	}
+}
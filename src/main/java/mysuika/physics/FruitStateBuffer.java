@@ -0,0 +1,164 @@
+package mysuika.physics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * FruitStateBuffer クラス
+ *
+ * 全フルーツの状態（座標・速度・種別・生成ステップ）をヒープ外メモリに
+ * 構造体配列（SoA）形式で保持するミラーです。
+ * PhysicsWorldが毎ステップ後に書き込み、描画・統計・スナップショットなどの
+ * 一括読み出し側はBodyをたどらずに連続したメモリを走査できます。
+ *
+ * スロット番号はフルーツが存在する間は変わらず、合体や消去で解放された番号は再利用されます。
+ * 容量は同時に存在するフルーツ数に応じてのみ拡張され、プレイ履歴の長さでは増えません。
+ *
+ * ※ JDK 21 の MemorySegment はプレビュー機能のため、同じくヒープ外に確保される
+ *   ダイレクト ByteBuffer を使用しています。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class FruitStateBuffer {
+	public  static final int FREE         = -1;  // 未使用スロットの種別値
+	private static final int INITIAL_SIZE = 64;  // 初期スロット数
+	private static final int FIELDS       = 6;   // 1スロットあたりの項目数（x, y, vx, vy, type, born）
+	private static final int BYTES        = 4;   // 各項目のバイト数（float / int）
+	private static final int X = 0, Y = 1, VX = 2, VY = 3, TYPE = 4, BORN = 5; // 項目番号
+
+	private ByteBuffer memory;    // ヒープ外メモリ本体
+	private int        capacity;  // 確保済みスロット数
+	private int        highWater; // 使用したことのあるスロット番号の上限（走査範囲）
+	private int        liveCount; // 使用中のスロット数
+	private int[]      freeSlots; // 解放済みスロット番号のスタック
+	private int        freeTop;   // スタックの要素数
+	private int        step;      // 現在のステップ数（年齢計算用）
+
+	public FruitStateBuffer() {
+		allocate(INITIAL_SIZE);
+	}
+
+	/**
+	 * 指定容量でメモリを確保し、既存の内容があればコピーする
+	 * @param newCapacity 新しいスロット数
+	 */
+	private void allocate(int newCapacity) {
+		ByteBuffer next = ByteBuffer.allocateDirect(newCapacity * FIELDS * BYTES).order(ByteOrder.nativeOrder());
+		for (int field = 0; field < FIELDS; field++) {
+			for (int s = 0; s < newCapacity; s++) {
+				int value = (memory != null && s < capacity) ? memory.getInt(offset(field, s, capacity)) : FREE;
+				next.putInt(offset(field, s, newCapacity), value);
+			}
+		}
+		int[] stack = new int[newCapacity];
+		if (freeSlots != null) System.arraycopy(freeSlots, 0, stack, 0, freeTop);
+		this.memory    = next;
+		this.capacity  = newCapacity;
+		this.freeSlots = stack;
+	}
+
+	/** 項目ごとの連続領域の中でのバイト位置 */
+	private static int offset(int field, int slot, int cap) {
+		return (field * cap + slot) * BYTES;
+	}
+	private int offset(int field, int slot) {
+		return (field * capacity + slot) * BYTES;
+	}
+
+	/**
+	 * フルーツ用のスロットを確保する
+	 * @param type フルーツ種別
+	 * @param x X座標（m単位）
+	 * @param y Y座標（m単位）
+	 * @return スロット番号
+	 */
+	public int acquire(int type, float x, float y) {
+		int slot;
+		if (freeTop > 0) {
+			slot = freeSlots[--freeTop]; // 解放済みの番号を再利用
+		} else {
+			if (highWater == capacity) allocate(capacity * 2);
+			slot = highWater++;
+		}
+		memory.putInt(offset(TYPE, slot), type);
+		memory.putInt(offset(BORN, slot), step);
+		write(slot, x, y, 0.0f, 0.0f);
+		liveCount++;
+		return slot;
+	}
+
+	/**
+	 * スロットを解放し、再利用できるようにする
+	 * @param slot スロット番号
+	 */
+	public void release(int slot) {
+		if (!isLive(slot)) return;
+		memory.putInt(offset(TYPE, slot), FREE);
+		freeSlots[freeTop++] = slot;
+		liveCount--;
+	}
+
+	/** 全スロットを解放する */
+	public void clear() {
+		for (int s = 0; s < highWater; s++) memory.putInt(offset(TYPE, s), FREE);
+		highWater = 0;
+		liveCount = 0;
+		freeTop   = 0;
+		step      = 0;
+	}
+
+	/**
+	 * 座標と速度を書き込む
+	 */
+	public void write(int slot, float x, float y, float vx, float vy) {
+		memory.putFloat(offset(X, slot), x);
+		memory.putFloat(offset(Y, slot), y);
+		memory.putFloat(offset(VX, slot), vx);
+		memory.putFloat(offset(VY, slot), vy);
+	}
+
+	/** ステップ数を1つ進める */
+	void advance() {
+		step++;
+	}
+
+	/** ステップ数を設定する（巻き戻し用、clearの後に呼ぶ） */
+	void setStep(int step) {
+		this.step = step;
+	}
+
+	// 以下、読み出し用ゲッター
+	public boolean isLive(int slot) {
+		return slot >= 0 && slot < highWater && getType(slot) != FREE;
+	}
+	public float getX(int slot) {
+		return memory.getFloat(offset(X, slot));
+	}
+	public float getY(int slot) {
+		return memory.getFloat(offset(Y, slot));
+	}
+	public float getVX(int slot) {
+		return memory.getFloat(offset(VX, slot));
+	}
+	public float getVY(int slot) {
+		return memory.getFloat(offset(VY, slot));
+	}
+	public int getType(int slot) {
+		return memory.getInt(offset(TYPE, slot));
+	}
+	/** 生成からの経過ステップ数 */
+	public int getAge(int slot) {
+		return step - memory.getInt(offset(BORN, slot));
+	}
+	/** 走査範囲（この値未満のスロット番号を isLive で判定して読む） */
+	public int getHighWater() {
+		return highWater;
+	}
+	public int getLiveCount() {
+		return liveCount;
+	}
+	public int getStep() {
+		return step;
+	}
+}
@@ -0,0 +1,336 @@
+package mysuika.physics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.BodyType;
+import org.jbox2d.dynamics.Island;
+import org.jbox2d.dynamics.Profile;
+import org.jbox2d.dynamics.TimeStep;
+import org.jbox2d.dynamics.World;
+import org.jbox2d.dynamics.contacts.Contact;
+import org.jbox2d.dynamics.contacts.ContactEdge;
+
+/**
+ * ParallelIslandWorld クラス（実験的）
+ *
+ * JBox2DのWorldは、接触でつながったBodyのまとまり（島）を1つずつ順に解きます。
+ * このクラスはWorld.stepの島を解く部分だけを置き換え、島を先にすべて見つけてから
+ * フォーク・ジョイン・プールで並列に解きます。島どうしは動くBodyを共有しないため、
+ * 各島の計算結果は解く順番やスレッドに関係なく、通常のworld.stepと完全に一致します。
+ * 接触の検出やBroadPhaseの更新など順番に依存する処理は、従来どおり1スレッドで行います。
+ *
+ * 床や壁などの静的Bodyは複数の島から参照されます。JBox2Dは島内の番号をBody自身に
+ * 書き込むため、複数の島に属する静的Bodyはすべての島で同じ番号（先頭）に置き、
+ * 並列に解いても番号が食い違わないようにしています。
+ *
+ * 決定的モードでは、島をBody数で均等に分けた固定の区間ごとに、決まったスレッド数で解きます
+ * （通常は作業の横取りで負荷を分散します）。どちらも結果は同じで、決定的モードは
+ * 島とスレッドの割り当ても毎回同じになります。
+ *
+ * 連続衝突判定（solveTOI）はJBox2Dの内部処理のため置き換えられません。
+ * 連続衝突判定が有効な場合は通常のworld.stepを使います。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class ParallelIslandWorld extends World {
+	private static final int          MIN_PARALLEL_BODIES = 200; // 島のBodyの合計がこれ未満なら並列化しない
+	private static final int          SPLIT_BODIES        = 64;  // 作業の横取りで分割する最小のBody数
+	private static final MethodHandle SYNC_FIXTURES;             // Body.synchronizeFixtures（JBox2D内部のメソッド）
+
+	static {
+		try {
+			Method m = Body.class.getDeclaredMethod("synchronizeFixtures");
+			m.setAccessible(true);
+			SYNC_FIXTURES = MethodHandles.lookup().unreflect(m);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final ForkJoinPool        pool;           // 島を解くスレッドプール
+	private final boolean             deterministic;  // 島とスレッドの割り当てを固定するか
+	private final TimeStep            step = new TimeStep();
+	private final ThreadLocal<Solver> solvers = ThreadLocal.withInitial(Solver::new); // スレッドごとの島ソルバー
+	private boolean                   parallel = true; // 並列に解くか（falseなら同じ処理を1スレッドで）
+	private float                     invDt0;          // 前回ステップの時間刻みの逆数
+
+	// 見つけた島（島の順に平坦な配列に詰める）
+	private Body[]    islandBodies   = new Body[256];
+	private Contact[] islandContacts = new Contact[256];
+	private boolean[] sharedEntry    = new boolean[256]; // islandBodiesの各要素が共有の静的Bodyか
+	private int[]     bodyStart      = new int[65];      // 島ごとのBodyの開始位置（末尾に総数）
+	private int[]     contactStart   = new int[65];      // 島ごとの接触の開始位置（末尾に総数）
+	private int       islandCount;
+	private Body[]    stack          = new Body[256];    // 島をたどる作業用
+	private Body[]    shared         = new Body[16];     // 複数の島に属する静的Body
+	private int       sharedCount;
+	private long      parallelSteps, serialSteps;        // 並列・1スレッドで解いたステップ数
+
+	/**
+	 * コンストラクタ（共通のフォーク・ジョイン・プールを使用）
+	 * @param gravity 重力
+	 * @param deterministic 島とスレッドの割り当てを固定するか
+	 */
+	public ParallelIslandWorld(Vec2 gravity, boolean deterministic) {
+		this(gravity, deterministic, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * コンストラクタ
+	 * @param gravity 重力
+	 * @param deterministic 島とスレッドの割り当てを固定するか
+	 * @param pool 島を解くスレッドプール
+	 */
+	public ParallelIslandWorld(Vec2 gravity, boolean deterministic, ForkJoinPool pool) {
+		super(gravity);
+		this.deterministic = deterministic;
+		this.pool          = pool;
+	}
+
+	/**
+	 * 物理演算を1ステップ進める（World.stepと同じ手順で、島を解く部分だけ並列化）
+	 */
+	@Override
+	public void step(float dt, int velocityIterations, int positionIterations) {
+		if (isContinuousPhysics()) { // 連続衝突判定はJBox2D内部でしか行えない
+			super.step(dt, velocityIterations, positionIterations);
+			return;
+		}
+		if ((m_flags & NEW_FIXTURE) == NEW_FIXTURE) {
+			getContactManager().findNewContacts();
+			m_flags &= ~NEW_FIXTURE;
+		}
+		m_flags |= LOCKED;
+		step.dt                 = dt;
+		step.velocityIterations = velocityIterations;
+		step.positionIterations = positionIterations;
+		step.inv_dt             = dt > 0.0f ? 1.0f / dt : 0.0f;
+		step.dtRatio            = invDt0 * dt;
+		step.warmStarting       = isWarmStarting();
+
+		getContactManager().collide(); // 接触の更新
+		if (dt > 0.0f) {
+			findIslands();
+			solveIslands();
+			synchronizeFixtures();
+			getContactManager().findNewContacts();
+			invDt0 = step.inv_dt;
+		}
+		if ((m_flags & CLEAR_FORCES) == CLEAR_FORCES) clearForces();
+		m_flags &= ~LOCKED;
+	}
+
+	/**
+	 * 起きているBodyから接触をたどって島を見つける（World.solveと同じ順番）
+	 */
+	private void findIslands() {
+		for (Body b = getBodyList(); b != null; b = b.m_next) {
+			b.m_flags &= ~Body.e_islandFlag;
+			b.m_islandIndex = -1; // 静的Bodyの所属する島の記録に使う
+		}
+		for (Contact c = getContactManager().m_contactList; c != null; c = c.m_next) {
+			c.m_flags &= ~Contact.ISLAND_FLAG;
+		}
+		if (stack.length < getBodyCount()) stack = new Body[getBodyCount()];
+		islandCount = 0;
+		sharedCount = 0;
+		int bodies = 0, contacts = 0;
+		bodyStart[0] = contactStart[0] = 0;
+
+		for (Body seed = getBodyList(); seed != null; seed = seed.m_next) {
+			if ((seed.m_flags & Body.e_islandFlag) != 0) continue;
+			if (!seed.isAwake() || !seed.isActive()) continue;
+			if (seed.getType() == BodyType.STATIC) continue;
+
+			int islandStart = bodies;
+			int top = 0;
+			stack[top++] = seed;
+			seed.m_flags |= Body.e_islandFlag;
+			while (top > 0) {
+				Body b = stack[--top];
+				bodies = addBody(b, bodies);
+				b.setAwake(true);
+				if (b.getType() == BodyType.STATIC) {
+					markStatic(b);
+					continue; // 静的Bodyの先はたどらない
+				}
+				for (ContactEdge ce = b.m_contactList; ce != null; ce = ce.next) {
+					Contact contact = ce.contact;
+					if ((contact.m_flags & Contact.ISLAND_FLAG) != 0) continue;
+					if (!contact.isEnabled() || !contact.isTouching()) continue;
+					if (contact.m_fixtureA.m_isSensor || contact.m_fixtureB.m_isSensor) continue;
+					contacts = addContact(contact, contacts);
+					contact.m_flags |= Contact.ISLAND_FLAG;
+					Body other = ce.other;
+					if ((other.m_flags & Body.e_islandFlag) != 0) continue;
+					stack[top++] = other;
+					other.m_flags |= Body.e_islandFlag;
+				}
+			}
+			// 静的Bodyは他の島にも属せるように印を外す（World.solveと同じ）
+			for (int i = islandStart; i < bodies; i++) {
+				if (islandBodies[i].getType() == BodyType.STATIC) islandBodies[i].m_flags &= ~Body.e_islandFlag;
+			}
+			if (islandCount + 2 > bodyStart.length) {
+				bodyStart    = Arrays.copyOf(bodyStart, bodyStart.length * 2);
+				contactStart = Arrays.copyOf(contactStart, contactStart.length * 2);
+			}
+			islandCount++;
+			bodyStart[islandCount]    = bodies;
+			contactStart[islandCount] = contacts;
+		}
+		// 共有の静的Bodyに印を付ける（島を解くと番号が書き換わるため、先に記録する）
+		if (sharedEntry.length < bodies) sharedEntry = new boolean[islandBodies.length];
+		for (int i = 0; i < bodies; i++) sharedEntry[i] = islandBodies[i].m_islandIndex == -2;
+	}
+
+	/**
+	 * 静的Bodyが複数の島に属していれば共有として記録する
+	 * 解く前はm_islandIndexに所属する島の番号（共有なら-2）を入れておく
+	 */
+	private void markStatic(Body b) {
+		if (b.m_islandIndex == -1) {
+			b.m_islandIndex = islandCount;
+		} else if (b.m_islandIndex >= 0 && b.m_islandIndex != islandCount) {
+			b.m_islandIndex = -2;
+			if (sharedCount == shared.length) shared = Arrays.copyOf(shared, sharedCount * 2);
+			shared[sharedCount++] = b;
+		}
+	}
+
+	private int addBody(Body b, int count) {
+		if (count == islandBodies.length) islandBodies = Arrays.copyOf(islandBodies, count * 2);
+		islandBodies[count] = b;
+		return count + 1;
+	}
+
+	private int addContact(Contact c, int count) {
+		if (count == islandContacts.length) islandContacts = Arrays.copyOf(islandContacts, count * 2);
+		islandContacts[count] = c;
+		return count + 1;
+	}
+
+	/**
+	 * 見つけた島をすべて解く
+	 */
+	private void solveIslands() {
+		int total = bodyStart[islandCount];
+		if (!parallel || islandCount < 2 || total < MIN_PARALLEL_BODIES || pool.getParallelism() < 2) {
+			solvers.get().solve(0, islandCount);
+			serialSteps++;
+			return;
+		}
+		parallelSteps++;
+		if (deterministic) {
+			// Body数で均等に分けた固定の区間を、区間ごとに1タスクで解く
+			int      parts = Math.min(pool.getParallelism(), islandCount);
+			Range[]  tasks = new Range[parts];
+			int      from  = 0;
+			for (int p = 0; p < parts; p++) {
+				int to = from + 1;
+				long limit = (long) total * (p + 1) / parts;
+				while (to < islandCount - (parts - p - 1) && bodyStart[to] < limit) to++;
+				tasks[p] = new Range(from, p == parts - 1 ? islandCount : to, false);
+				from = tasks[p].to;
+			}
+			pool.invoke(new RecursiveAction() {
+				@Override protected void compute() { invokeAll(tasks); }
+			});
+		} else {
+			pool.invoke(new Range(0, islandCount, true));
+		}
+	}
+
+	/**
+	 * 島の区間を解くタスク（split=trueなら半分に分けて横取りさせる）
+	 */
+	private class Range extends RecursiveAction {
+		private final int     from, to;
+		private final boolean split;
+
+		Range(int from, int to, boolean split) {
+			this.from  = from;
+			this.to    = to;
+			this.split = split;
+		}
+
+		@Override
+		protected void compute() {
+			if (split && to - from > 1 && bodyStart[to] - bodyStart[from] > SPLIT_BODIES) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Range(from, mid, true), new Range(mid, to, true));
+			} else {
+				solvers.get().solve(from, to);
+			}
+		}
+	}
+
+	/**
+	 * スレッドごとの島ソルバー（JBox2DのIslandは作業領域を持つため共有できない）
+	 */
+	private class Solver {
+		private final Island  island  = new Island();
+		private final Profile profile = new Profile();
+
+		/** 島の区間を順に解く */
+		void solve(int from, int to) {
+			for (int i = from; i < to; i++) {
+				int b0 = bodyStart[i],    b1 = bodyStart[i + 1];
+				int c0 = contactStart[i], c1 = contactStart[i + 1];
+				island.init(sharedCount + b1 - b0, c1 - c0, 0, getContactManager().m_contactListener);
+				island.clear();
+				// 共有の静的Bodyはどの島でも同じ番号になるよう先頭に置く
+				for (int s = 0; s < sharedCount; s++) island.add(shared[s]);
+				for (int k = b0; k < b1; k++) {
+					if (!sharedEntry[k]) island.add(islandBodies[k]);
+				}
+				for (int k = c0; k < c1; k++) island.add(islandContacts[k]);
+				island.solve(profile, step, getGravity(), isAllowSleep());
+			}
+		}
+	}
+
+	/**
+	 * 島に含まれた動的Bodyのフィクスチャ位置をBroadPhaseに反映（順番を保つため1スレッドで）
+	 */
+	private void synchronizeFixtures() {
+		try {
+			for (Body b = getBodyList(); b != null; b = b.getNext()) {
+				if ((b.m_flags & Body.e_islandFlag) == 0) continue;
+				if (b.getType() == BodyType.STATIC) continue;
+				SYNC_FIXTURES.invokeExact(b);
+			}
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// 以下、ゲッター・セッター
+	public boolean isParallel() {
+		return parallel;
+	}
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+	public boolean isDeterministic() {
+		return deterministic;
+	}
+	/** 直前のステップで見つけた島の数 */
+	public int getIslandCount() {
+		return islandCount;
+	}
+	public long getParallelSteps() {
+		return parallelSteps;
+	}
+	public long getSerialSteps() {
+		return serialSteps;
+	}
+}
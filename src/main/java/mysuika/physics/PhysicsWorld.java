@@ -1,8 +1,12 @@
 package mysuika.physics;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.jbox2d.callbacks.ContactListener;
@@ -16,8 +20,10 @@ import org.jbox2d.dynamics.FixtureDef;
 import org.jbox2d.dynamics.World;
 import org.jbox2d.dynamics.contacts.Contact;
 
+import mysuika.TraceRecorder;
 import mysuika.logic.GameManager;
 import mysuika.model.FruitBlueprint;
+import mysuika.model.GameConfig;
 
 /**
  * PhysicsWorld クラス
@@ -32,44 +38,155 @@ import mysuika.model.FruitBlueprint;
 public class PhysicsWorld {
 	private World                world;      // JBox2Dの物理ワールド本体
 	private GameManager          manager;    // ゲーム全体の管理クラスへの参照
+	private GameConfig           config;     // 半径・重力・減衰などの調整値
+	private int                  mergeCount; // 合体（スイカ同士の消去を含む）の回数
+	private int                  maxType;    // これまでに出現した最大のフルーツ種別
 	private Body                 dropfruit;  // 現在落下中のフルーツの実体（衝突監視用）
 	
 	private List<Body>           activeFruitBodies    = new ArrayList<>(); // 物理ワールド内に存在する全フルーツのリスト
 	private List<FruitBlueprint> pendingFruitSpawns   = new ArrayList<>(); // 合体後に生成予定のフルーツ情報
-	private Set<Body>            pendingRemovalBodies = new HashSet<>();   // 削除予定のフルーツ（合体や消去時に使用）
+	private Set<Body>            pendingRemovalBodies = new LinkedHashSet<>(); // 削除予定のフルーツ（合体や消去時に使用、予約順に削除して展開を再現できるようにする）
+	private FruitStateBuffer     fruitState           = new FruitStateBuffer(); // 全フルーツ状態のヒープ外ミラー
+	private DropPredictor        dropPredictor;   // ガイドの着地点予測（initで生成）
+	private ChunkGrid            chunkGrid;       // 区画ごとの凍結管理（initで生成）
+	private BoardAnalytics       analytics;       // 盤面の集計（initで生成）
+	private SettleDetector       settleDetector;  // 盤面が落ち着いたかの判定（initで生成）
+	private Body[]               slotBodies = new Body[64]; // 状態ミラーのスロット番号からBodyを引く表
+	private Map<Body, Integer>   dangerBodies         = new LinkedHashMap<>(); // 危険ゾーン内のフルーツと進入ステップ（進入順）
 	
 	/**
-	 * コンストラクタ
-	 * @param gameManager ゲーム全体管理クラス
+	 * コンストラクタ（通常プレイの調整値を使用）
 	 */
 	public PhysicsWorld() {
+		this(new GameConfig());
+	}
+	
+	/**
+	 * コンストラクタ
+	 * @param config 半径・重力・減衰などの調整値
+	 */
+	public PhysicsWorld(GameConfig config) {
+		this.config  = config;
+		createWorld();
+	}
+	
+	/**
+	 * JBox2Dの物理ワールドを生成し、衝突リスナーを設定
+	 */
+	private void createWorld() {
 		// 重力ベクトルを設定（下向きに強い重力）
-		this.world   = new World(new Vec2(0.0f, -150.0f));
+		Vec2 gravity = new Vec2(0.0f, config.getGravity());
+		this.world   = config.isParallelIslands()
+				? new ParallelIslandWorld(gravity, config.isDeterministic()) // 島を並列に解く（実験的）
+				: new World(gravity);
+		world.setContinuousPhysics(config.isContinuous());
 		// 衝突リスナーを設定
 		world.setContactListener(new ContactListener() {
 			@Override
 			public void beginContact(Contact contact) {
+				long t = TraceRecorder.begin();
+				try {
+					handleBeginContact(contact);
+				} finally {
+					TraceRecorder.end(TraceRecorder.Span.BEGIN_CONTACT, t);
+				}
+			}
+			@Override
+			public void endContact(Contact contact) {
+				long t = TraceRecorder.begin();
 				Body a = contact.getFixtureA().getBody();
 				Body b = contact.getFixtureB().getBody();
-				// 衝突したのが壁の場合は処理しない
-				if(isWallOrFloor(a) || isWallOrFloor(b)) return;
-				// 落下中フルーツが他のフルーツに衝突したらガイド更新
-				if (a == getDrop() || b ==  getDrop()) manager.CollisionDetection();
-				Merge(a, b);// 合体判定
+				// 危険ゾーンから出たフルーツの記録を消す（Body削除時にも呼ばれる）
+				if (isDangerZone(a)) dangerBodies.remove(b);
+				if (isDangerZone(b)) dangerBodies.remove(a);
+				TraceRecorder.end(TraceRecorder.Span.END_CONTACT, t);
 			}
-			@Override	public void endContact(Contact contact) {}
 			@Override	public void preSolve(Contact contact, org.jbox2d.collision.Manifold oldManifold) {}
 			@Override	public void postSolve(Contact contact, org.jbox2d.callbacks.ContactImpulse impulse) {}
 		});
 	}
 	
+	/**
+	 * 接触開始時の処理（危険ゾーンへの進入記録・ガイド更新・合体判定）
+	 * @param contact 接触
+	 */
+	private void handleBeginContact(Contact contact) {
+		Body a = contact.getFixtureA().getBody();
+		Body b = contact.getFixtureB().getBody();
+		// 危険ゾーンのセンサーなら進入を記録して終了
+		if (isDangerZone(a)) { enterDanger(b); return; }
+		if (isDangerZone(b)) { enterDanger(a); return; }
+		// 衝突したのが壁の場合は処理しない
+		if(isWallOrFloor(a) || isWallOrFloor(b)) return;
+		// 落下中フルーツが他のフルーツに衝突したらガイド更新
+		if (a == getDrop() || b ==  getDrop()) manager.CollisionDetection();
+		Merge(a, b);// 合体判定
+	}
+	
+	/**
+	 * 新しいゲームのために物理ワールドを作り直す（JVMを起動し直さずに次のゲームを始める用）
+	 * フルーツ・予約中の生成と削除・危険ゾーンの記録・集計をすべて捨て、床と壁を作り直す。
+	 * 盤面の集計（BoardAnalytics）は同じインスタンスを空に戻して使うため、表示中のヒートマップは消えない。
+	 * JBox2Dのワールドごと作り直すため、同じ乱数の種なら起動直後のゲームと同じ展開になる。
+	 * 状態ミラーのヒープ外メモリは確保済みのものを使い回す。
+	 */
+	public void reset() {
+		createWorld();
+		activeFruitBodies.clear();
+		pendingFruitSpawns.clear();
+		pendingRemovalBodies.clear();
+		dangerBodies.clear();
+		Arrays.fill(slotBodies, null);
+		fruitState.clear();
+		mergeCount = 0;
+		maxType    = 0;
+		dropfruit  = null;
+		init();
+	}
+	
+	/**
+	 * 巻き戻し用に、記録しておいたフルーツの状態で物理ワールドを作り直す（RewindBuffer から呼ぶ）
+	 * resetと同じくJBox2Dのワールドごと作り直し、フルーツを記録どおりの位置・角度・速度で生成する。
+	 * 接触の状態と危険ゾーンの滞在時間は引き継がない（次のステップで接触を検出し直し、滞在時間は数え直す）。
+	 * @param step 戻すステップ数
+	 * @param count フルーツの数
+	 * @param types フルーツ種別（count個）
+	 * @param kinematics フルーツごとの x, y, 角度, vx, vy, 角速度（count×6個）
+	 * @param dropIndex 落下中のフルーツの番号（なければ-1）
+	 * @param mergeCount 合体の回数
+	 * @param maxType これまでに出現した最大のフルーツ種別
+	 */
+	public void restore(int step, int count, int[] types, float[] kinematics, int dropIndex, int mergeCount, int maxType) {
+		reset();
+		fruitState.setStep(step);
+		Vec2 v = new Vec2();
+		for (int i = 0; i < count; i++) {
+			int  k = i * 6;
+			Body b = spawnFruit(kinematics[k], kinematics[k + 1], types[i]);
+			b.setTransform(v.set(kinematics[k], kinematics[k + 1]), kinematics[k + 2]);
+			b.setLinearVelocity(v.set(kinematics[k + 3], kinematics[k + 4]));
+			b.setAngularVelocity(kinematics[k + 5]);
+			fruitState.write(slotOf(b), kinematics[k], kinematics[k + 1], kinematics[k + 3], kinematics[k + 4]);
+			if (i == dropIndex) dropfruit = b;
+		}
+		this.mergeCount = mergeCount;
+		this.maxType    = maxType;
+	}
+	
 	/**
 	 * ゲームフィールド（床・壁）の生成
 	 */
 	public void init() {
 		createGround();    //床
 		createWall(0.0f);  // 左壁
-		createWall(12.9f); // 右壁
+		createWall(config.getFieldWidth()); // 右壁
+		createDangerZone(); // ゲームオーバーラインより上の危険ゾーン
+		dropPredictor = new DropPredictor(fruitState, config, config.getFieldWidth());
+		chunkGrid     = new ChunkGrid(fruitState, config, GameManager.GAMEOVER_LINE);
+		// 盤面の集計はresetのたびに作り直さずに空に戻し、ヒートマップ表示の公開の設定を引き継ぐ
+		if (analytics == null) analytics = new BoardAnalytics(fruitState, config);
+		else                   analytics.clear();
+		settleDetector = new SettleDetector();
 	}
 	
 	/**
@@ -77,10 +194,11 @@ public class PhysicsWorld {
 	 */
 	private void createGround() {
 		BodyDef def = new BodyDef();
-		def.position.set(6.5f, -0.9f); //フィールド中央下
+		float half = config.getFieldWidth() / 2;
+		def.position.set(half + 0.05f, -0.9f); //フィールド中央下
 		Body body  = world.createBody(def);
 		PolygonShape box = new PolygonShape();
-		box.setAsBox(7.0f, 1.0f); // 幅14, 高さ2
+		box.setAsBox(half + 0.55f, 1.0f); // 幅14（通常のフィールド幅の場合）, 高さ2
 		FixtureDef fDef = new FixtureDef();
 		fDef.shape    = box;
 		fDef.density  = 1.0f;
@@ -90,7 +208,7 @@ public class PhysicsWorld {
 	
 	/**
 	 * 壁を生成
-	 * @param f 壁のX座標（左端0.0f, 右端12.9f）
+	 * @param f 壁のX座標（左端0.0f, 右端はフィールド幅）
 	 */
 	private void createWall(float f) {
 		BodyDef def = new BodyDef();
@@ -102,6 +220,24 @@ public class PhysicsWorld {
 		body.setUserData("wall");   // 衝突判定用ラベル
 	}
 	
+	/**
+	 * ゲームオーバーラインより上を覆うセンサーを生成
+	 * 物理的な衝突はせず、フルーツの出入りだけを通知する
+	 */
+	private void createDangerZone() {
+		BodyDef def = new BodyDef();
+		float half = config.getFieldWidth() / 2;
+		def.position.set(half + 0.05f, GameManager.GAMEOVER_LINE + 10.0f); // ラインから上に高さ20
+		Body body = world.createBody(def);
+		PolygonShape box = new PolygonShape();
+		box.setAsBox(half + 0.55f, 10.0f); // 床と同じ幅
+		FixtureDef fDef = new FixtureDef();
+		fDef.shape    = box;
+		fDef.isSensor = true; // センサー（すり抜ける）
+		body.createFixture(fDef);
+		body.setUserData("danger"); // センサー判定用ラベル
+	}
+	
 	/**
 	 * フルーツの物理Bodyを生成
 	 * @param x X座標
@@ -133,12 +269,12 @@ public class PhysicsWorld {
 	private FixtureDef createFruitFixtureDef(int type) {
 		// 円形シェイプ（半径はフルーツ種別ごとに設定）
 		CircleShape circle = new CircleShape();
-		circle.m_radius = GameManager.TYPES[type].getRadius();
+		circle.m_radius = config.getRadius(type);
 		// フィクスチャ定義（物理特性をセット）
 		FixtureDef fDef  = new FixtureDef();
 		fDef.shape       = circle;               // 円形に
 		fDef.density     =  densityFruits(type); // 質量を一定にするため密度を調整
-		fDef.friction    = 0.3f;                 // 摩擦は低め
+		fDef.friction    = config.getFriction(); // 摩擦は低め
 		fDef.restitution = 0.0f;                 // 弾まない
 		return fDef;
 	}
@@ -148,8 +284,8 @@ public class PhysicsWorld {
 	 * （回転・移動が徐々に止まるようにする）
 	 */
 	private void setFruitDamping(Body body) {
-		body.setAngularDamping(15.0f); // 回転をかなり減衰
-		body.setLinearDamping(1.0f);   // 移動をわずかに減衰
+		body.setAngularDamping(config.getAngularDamping()); // 回転をかなり減衰
+		body.setLinearDamping(config.getLinearDamping());   // 移動をわずかに減衰
 	}
 	
 	/**
@@ -158,7 +294,7 @@ public class PhysicsWorld {
 	 * @return 密度値
 	 */
 	private float densityFruits(int type) {
-		float radius = GameManager.TYPES[type].getRadius();
+		float radius = config.getRadius(type);
 		// 目標質量3.0を一定にするため、密度 = 3 / (π × 半径^2)
 		return (float)(3.0f / (Math.PI * radius * radius));
 	}
@@ -172,6 +308,46 @@ public class PhysicsWorld {
 		return "wall".equals( body.getUserData());
 	}
 	
+	/**
+	 * Bodyが危険ゾーンのセンサーかどうか判定
+	 * @param body 判定対象
+	 * @return true: センサー
+	 */
+	private boolean isDangerZone(Body body) {
+		return "danger".equals(body.getUserData());
+	}
+	
+	/**
+	 * 危険ゾーンに入ったフルーツを進入ステップとともに記録
+	 * @param body 進入したBody
+	 */
+	private void enterDanger(Body body) {
+		if (isWallOrFloor(body) || isDangerZone(body)) return;
+		dangerBodies.remove(body); // 再進入は末尾に付け直す
+		dangerBodies.put(body, fruitState.getStep());
+	}
+	
+	/**
+	 * 危険ゾーンに最も長く留まっているフルーツの滞在ステップ数
+	 * 進入順に保持しているため先頭を見るだけで求まる（落下中のフルーツは除く）
+	 * @return 滞在ステップ数（ゾーン内にフルーツがなければ0）
+	 */
+	public int getDangerDwellSteps() {
+		Iterator<Map.Entry<Body, Integer>> it = dangerBodies.entrySet().iterator();
+		if (!it.hasNext()) return 0;
+		Map.Entry<Body, Integer> oldest = it.next();
+		if (oldest.getKey() == dropfruit) return 0;
+		return fruitState.getStep() - oldest.getValue();
+	}
+	
+	/**
+	 * 危険ゾーン内のフルーツ数
+	 * @return フルーツ数
+	 */
+	public int getDangerCount() {
+		return dangerBodies.size();
+	}
+	
 	/**
 	 * フルーツをワールドに追加
 	 * @param x X座標
@@ -182,7 +358,15 @@ public class PhysicsWorld {
 	public Body spawnFruit(float x, float y, int type) {
 		Body body = createFruitBody(x, y, type);
 		body.setUserData(type); // 種別を記録
+		// 状態ミラーのスロットを確保し、番号をフィクスチャに記録
+		int slot = fruitState.acquire(type, x, y);
+		body.getFixtureList().setUserData(slot);
+		analytics.onSpawn(slot);
+		if (slot >= slotBodies.length) slotBodies = Arrays.copyOf(slotBodies, slotBodies.length * 2);
+		slotBodies[slot] = body;
 		activeFruitBodies.add(body);
+		maxType = Math.max(maxType, type);
+		chunkGrid.thaw(x, slotBodies); // 落ちた先のフルーツが押し退けられるように
 		return body;
 	}
 	
@@ -190,9 +374,47 @@ public class PhysicsWorld {
 	 * 物理演算ワールドを1ステップ進め、合体・消去処理を実行
 	 */
 	public void step() {
+		long start = TraceRecorder.begin();
+		long t     = start;
 		world.step(1.0f / 60.0f, 6, 2); // ステップ実行
+		t = TraceRecorder.lap(TraceRecorder.Span.WORLD_STEP, t);
 		removeBody();                   // 削除予約のBodyを削除
+		t = TraceRecorder.lap(TraceRecorder.Span.REMOVE_BODIES, t);
 		addBody();                      // 合体予定のBodyを生成
+		t = TraceRecorder.lap(TraceRecorder.Span.ADD_BODIES, t);
+		syncFruitState();               // 状態ミラーを更新
+		t = TraceRecorder.lap(TraceRecorder.Span.SYNC_STATE, t);
+		dropPredictor.onStep();         // 動いたフルーツ周辺の着地点予測を無効化
+		t = TraceRecorder.lap(TraceRecorder.Span.DROP_PREDICTOR, t);
+		chunkGrid.onStep(slotBodies, dropfruit); // 静止した区画を凍結
+		t = TraceRecorder.lap(TraceRecorder.Span.CHUNK_GRID, t);
+		analytics.onStep();             // 盤面の集計（数ステップおき）
+		t = TraceRecorder.lap(TraceRecorder.Span.ANALYTICS, t);
+		TraceRecorder.end(TraceRecorder.Span.PHYSICS_STEP, start, t);
+	}
+	
+	/**
+	 * 全フルーツの座標・速度を状態ミラーに書き込む
+	 * 起きている（凍結も眠りもしていない）フルーツは盤面の集計に動いたことを知らせる
+	 */
+	private void syncFruitState() {
+		fruitState.advance();
+		for (Body b : activeFruitBodies) {
+			Vec2 pos  = b.getPosition();
+			Vec2 vel  = b.getLinearVelocity();
+			int  slot = slotOf(b);
+			fruitState.write(slot, pos.x, pos.y, vel.x, vel.y);
+			if (b.isAwake() && b.getType() == BodyType.DYNAMIC) analytics.onMove(slot);
+		}
+	}
+	
+	/**
+	 * Bodyに対応する状態ミラーのスロット番号
+	 * @param body フルーツのBody
+	 * @return スロット番号
+	 */
+	public int slotOf(Body body) {
+		return (int) body.getFixtureList().getUserData();
 	}
 	
 	/**
@@ -203,6 +425,10 @@ public class PhysicsWorld {
 		if (!pendingRemovalBodies.isEmpty()) {
 			for (Body b : pendingRemovalBodies) {
 				activeFruitBodies.remove(b);
+				chunkGrid.thaw(b.getPosition().x, slotBodies); // 周囲のフルーツが動けるように
+				slotBodies[slotOf(b)] = null;
+				analytics.onRemove(slotOf(b));
+				fruitState.release(slotOf(b)); // スロットを再利用可能に
 				world.destroyBody(b);
 			}
 			pendingRemovalBodies.clear();
@@ -228,9 +454,9 @@ public class PhysicsWorld {
 	 * @param b 合体元Body
 	 */
 	private void mergeFruits(int typeA,Body a,Body b) {
-		manager.addScore(GameManager.TYPES[typeA].getScores()); // スコア加算
-		// 既に削除予定なら何もしない
+		// 既に削除予定なら何もしない（同じフルーツの合体を2度数えない）
 		if (pendingRemovalBodies.contains(a) || pendingRemovalBodies.contains(b)) return;
+		manager.onMerge(typeA); // スコア加算（合体が確定したときに1度だけ）
 		// 合体後の位置は2体の中点
 		Vec2 pos = a.getPosition().add(b.getPosition()).mul(0.5f);
 		// 1段階上のフルーツ生成予約
@@ -238,6 +464,7 @@ public class PhysicsWorld {
 		// 元のフルーツは削除予約
 		pendingRemovalBodies.add(a);
 		pendingRemovalBodies.add(b);
+		mergeCount++;
 	}
 	
 	/**
@@ -247,11 +474,12 @@ public class PhysicsWorld {
 	 * @param b 合体元Body
 	 */
 	private void mergeWatermelon(int typeA,Body a,Body b) {
-		manager.addScore(GameManager.TYPES[typeA].getScores());
-		// 既に削除予定なら何もしない
+		// 既に削除予定なら何もしない（同じフルーツの合体を2度数えない）
 		if (pendingRemovalBodies.contains(a) || pendingRemovalBodies.contains(b)) return;
+		manager.onMerge(typeA);
 		pendingRemovalBodies.add(a);
 		pendingRemovalBodies.add(b);
+		mergeCount++;
 	}
 	
 	/**
@@ -261,7 +489,7 @@ public class PhysicsWorld {
 	 */
 	private void Merge(Body a, Body b) {
 		// 両方ともフルーツで、同一でなければ判定
-		if (activeFruitBodies.contains(a) && activeFruitBodies.contains(b) && a != b) {
+		if (config.isMerging() && activeFruitBodies.contains(a) && activeFruitBodies.contains(b) && a != b) {
 			int typeA = (int)a.getUserData();
 			int typeB = (int)b.getUserData();
 			if (typeA == 10 && typeB == 10) { // スイカ同士
@@ -271,26 +499,22 @@ public class PhysicsWorld {
 			}
 		}
 		// サイドパネル再描画
-		manager.getFrame().getSidePanel().repaint();
+		manager.repaintPanels();
 	}
 	
 	/**
-	 * フルーツ生成用のパラメーターを作成
-	 * @param body 物理Body
-	 * @return 生成前フルーツデータ
+	 * 盤面が落ち着いたか（落下中のフルーツが着地し、全フルーツがほぼ止まったか）
+	 * 早送り中に物理ステップごとに呼ぶ（判定の詳細はSettleDetector）
+	 * @return 落ち着いていればtrue
 	 */
-	public FruitBlueprint RenderData(Body body) {
-		Vec2  pos    = body.getPosition();
-		int   type   = (int)body.getUserData();
-		float height = manager.getFrame().getGamePanel().getHeight();
-		// 物理ワールド座標→画面座標に変換
-		int x = (int) (pos.x);
-		int y = (int) (height - pos.y);
-		return new FruitBlueprint(x,y,type);
+	public boolean isSettled() {
+		return settleDetector.check(activeFruitBodies, dropfruit != null, mergeCount);
 	}
 	
 	/** 衝突監視用Bodyをクリア */
 	public void clearDrop() {
+		// 着地した時点から危険ゾーンの滞在時間を数え直す
+		if (dropfruit != null && dangerBodies.containsKey(dropfruit)) enterDanger(dropfruit);
 		this.dropfruit = null;
 	}
 	
@@ -301,10 +525,42 @@ public class PhysicsWorld {
 	public List<Body> getActiveFruitBodies() {
 		return activeFruitBodies;
 	}
+	public World getWorld() {
+		return world;
+	}
+	public FruitStateBuffer getFruitState() {
+		return fruitState;
+	}
+	public ChunkGrid getChunkGrid() {
+		return chunkGrid;
+	}
+	public BoardAnalytics getAnalytics() {
+		return analytics;
+	}
+	public SettleDetector getSettleDetector() {
+		return settleDetector;
+	}
+	public DropPredictor getDropPredictor() {
+		return dropPredictor;
+	}
+	public GameConfig getConfig() {
+		return config;
+	}
+	public int getMergeCount() {
+		return mergeCount;
+	}
+	public int getMaxType() {
+		return maxType;
+	}
+	/** 状態ミラーのスロット番号に対応するBody（使われていないスロットはnull） */
+	public Body getBody(int slot) {
+		return slot < slotBodies.length ? slotBodies[slot] : null;
+	}
 	public Body getDrop() {
 		return dropfruit;
 	}
 	public void setDrop(Body b) {
 		this.dropfruit = b;
+		if (b != null) analytics.onDrop(); // 落ち着くまでの時間の計測を開始
 	}
 }
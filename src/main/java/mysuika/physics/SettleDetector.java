@@ -0,0 +1,119 @@
+package mysuika.physics;
+
+import java.util.List;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.BodyType;
+
+/**
+ * SettleDetector クラス
+ *
+ * 盤面が落ち着いた（全フルーツがほぼ止まった）かを判定し、フルーツを落としてから
+ * 落ち着くまでのステップ数を集計します（画面なしでの早送り用）。
+ *
+ * 次のどちらかを満たしたとき、落ち着いたとみなします。
+ * - 全フルーツのBodyがJBox2Dのスリープ状態
+ * - 起きているフルーツそれぞれの質量あたりの運動エネルギー（並進＋回転）が SETTLE_ENERGY 未満の状態が、
+ *   QUIET_STEPS ステップ続いた
+ * JBox2Dのスリープは約0.5秒止まったままでないと入らないため、多くの場合は運動エネルギーの条件で先に判定できます。
+ * 落下中のフルーツが着地するまでは、止まっていても落ち着いたとはみなしません。
+ * 合体が起きた場合やフルーツが増減した場合も、その後 QUIET_STEPS ステップは落ち着いたとはみなしません。
+ * ChunkGridが凍結した（静的にした）フルーツは質量が0で動かないため、判定に含めません。
+ *
+ * 判定は呼び出したステップの状態で行うため、連続したステップで毎回呼びます。
+ * ゲームループのスレッドから使います。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class SettleDetector {
+	public  static final float SETTLE_ENERGY = 0.05f; // 質量あたりの運動エネルギーの上限（m²/s²、約0.3m/sの並進に相当）
+	public  static final int   QUIET_STEPS   = 3;     // 運動エネルギーの条件が続く必要のあるステップ数
+
+	private int    quiet;      // 運動エネルギーの条件が続いているステップ数
+	private int    lastCount;  // 直前の判定でのフルーツの数
+	private int    lastMerges; // 直前の判定での合体の回数
+	private float  energy;     // 直前の判定での全フルーツの運動エネルギーの合計（J）
+	private int    awake;      // 直前の判定での起きているフルーツの数
+	private int    drops;      // 集計した落下の数
+	private long   stepSum;    // 落ち着くまでのステップ数の合計
+	private int    stepMax;    // 落ち着くまでのステップ数の最大
+	private int    lastSteps;  // 直前の落下の落ち着くまでのステップ数
+	private int    capped;     // 上限までに落ち着かなかった落下の数
+
+	/**
+	 * 現在の状態で落ち着いたかを判定する（物理ステップ後に毎回呼ぶ）
+	 * @param fruits 物理ワールド内の全フルーツ
+	 * @param dropping 落下中のフルーツが着地していないか
+	 * @param merges これまでの合体の回数（増えたステップは数え直す）
+	 * @return 落ち着いていればtrue
+	 */
+	public boolean check(List<Body> fruits, boolean dropping, int merges) {
+		boolean calm = true;
+		energy = 0.0f;
+		awake  = 0;
+		for (Body b : fruits) {
+			if (!b.isAwake() || b.getType() != BodyType.DYNAMIC) continue; // 凍結したフルーツは質量0（エネルギーがNaNになる）
+			awake++;
+			Vec2  v = b.getLinearVelocity();
+			float w = b.getAngularVelocity();
+			float m = b.getMass();
+			float e = 0.5f * (v.x * v.x + v.y * v.y) + 0.5f * b.getInertia() / m * w * w; // 質量あたり
+			energy += e * m;
+			if (e >= SETTLE_ENERGY) calm = false;
+		}
+		// 合体やフルーツの増減があったステップは数え直す（生成直後のフルーツは速度0のため、まだ止まったとはいえない）
+		// 数だけでは、合体と同じステップにお邪魔フルーツなどが現れて数が変わらない場合を見逃すため、合体の回数も比べる
+		boolean changed = fruits.size() != lastCount || merges != lastMerges;
+		quiet      = calm && !dropping && !changed ? quiet + 1 : 0;
+		lastCount  = fruits.size();
+		lastMerges = merges;
+		return !dropping && (awake == 0 || quiet >= QUIET_STEPS);
+	}
+
+	/**
+	 * 1回の落下の落ち着くまでのステップ数を記録する
+	 * @param steps 落としてから落ち着くまで（または打ち切るまで）のステップ数
+	 * @param settled 落ち着いたか（falseなら上限で打ち切った）
+	 */
+	public void record(int steps, boolean settled) {
+		lastSteps = steps;
+		if (!settled) {
+			capped++;
+			return;
+		}
+		drops++;
+		stepSum += steps;
+		stepMax  = Math.max(stepMax, steps);
+	}
+
+	// 以下、ゲッター
+	/** 直前の判定での全フルーツの運動エネルギーの合計（J） */
+	public float getEnergy() {
+		return energy;
+	}
+	/** 直前の判定での起きているフルーツの数 */
+	public int getAwake() {
+		return awake;
+	}
+	/** 落ち着いた落下の数 */
+	public int getSettledDrops() {
+		return drops;
+	}
+	/** 上限までに落ち着かなかった落下の数 */
+	public int getCappedDrops() {
+		return capped;
+	}
+	/** 落ち着くまでのステップ数の平均（落ち着いた落下のみ） */
+	public double getAverageSteps() {
+		return drops == 0 ? 0.0 : stepSum / (double) drops;
+	}
+	public int getMaxSteps() {
+		return stepMax;
+	}
+	/** 直前の落下の落ち着くまでのステップ数 */
+	public int getLastSteps() {
+		return lastSteps;
+	}
+}
@@ -0,0 +1,58 @@
+package mysuika.tools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import mysuika.model.GameConfig;
+import mysuika.physics.BoardAnalytics;
+
+/**
+ * BoardReport クラス
+ *
+ * 画面なしで乱数の種を変えた複数ゲームを進め、盤面の集計（BoardAnalytics）を
+ * ゲームごとのCSV（board-<種>.csv）に書き出すツールです。
+ * 最後に、全ゲームを通した落ち着くまでの平均ステップ数と、最も高くなった列の高さを表示します。
+ *
+ * 使い方:
+ *   java mysuika.tools.BoardReport [ゲーム数=8] [書き出し先=board] [最初の乱数の種=1] [標本の間隔=10]
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class BoardReport {
+	private static final int MAX_DROPS = 400;    // 1ゲームの落下回数の上限
+	private static final int MAX_STEPS = 60_000; // 1ゲームの物理ステップ数の上限
+
+	public static void main(String[] args) throws IOException {
+		int  games    = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		Path output   = Paths.get(args.length > 1 ? args[1] : "board");
+		long seed     = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+		int  interval = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+		Files.createDirectories(output);
+
+		int    settled = 0, unsettled = 0, maxSettle = 0;
+		double settleSum = 0.0;
+		float  highest = 0.0f;
+		for (int i = 0; i < games; i++) {
+			HeadlessGame        game     = new HeadlessGame(new GameConfig().setAnalyticsInterval(interval), seed + i);
+			HeadlessGame.Result result   = game.play(MAX_DROPS, MAX_STEPS);
+			BoardAnalytics      board    = game.getPhysics().getAnalytics();
+			Path                csv      = output.resolve("board-" + (seed + i) + ".csv");
+			board.export(csv);
+			float top = 0.0f;
+			for (int c = 0; c < board.getCols(); c++) top = Math.max(top, board.getColumnHeight(c));
+			System.out.printf("seed=%d score=%d steps=%d samples=%d settle avg=%.1f max=%d unsettled=%d top=%.1fm -> %s%n",
+					seed + i, result.getScore(), result.getSteps(), board.getSamples(), board.getAverageSettleSteps(),
+					board.getMaxSettleSteps(), board.getUnsettledDrops(), top, csv);
+			settled   += board.getSettledDrops();
+			unsettled += board.getUnsettledDrops();
+			settleSum += board.getAverageSettleSteps() * board.getSettledDrops();
+			maxSettle  = Math.max(maxSettle, board.getMaxSettleSteps());
+			highest    = Math.max(highest, top);
+		}
+		System.out.printf("total: settled=%d unsettled=%d settle avg=%.1f max=%d steps, highest column=%.1fm%n",
+				settled, unsettled, settled == 0 ? 0.0 : settleSum / settled, maxSettle, highest);
+	}
+}
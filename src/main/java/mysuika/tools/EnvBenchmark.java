@@ -0,0 +1,108 @@
+package mysuika.tools;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+import com.sun.management.ThreadMXBean;
+
+import mysuika.env.SuikaEnv;
+import mysuika.env.VectorEnv;
+
+/**
+ * EnvBenchmark クラス
+ *
+ * 強化学習用の環境（VectorEnv）の速度を測るベンチマークです（画面なしで実行）。
+ * 一様な乱数の行動で全環境を進め、準備運転のあとの一定時間について次の値を表示します。
+ * - 1秒あたりの行動数（全環境の合計のenv-step/s。これが指標）と、1行動あたりの物理ステップ数の平均
+ * - 1行動あたりのメモリ確保量（ThreadMXBeanで全スレッドの確保量を合計して求める）
+ * - 終了したゲーム数と、1ゲームあたりの平均スコア
+ *
+ * 使い方:
+ *   java mysuika.tools.EnvBenchmark [環境数=64] [スレッド数=CPU数] [計測秒数=10]
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class EnvBenchmark {
+	private static final int  WARMUP_SECONDS = 3;  // 計測前に進める秒数
+	private static final long SEED           = 1L; // 乱数の種
+
+	public static void main(String[] args) {
+		int envs    = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+		float[]          obs     = new float[envs * SuikaEnv.OBS_SIZE];
+		float[]          actions = new float[envs];
+		float[]          rewards = new float[envs];
+		boolean[]        dones   = new boolean[envs];
+		SplittableRandom random  = new SplittableRandom(SEED);
+		try (VectorEnv vec = new VectorEnv(envs, threads)) {
+			System.out.printf("envs=%d threads=%d obs=%d floats%n", envs, vec.getThreads(), SuikaEnv.OBS_SIZE);
+			vec.reset(SEED, obs);
+			run(vec, actions, obs, rewards, dones, random, WARMUP_SECONDS * 1_000_000_000L);
+
+			Run run = run(vec, actions, obs, rewards, dones, random, seconds * 1_000_000_000L);
+			System.out.printf("actions/s=%.0f physics steps/action=%.1f episodes=%d score/episode=%.0f%n",
+					run.actions / run.seconds, run.physicsSteps / (double) run.actions, run.episodes,
+					run.episodes == 0 ? 0.0 : run.score / run.episodes);
+			System.out.printf("allocated/action=%d B (%.0f B/physics step)%n",
+					run.allocated / run.actions, run.allocated / (double) run.physicsSteps);
+		}
+	}
+
+	/**
+	 * 指定時間のあいだ乱数の行動で全環境を進める
+	 * @return 進めた行動数・物理ステップ数・終了したゲーム数など
+	 */
+	private static Run run(VectorEnv vec, float[] actions, float[] obs, float[] rewards, boolean[] dones,
+			SplittableRandom random, long nanos) {
+		Run  run   = new Run();
+		long bytes = allocatedBytes();
+		long start = System.nanoTime();
+		long end   = start + nanos;
+		double[] score = new double[actions.length]; // 環境ごとの今のゲームの報酬の合計
+		while (System.nanoTime() < end) {
+			for (int i = 0; i < actions.length; i++) actions[i] = (float) random.nextDouble();
+			vec.step(actions, obs, rewards, dones);
+			run.actions += actions.length;
+			for (int i = 0; i < actions.length; i++) {
+				run.physicsSteps += vec.getEnv(i).getLastActionSteps();
+				score[i] += rewards[i];
+				if (dones[i]) {
+					run.episodes++;
+					run.score += score[i]; // 計測の途中から始まったゲームは、計測前の分を含まない
+					score[i]   = 0;
+				}
+			}
+		}
+		run.seconds   = (System.nanoTime() - start) / 1e9;
+		run.allocated = allocatedBytes() - bytes;
+		return run;
+	}
+
+	/**
+	 * 生きている全スレッド（呼び出し元とVectorEnvのワーカー）がこれまでに確保したメモリの合計
+	 * @return バイト数（計測できないスレッドは含まない）
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean mx    = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long         total = 0;
+		for (long bytes : mx.getThreadAllocatedBytes(mx.getAllThreadIds())) {
+			if (bytes > 0) total += bytes;
+		}
+		return total;
+	}
+
+	/**
+	 * 計測結果
+	 */
+	private static class Run {
+		long   actions;       // 行動数
+		long   physicsSteps;  // 物理ステップ数
+		int    episodes;      // 終了したゲーム数
+		double score;         // 終了したゲームのスコアの合計
+		double seconds;       // 経過秒数
+		long   allocated;     // 確保したメモリのバイト数（全スレッドの合計）
+	}
+}
@@ -0,0 +1,97 @@
+package mysuika.tools;
+
+import java.util.List;
+
+import org.jbox2d.dynamics.Body;
+
+import mysuika.logic.GameManager;
+import mysuika.model.GameConfig;
+import mysuika.physics.PhysicsWorld;
+import mysuika.physics.SettleDetector;
+
+/**
+ * FastForwardBenchmark クラス
+ *
+ * 落下ごとに盤面が落ち着くのを待って進める画面なしのゲームについて、
+ * 待ち方ごとの1ゲームの時間を比べるベンチマークです（同じ種・同じ落下位置の抽選）。
+ * - sleep       : 1ステップずつtickし、全フルーツがJBox2Dのスリープに入るまで待つ
+ * - tick        : 1ステップずつtickし、SettleDetectorで落ち着いたと判定するまで待つ
+ * - fastforward : GameManager.fastForwardで、落ち着くまで物理演算だけを続けて進める
+ * 方法ごとに、1ゲームの平均時間（ミリ秒）・1落下あたりの物理ステップ数・1ステップの時間・平均スコアと、
+ * fastforwardの落ち着くまでのステップ数（平均・最大・上限で打ち切った数）を表示します。
+ *
+ * 使い方:
+ *   java mysuika.tools.FastForwardBenchmark [ゲーム数=5] [落下回数の上限=200]
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class FastForwardBenchmark {
+	private static final int MAX_STEPS = 200_000; // 1ゲームの物理ステップ数の上限
+	private static final int WARMUP    = 2;       // 計測前に捨てるゲーム数（方法ごと）
+
+	public static void main(String[] args) {
+		int games    = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		int maxDrops = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+		System.out.printf("games=%d maxDrops=%d settleLimit=%d%n", games, maxDrops, HeadlessGame.SETTLE_LIMIT);
+		System.out.println("mode,ms_per_game,steps_per_drop,us_per_step,avg_score");
+		double baseline = 0;
+		for (String mode : new String[] { "sleep", "tick", "fastforward" }) {
+			for (int g = 0; g < WARMUP; g++) play(mode, 1000 + g, maxDrops);
+			long   nanos = 0, steps = 0, drops = 0, score = 0;
+			for (int g = 0; g < games; g++) {
+				long start = System.nanoTime();
+				HeadlessGame game = play(mode, g + 1, maxDrops);
+				nanos += System.nanoTime() - start;
+				steps += game.getPhysics().getFruitState().getStep();
+				drops += game.getManager().getDropCount();
+				score += game.getManager().getScore();
+				if (mode.equals("fastforward") && g == games - 1) report(game.getPhysics().getSettleDetector());
+			}
+			double ms = nanos / 1e6 / games;
+			if (baseline == 0) baseline = ms;
+			System.out.printf("%s,%.1f,%.1f,%.2f,%d (x%.1f)%n", mode, ms, steps / (double) drops,
+					nanos / 1e3 / steps, score / games, baseline / ms);
+		}
+	}
+
+	/**
+	 * 1ゲームを進める
+	 * @param mode 落ち着くのを待つ方法
+	 */
+	private static HeadlessGame play(String mode, long seed, int maxDrops) {
+		HeadlessGame game = new HeadlessGame(new GameConfig().setAnalyticsInterval(0), seed);
+		if (mode.equals("fastforward")) {
+			game.setFastForward(true).play(maxDrops, MAX_STEPS);
+			return game;
+		}
+		GameManager  manager = game.getManager();
+		PhysicsWorld physics = game.getPhysics();
+		boolean      sleep   = mode.equals("sleep");
+		int          steps   = 0;
+		while (!manager.siGameOver() && steps < MAX_STEPS && manager.getDropCount() < maxDrops) {
+			manager.dropFruitAt(game.randomDropX()); // fastforwardと同じ落下位置の抽選
+			int waited = 0;
+			do {
+				manager.tick();
+				steps++;
+				waited++;
+			} while (!manager.siGameOver() && waited < HeadlessGame.SETTLE_LIMIT && steps < MAX_STEPS
+					&& !(sleep ? !manager.isDropping() && allAsleep(physics.getActiveFruitBodies()) : physics.isSettled()));
+		}
+		return game;
+	}
+
+	/** 全フルーツがスリープに入っているか */
+	private static boolean allAsleep(List<Body> fruits) {
+		for (Body b : fruits) if (b.isAwake()) return false;
+		return true;
+	}
+
+	/** fastforwardの落ち着くまでのステップ数を表示する */
+	private static void report(SettleDetector settle) {
+		System.out.printf("# fastforward settle steps per drop: avg=%.1f max=%d capped=%d (last game)%n",
+				settle.getAverageSteps(), settle.getMaxSteps(), settle.getCappedDrops());
+	}
+}
@@ -0,0 +1,165 @@
+package mysuika.tools;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+import mysuika.logic.GameManager;
+import mysuika.model.GameConfig;
+import mysuika.physics.PhysicsWorld;
+
+/**
+ * HeadlessGame クラス
+ * 
+ * 画面を使わずに1ゲームを最後まで自動で進めるクラスです。
+ * 前のフルーツが着地したらすぐ次のフルーツをランダムな位置に落とし、
+ * ゲームオーバーか上限に達するまで物理演算を回します。
+ * 乱数の種が同じなら同じ展開になります。
+ * 
+ * 早送りを有効にすると、各フルーツを落としたあと盤面が落ち着くまで物理演算だけを続けて進め
+ * （GameManager.fastForward）、落ち着いてから次のフルーツを落とします。
+ * 着地直後に次を落とす通常の進め方とは展開が変わるため、同じ種でも結果は一致しません。
+ * 
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class HeadlessGame {
+	public  static final float WALL_HALF = 0.1f; // 壁の厚みの半分（壁の内側までの距離、m単位）
+	public  static final int   SETTLE_LIMIT = 600; // 早送りで1回の落下に進める物理ステップ数の上限の既定値（10秒相当）
+	
+	private final GameConfig   config;
+	private final PhysicsWorld physics;
+	private final GameManager  manager;
+	private Random             policy; // 落下位置の抽選用乱数
+	private boolean            fastForward; // 落下ごとに落ち着くまで早送りするか
+	private int                settleLimit = SETTLE_LIMIT; // 早送りで1回の落下に進める物理ステップ数の上限
+	
+	/**
+	 * コンストラクタ
+	 * @param config 調整値
+	 * @param seed 乱数の種（フルーツ型と落下位置の両方に使う）
+	 */
+	public HeadlessGame(GameConfig config, long seed) {
+		this.config  = config;
+		this.physics = new PhysicsWorld(config);
+		this.manager = new GameManager(physics, seed);
+		this.policy  = new Random(~seed);
+	}
+	
+	/**
+	 * 同じ物理ワールド・管理クラスのまま新しいゲームを始める（長時間の連続実行用）
+	 * 同じ種なら、その種で新しく作った場合と同じ展開になる
+	 * @param seed 乱数の種（フルーツ型と落下位置の両方に使う）
+	 */
+	public void reset(long seed) {
+		manager.reset(seed);
+		this.policy = new Random(~seed);
+	}
+	
+	/**
+	 * ゲームを最後まで進める
+	 * @param maxDrops 落下回数の上限
+	 * @param maxSteps 物理ステップ数の上限
+	 * @return 結果
+	 */
+	public Result play(int maxDrops, int maxSteps) {
+		return play(maxDrops, maxSteps, null);
+	}
+	
+	/**
+	 * ゲームを最後まで進め、1ステップごとに指定の処理を呼ぶ（リプレイの画像書き出しなど）
+	 * 早送りが有効な場合は、指定の処理は1回の早送りごとに呼ぶ
+	 * @param maxDrops 落下回数の上限
+	 * @param maxSteps 物理ステップ数の上限
+	 * @param afterStep 各ステップ後の処理（nullなら何もしない）
+	 * @return 結果
+	 */
+	public Result play(int maxDrops, int maxSteps, Consumer<GameManager> afterStep) {
+		int steps = 0;
+		while (!manager.siGameOver() && steps < maxSteps) {
+			if (!manager.isDropping()) {
+				if (manager.getDropCount() >= maxDrops) break;
+				manager.dropFruitAt(randomDropX());
+			}
+			if (fastForward) {
+				steps += manager.fastForward(Math.min(settleLimit, maxSteps - steps));
+			} else {
+				manager.tick();
+				steps++;
+			}
+			if (afterStep != null) afterStep.accept(manager);
+		}
+		return new Result(manager.getScore(), steps, manager.getDropCount(),
+				physics.getMergeCount(), physics.getMaxType(), manager.siGameOver());
+	}
+	
+	/**
+	 * 壁にめり込まない範囲でランダムな落下位置を選ぶ
+	 * @return X座標（m単位）
+	 */
+	public float randomDropX() {
+		float r     = config.getRadius(manager.getConst());
+		float inner = config.getFieldWidth() - 2 * WALL_HALF; // 壁の内側の幅
+		return WALL_HALF + r + policy.nextFloat() * (inner - 2 * r);
+	}
+	
+	/**
+	 * 落下ごとに盤面が落ち着くまで早送りするかを設定する
+	 * @param fastForward 早送りするか
+	 * @return このゲーム
+	 */
+	public HeadlessGame setFastForward(boolean fastForward) {
+		this.fastForward = fastForward;
+		return this;
+	}
+	/**
+	 * 早送りで1回の落下に進める物理ステップ数の上限を設定する
+	 * @param settleLimit 上限（ステップ数）
+	 * @return このゲーム
+	 */
+	public HeadlessGame setSettleLimit(int settleLimit) {
+		this.settleLimit = settleLimit;
+		return this;
+	}
+	public GameManager getManager() {
+		return manager;
+	}
+	public PhysicsWorld getPhysics() {
+		return physics;
+	}
+	
+	/**
+	 * 1ゲーム分の結果
+	 */
+	public static class Result {
+		private final int     score, steps, drops, merges, maxType;
+		private final boolean gameOver;
+		
+		public Result(int score, int steps, int drops, int merges, int maxType, boolean gameOver) {
+			this.score    = score;
+			this.steps    = steps;
+			this.drops    = drops;
+			this.merges   = merges;
+			this.maxType  = maxType;
+			this.gameOver = gameOver;
+		}
+		// 以下、ゲッター
+		public int getScore() {
+			return score;
+		}
+		public int getSteps() {
+			return steps;
+		}
+		public int getDrops() {
+			return drops;
+		}
+		public int getMerges() {
+			return merges;
+		}
+		public int getMaxType() {
+			return maxType;
+		}
+		public boolean isGameOver() {
+			return gameOver;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package mysuika.tools;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import mysuika.logic.GameManager;
+import mysuika.model.GameConfig;
+import mysuika.physics.PhysicsWorld;
+
+/**
+ * MegaBoardBenchmark クラス
+ *
+ * メガボード（横長フィールド）でフルーツ数と物理ステップ時間の関係を計測するベンチマークです。
+ * 合体を止めた状態でフルーツを少しずつ追加しながら、一定数ごとに物理演算を回して
+ * 1ステップの平均・99パーセンタイル・最大時間と、凍結中の区画数を表示します。
+ * 目標はフルーツ5,000個で1ステップ16ms未満です。
+ * 幅10倍では5,000個がゲームオーバーラインを超えて積み上がる（危険ゾーンの区画は凍結しない）ため、
+ * 既定では幅20倍で計測します。
+ *
+ * 使い方:
+ *   java mysuika.tools.MegaBoardBenchmark [幅の倍率=20] [最大フルーツ数=5000] [刻み=500]
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class MegaBoardBenchmark {
+	private static final int   SETTLE_STEPS  = 180;   // 追加後に積み上がりを落ち着かせるステップ数
+	private static final int   MEASURE_STEPS = 120;   // 計測するステップ数
+	private static final float SPAWN_Y       = 16.0f; // 追加するフルーツの最低の高さ（m単位）
+	private static final int   SPAWN_TYPES   = 3;     // 追加するフルーツの種類（小さい方から）
+
+	public static void main(String[] args) {
+		int scale = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		int max   = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+		int step  = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+		GameConfig config = new GameConfig();
+		config.megaBoard(scale);
+		config.setMerging(false); // フルーツ数を保つため合体させない
+		PhysicsWorld physics = new PhysicsWorld(config);
+		new GameManager(physics, 1L); // 衝突処理のために管理クラスを接続（画面なし）
+		Random random = new Random(42);
+
+		System.out.printf("field %.1fm (%d chunks)%n", config.getFieldWidth(), physics.getChunkGrid().getChunks());
+		System.out.println("bodies,avg_ms,p99_ms,max_ms,frozen_chunks");
+		for (int target = step; target <= max; target += step) {
+			// 目標数に達するまで、横一列ずつフルーツを追加して落とす
+			while (physics.getFruitState().getLiveCount() < target) {
+				spawnRow(physics, config, random, target - physics.getFruitState().getLiveCount());
+				for (int i = 0; i < 20; i++) physics.step();
+			}
+			for (int i = 0; i < SETTLE_STEPS; i++) physics.step();
+			long[] nanos = new long[MEASURE_STEPS];
+			for (int i = 0; i < MEASURE_STEPS; i++) {
+				long start = System.nanoTime();
+				physics.step();
+				nanos[i] = System.nanoTime() - start;
+			}
+			Arrays.sort(nanos);
+			System.out.printf("%d,%.2f,%.2f,%.2f,%d%n",
+					physics.getFruitState().getLiveCount(),
+					Arrays.stream(nanos).average().orElse(0) / 1e6,
+					nanos[(int)(MEASURE_STEPS * 0.99)] / 1e6,
+					nanos[MEASURE_STEPS - 1] / 1e6,
+					physics.getChunkGrid().getFrozenChunks());
+		}
+	}
+
+	/**
+	 * フィールドの上部に横一列のフルーツを追加する
+	 * @param limit 追加する最大数
+	 */
+	private static void spawnRow(PhysicsWorld physics, GameConfig config, Random random, int limit) {
+		float x = 0.5f;
+		float y = Math.max(SPAWN_Y, topOf(physics) + 1.0f); // 積み上がったフルーツより上に出す
+		for (int n = 0; n < limit; n++) {
+			int   type = random.nextInt(SPAWN_TYPES);
+			float r    = config.getRadius(type);
+			if (x + r > config.getFieldWidth() - 0.2f) break;
+			physics.spawnFruit(x + r, y, type);
+			x += 2 * r + 0.05f;
+		}
+	}
+
+	/** 最も高い位置にあるフルーツの中心のY座標 */
+	private static float topOf(PhysicsWorld physics) {
+		float top = 0;
+		for (int s = 0; s < physics.getFruitState().getHighWater(); s++) {
+			if (physics.getFruitState().isLive(s)) top = Math.max(top, physics.getFruitState().getY(s));
+		}
+		return top;
+	}
+}
@@ -0,0 +1,133 @@
+package mysuika.tools;
+
+import java.util.Random;
+
+import mysuika.logic.GameManager;
+import mysuika.model.GameConfig;
+import mysuika.physics.FruitStateBuffer;
+import mysuika.physics.ParallelIslandWorld;
+import mysuika.physics.PhysicsWorld;
+
+/**
+ * ParallelIslandBenchmark クラス
+ *
+ * 接触の島を並列に解く物理ステップ（ParallelIslandWorld）と、通常のworld.stepを比較するベンチマークです。
+ * メガボードに互いに離れたフルーツの山をいくつか作り（山の数がおおよそ島の数になります）、
+ * 山の数ごとに同じ状態から3通りの方法で物理演算を進めて、1ステップの平均時間と
+ * 通常のworld.stepとのフルーツ位置の最大の差を表示します。
+ *
+ * 使い方:
+ *   java mysuika.tools.ParallelIslandBenchmark [フルーツ数=2000] [スレッド数=CPU数]
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class ParallelIslandBenchmark {
+	private static final int[] PILES         = { 1, 2, 4, 8, 16, 32 }; // 山の数
+	private static final int   BOARD_SCALE   = 40;   // フィールドの幅の倍率（山どうしが崩れて接しない広さ）
+	private static final int   WARMUP_STEPS  = 60;   // 計測前に進めるステップ数
+	private static final int   MEASURE_STEPS = 120;  // 計測するステップ数
+	private static final int   SPAWN_TYPES   = 3;    // 追加するフルーツの種類（小さい方から）
+
+	public static void main(String[] args) {
+		int fruits  = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		// 共通のフォーク・ジョイン・プールのスレッド数（プールを使い始める前に設定する）
+		System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", String.valueOf(threads));
+
+		System.out.printf("fruits=%d threads=%d%n", fruits, threads);
+		System.out.println("piles,islands,serial_ms,parallel_ms,deterministic_ms,speedup,max_diff");
+		for (int piles : PILES) {
+			Run serial        = run(fruits, piles, false, false);
+			Run parallel      = run(fruits, piles, true, false);
+			Run deterministic = run(fruits, piles, true, true);
+			System.out.printf("%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2e%n",
+					piles, parallel.islands, serial.ms, parallel.ms, deterministic.ms,
+					serial.ms / parallel.ms,
+					Math.max(serial.diff(parallel), serial.diff(deterministic)));
+		}
+	}
+
+	/**
+	 * 山を作って物理演算を進め、1ステップの時間を計測する
+	 * @param parallel 島を並列に解くか
+	 * @param deterministic 島とスレッドの割り当てを固定するか
+	 */
+	private static Run run(int fruits, int piles, boolean parallel, boolean deterministic) {
+		GameConfig config = new GameConfig().megaBoard(BOARD_SCALE);
+		config.setMerging(false);   // フルーツ数を保つため合体させない
+		config.setChunked(false);   // 区画の凍結を止め、すべての山を動かしたまま比べる
+		config.setParallelIslands(parallel).setDeterministic(deterministic);
+		PhysicsWorld physics = new PhysicsWorld(config);
+		new GameManager(physics, 1L); // 衝突処理のために管理クラスを接続（画面なし）
+		physics.getWorld().setAllowSleep(false); // 静止した山も島として解き続ける
+		spawnPiles(physics, config, fruits, piles);
+
+		for (int i = 0; i < WARMUP_STEPS; i++) physics.step();
+		long   total   = 0;
+		double islands = 0;
+		for (int i = 0; i < MEASURE_STEPS; i++) {
+			long start = System.nanoTime();
+			physics.step();
+			total += System.nanoTime() - start;
+			if (physics.getWorld() instanceof ParallelIslandWorld) {
+				islands += ((ParallelIslandWorld) physics.getWorld()).getIslandCount();
+			}
+		}
+		return new Run(total / 1e6 / MEASURE_STEPS, islands / MEASURE_STEPS, physics.getFruitState());
+	}
+
+	/**
+	 * フィールドに等間隔で山を作る（各山は横に並べたフルーツを積み重ねる）
+	 */
+	private static void spawnPiles(PhysicsWorld physics, GameConfig config, int fruits, int piles) {
+		Random random  = new Random(42);
+		float  spacing = config.getFieldWidth() / piles;
+		for (int p = 0; p < piles; p++) {
+			int   count = fruits / piles + (p < fruits % piles ? 1 : 0);
+			float width = (float) Math.min(1.5 * Math.sqrt(count), spacing / 2); // 高さが幅の1/3程度になる幅
+			float left  = spacing * (p + 0.5f) - width / 2;
+			float x     = left, y = 1.0f;
+			for (int n = 0; n < count; n++) {
+				int   type = random.nextInt(SPAWN_TYPES);
+				float r    = config.getRadius(type);
+				if (x + 2 * r > left + width) { // 次の段へ
+					x  = left;
+					y += 1.05f;
+				}
+				physics.spawnFruit(x + r, y, type);
+				x += 2 * r + 0.05f;
+			}
+		}
+	}
+
+	/**
+	 * 1回分の計測結果
+	 */
+	private static class Run {
+		final double ms;       // 1ステップの平均時間
+		final double islands;  // 1ステップあたりの島の数（通常のworld.stepでは0）
+		final float[] x, y;    // 計測後のスロットごとの位置
+
+		Run(double ms, double islands, FruitStateBuffer state) {
+			this.ms      = ms;
+			this.islands = islands;
+			this.x       = new float[state.getHighWater()];
+			this.y       = new float[state.getHighWater()];
+			for (int s = 0; s < x.length; s++) {
+				x[s] = state.getX(s);
+				y[s] = state.getY(s);
+			}
+		}
+
+		/** もう一方の結果とのフルーツ位置の最大の差（m単位） */
+		double diff(Run other) {
+			if (x.length != other.x.length) return Double.NaN;
+			double max = 0;
+			for (int s = 0; s < x.length; s++) {
+				max = Math.max(max, Math.hypot(x[s] - other.x[s], y[s] - other.y[s]));
+			}
+			return max;
+		}
+	}
+}
@@ -0,0 +1,266 @@
+package mysuika.tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import mysuika.model.GameConfig;
+import mysuika.model.SpawnMode;
+
+/**
+ * ParameterSweep クラス
+ *
+ * ゲームバランス調整用のパラメータ探索ツールです（画面なしで実行）。
+ * 重力・減衰・摩擦・出現するフルーツの種類数・半径とスコアの倍率について、
+ * 格子状（grid）またはランダム抽出（random）で設定を作り、
+ * 設定ごとに乱数の種を変えた複数ゲームを全コアで並列に実行します。
+ * 設定ごとの集計（平均スコア・ゲームの長さ・到達した最大フルーツ・1回の落下あたりの合体数）は
+ * 完了した順にCSVへ書き出すため、途中で止めてもそこまでの結果が残ります。
+ * 例外で終わったゲームは失敗数（failed_games）として数え、平均は完走したゲームだけで求めます。
+ *
+ * 使い方:
+ *   java mysuika.tools.ParameterSweep --mode grid --games 32 --out sweep.csv
+ *   java mysuika.tools.ParameterSweep --mode random --samples 5000 --games 16 --seed 7
+ *   java mysuika.tools.ParameterSweep --mode grid --spawn bag   （次のフルーツの決め方: uniform / bag）
+ *
+ * 各ゲームは自分の乱数（SplittableRandom）を持つため、並列に実行しても乱数の取り合いは起きません。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class ParameterSweep {
+	private static final int MAX_DROPS = 400;    // 1ゲームの落下回数の上限
+	private static final int MAX_STEPS = 60_000; // 1ゲームの物理ステップ数の上限（約17分）
+	private static final String DONE  = "";      // 書き込みスレッドへの終了通知
+
+	/** 探索する調整値の軸（名前・格子の値・ランダム抽出の範囲・設定への反映方法） */
+	private static final Axis[] AXES = {
+		new Axis("gravity",         new float[] {-100f, -150f, -200f}, -250f, -80f, (c, v) -> c.setGravity(v)),
+		new Axis("linear_damping",  new float[] {0.5f, 1.0f, 2.0f},     0.2f,  3.0f, (c, v) -> c.setLinearDamping(v)),
+		new Axis("angular_damping", new float[] {10f, 15f, 20f},        5.0f, 25.0f, (c, v) -> c.setAngularDamping(v)),
+		new Axis("friction",        new float[] {0.1f, 0.3f, 0.5f},     0.0f,  0.8f, (c, v) -> c.setFriction(v)),
+		new Axis("next_types",      new float[] {4f, 5f, 6f},           3.0f,  7.0f, (c, v) -> c.setNextTypes(Math.round(v)), true),
+		new Axis("radius_scale",    new float[] {0.9f, 1.0f, 1.1f},     0.8f,  1.2f, (c, v) -> c.scaleRadius(v)),
+		new Axis("score_scale",     new float[] {1.0f, 1.5f},           0.5f,  2.0f, (c, v) -> c.scaleScores(v)),
+	};
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> opts = parseArgs(args);
+		String mode     = opts.getOrDefault("mode", "grid");
+		int    games    = Integer.parseInt(opts.getOrDefault("games", "16"));
+		int    samples  = Integer.parseInt(opts.getOrDefault("samples", "1000"));
+		long   seed     = Long.parseLong(opts.getOrDefault("seed", "1"));
+		int    threads  = Integer.parseInt(opts.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+		String out      = opts.getOrDefault("out", "sweep.csv");
+		SpawnMode spawn = SpawnMode.valueOf(opts.getOrDefault("spawn", "uniform").toUpperCase());
+
+		int configs = "random".equals(mode) ? samples : gridSize();
+		System.out.printf("%s sweep: %d configs x %d games on %d threads -> %s%n", mode, configs, games, threads, out);
+
+		BlockingQueue<String> rows = new LinkedBlockingQueue<>();
+		Thread writer = startWriter(out, rows);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		// 実行中の設定数を制限し、キューに大量のタスクを積まないようにする
+		Semaphore inFlight = new Semaphore(threads * 4);
+		Random sampler = new Random(seed);
+		long start = System.nanoTime();
+		for (int id = 0; id < configs; id++) {
+			float[] values = "random".equals(mode) ? randomValues(sampler) : gridValues(id);
+			inFlight.acquire();
+			ConfigRun run = new ConfigRun(id, values, games, rows, inFlight);
+			for (int g = 0; g < games; g++) {
+				long gameSeed = seed * 1_000_003L + g; // 設定間で同じ種を使い、比較のばらつきを抑える
+				pool.execute(() -> run.play(spawn, gameSeed));
+			}
+		}
+		pool.shutdown();
+		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+		rows.put(DONE);
+		writer.join();
+		System.out.printf("done in %.1fs%n", (System.nanoTime() - start) / 1e9);
+	}
+
+	/**
+	 * 軸の値から調整値を組み立てる
+	 * @param values 各軸の値（AXESと同じ順）
+	 * @return 調整値
+	 */
+	static GameConfig buildConfig(float[] values) {
+		GameConfig config = new GameConfig();
+		for (int i = 0; i < AXES.length; i++) AXES[i].apply.accept(config, values[i]);
+		return config;
+	}
+
+	/** 格子の総数 */
+	private static int gridSize() {
+		int size = 1;
+		for (Axis axis : AXES) size *= axis.grid.length;
+		return size;
+	}
+
+	/**
+	 * 格子の通し番号から各軸の値を求める
+	 * @param id 通し番号
+	 * @return 各軸の値
+	 */
+	private static float[] gridValues(int id) {
+		float[] values = new float[AXES.length];
+		for (int i = AXES.length - 1; i >= 0; i--) {
+			float[] grid = AXES[i].grid;
+			values[i] = grid[id % grid.length];
+			id /= grid.length;
+		}
+		return values;
+	}
+
+	/**
+	 * 各軸の範囲から一様に値を抽出する
+	 * @param sampler 乱数
+	 * @return 各軸の値
+	 */
+	private static float[] randomValues(Random sampler) {
+		float[] values = new float[AXES.length];
+		for (int i = 0; i < AXES.length; i++) {
+			values[i] = AXES[i].min + sampler.nextFloat() * (AXES[i].max - AXES[i].min);
+			if (AXES[i].integral) values[i] = Math.round(values[i]); // 整数の軸は丸めてCSVの値と一致させる
+		}
+		return values;
+	}
+
+	/**
+	 * CSVの書き込みスレッドを開始する
+	 * 集計の終わった行を受け取り次第書き出す
+	 */
+	private static Thread startWriter(String out, BlockingQueue<String> rows) throws IOException {
+		BufferedWriter bw = Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8);
+		StringBuilder header = new StringBuilder("config_id");
+		for (Axis axis : AXES) header.append(',').append(axis.name);
+		header.append(",games,failed_games,mean_score,mean_steps,mean_drops,mean_max_type,merges_per_drop,game_over_rate");
+		bw.write(header.toString());
+		bw.newLine();
+		Thread writer = new Thread(() -> {
+			try (bw) {
+				String row;
+				while ((row = rows.take()) != DONE) {
+					bw.write(row);
+					bw.newLine();
+					if (rows.isEmpty()) bw.flush(); // 待ちが無ければその都度ファイルに反映
+				}
+			} catch (IOException | InterruptedException e) {
+				e.printStackTrace();
+			}
+		}, "sweep-writer");
+		writer.start();
+		return writer;
+	}
+
+	/** --key value 形式の引数を読み取る */
+	private static Map<String, String> parseArgs(String[] args) {
+		Map<String, String> opts = new HashMap<>();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			if (args[i].startsWith("--")) opts.put(args[i].substring(2), args[i + 1]);
+		}
+		return opts;
+	}
+
+	/**
+	 * 探索する軸の定義
+	 */
+	private static class Axis {
+		final String                          name;
+		final float[]                         grid;
+		final float                           min, max;
+		final BiConsumer<GameConfig, Float>   apply;
+		final boolean                         integral; // 整数値のみ取る軸か
+
+		Axis(String name, float[] grid, float min, float max, BiConsumer<GameConfig, Float> apply) {
+			this(name, grid, min, max, apply, false);
+		}
+		Axis(String name, float[] grid, float min, float max, BiConsumer<GameConfig, Float> apply, boolean integral) {
+			this.name     = name;
+			this.grid     = grid;
+			this.min      = min;
+			this.max      = max;
+			this.apply    = apply;
+			this.integral = integral;
+		}
+	}
+
+	/**
+	 * 1つの設定について、全ゲームの結果を集計する
+	 * 最後のゲームが終わった時点でCSVの行を書き込みスレッドに渡す
+	 * 例外で終わったゲームも終了として数えるため、失敗があっても行の出力と実行枠の返却は必ず行われる
+	 */
+	private static class ConfigRun {
+		private final int                   id;
+		private final float[]               values;
+		private final int                   games;
+		private final BlockingQueue<String> rows;
+		private final Semaphore             inFlight;
+		private int  finished, failed, gameOvers;
+		private long score, steps, drops, maxType, merges;
+
+		ConfigRun(int id, float[] values, int games, BlockingQueue<String> rows, Semaphore inFlight) {
+			this.id       = id;
+			this.values   = values;
+			this.games    = games;
+			this.rows     = rows;
+			this.inFlight = inFlight;
+		}
+
+		/**
+		 * 1ゲームを実行して結果を集計に加える（プールのスレッドから呼ばれる）
+		 * @param spawn    次のフルーツの決め方
+		 * @param gameSeed 乱数の種
+		 */
+		void play(SpawnMode spawn, long gameSeed) {
+			HeadlessGame.Result r = null;
+			try {
+				r = new HeadlessGame(buildConfig(values).setSpawnMode(spawn), gameSeed).play(MAX_DROPS, MAX_STEPS);
+			} catch (Throwable e) {
+				System.err.printf("config %d seed %d failed%n", id, gameSeed);
+				e.printStackTrace();
+			} finally {
+				finish(r);
+			}
+		}
+
+		private synchronized void finish(HeadlessGame.Result r) {
+			if (r == null) {
+				failed++;
+			} else {
+				score   += r.getScore();
+				steps   += r.getSteps();
+				drops   += r.getDrops();
+				maxType += r.getMaxType();
+				merges  += r.getMerges();
+				if (r.isGameOver()) gameOvers++;
+			}
+			if (++finished < games) return;
+			try {
+				double n = Math.max(1, games - failed); // 完走したゲーム数（全て失敗した場合は平均が0になる）
+				StringBuilder row = new StringBuilder().append(id);
+				for (float v : values) row.append(',').append(String.format(Locale.ROOT, "%.4f", v));
+				row.append(String.format(Locale.ROOT, ",%d,%d,%.2f,%.1f,%.1f,%.2f,%.4f,%.3f",
+						games, failed, score / n, steps / n, drops / n,
+						maxType / n, drops == 0 ? 0.0 : merges / (double) drops, gameOvers / n));
+				rows.add(row.toString());
+			} finally {
+				inFlight.release();
+			}
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package mysuika.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import mysuika.model.GameConfig;
+import mysuika.ui.FrameEncoder;
+import mysuika.ui.OffscreenRenderer;
+
+/**
+ * ReplayExport クラス
+ *
+ * 画面のない環境（java.awt.headless=true）で1ゲームを自動で進め、
+ * 数ステップごとに画面を画像に描画して連番PNGまたはアニメーションGIFに書き出すツールです。
+ * 乱数の種が同じなら同じ展開・同じ画像になります。
+ * 描画はゲームを進めるスレッドで行い、画像の変換・圧縮は裏で複数スレッドで並列に行います。
+ * 最後に、実時間に対して何倍の速さで書き出せたかを表示します。
+ *
+ * 使い方:
+ *   java mysuika.tools.ReplayExport [乱数の種=1] [形式=gif|png] [書き出し先=replay.gif]
+ *        [何ステップごとに描画するか=2] [落下回数の上限=150] [スレッド数=CPU数]
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class ReplayExport {
+	private static final int STEPS_PER_SECOND = 60;     // 1秒あたりの物理ステップ数
+	private static final int MAX_STEPS        = 20_000; // 物理ステップ数の上限
+
+	public static void main(String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true"); // AWTを使い始める前に設定する
+		long    seed     = args.length > 0 ? Long.parseLong(args[0]) : 1L;
+		boolean png      = args.length > 1 && "png".equalsIgnoreCase(args[1]);
+		Path    output   = Paths.get(args.length > 2 ? args[2] : png ? "replay" : "replay.gif");
+		int     every    = args.length > 3 ? Math.max(1, Integer.parseInt(args[3])) : 2;
+		int     maxDrops = args.length > 4 ? Integer.parseInt(args[4]) : 150;
+		int     threads  = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+		HeadlessGame      game     = new HeadlessGame(new GameConfig(), seed);
+		OffscreenRenderer renderer = new OffscreenRenderer(game.getManager(), true);
+		game.getManager().setCaptureFruits(true); // スナップショットに描画用のフルーツの写しを含める
+		FrameEncoder.Format format = png ? FrameEncoder.Format.PNG_SEQUENCE : FrameEncoder.Format.GIF;
+
+		long start = System.nanoTime();
+		HeadlessGame.Result result;
+		try (FrameEncoder encoder = new FrameEncoder(format, output, STEPS_PER_SECOND / every, threads)) {
+			int[] step = { 0 };
+			result = game.play(maxDrops, MAX_STEPS, manager -> {
+				if (step[0]++ % every != 0) return;
+				try {
+					encoder.submit(renderer.render(manager.getSnapshot()));
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			encoder.submit(renderer.render(game.getManager().getSnapshot())); // 最後の状態
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		double played  = result.getSteps() / (double) STEPS_PER_SECOND;
+		System.out.printf("score=%d steps=%d frames=%d%n", result.getScore(), result.getSteps(), result.getSteps() / every + 1);
+		System.out.printf("exported %.1fs of play in %.1fs (%.1fx real time) to %s%n",
+				played, seconds, played / seconds, output.toAbsolutePath());
+	}
+}
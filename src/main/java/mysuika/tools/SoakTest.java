@@ -0,0 +1,208 @@
+package mysuika.tools;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import mysuika.model.GameConfig;
+import mysuika.physics.PhysicsWorld;
+
+/**
+ * SoakTest クラス
+ *
+ * 店頭の端末のように何日も動かし続けた場合の劣化を調べる長時間テストです（画面なしで実行）。
+ * 1つの物理ワールド・管理クラスを使い回し、ゲームオーバーのたびにGameManager.resetで
+ * 次のゲームを始めることを、指定時間のあいだ繰り返します。
+ *
+ * 一定時間（窓）ごとに次の値を1行のCSVで表示します。
+ * - GC後のヒープ使用量とヒープ外メモリ（状態ミラーなど）の使用量
+ * - 1ステップあたりのメモリ確保量（このスレッドの分）
+ * - 1ステップの時間の中央値・99パーセンタイル・最大
+ * - 物理ワールドのBody数（ゲーム終了時の最大）と状態ミラーの使用スロット数の上限（ゲーム終了時の最大）
+ *
+ * 最初の窓は準備運転として捨て、2つ目の窓を基準にします。
+ * ヒープ・確保量・ステップ時間・Body数・使用スロット数のいずれかが、基準から許容幅を超えた状態で
+ * 続けて一定数の窓にわたった場合は増え続けている（リークや劣化がある）とみなし、終了コード1で終了します。
+ * また、ゲーム終了時にBody数・フルーツのリスト・状態ミラーの個数が食い違った場合はその場で失敗します。
+ *
+ * 使い方:
+ *   java mysuika.tools.SoakTest --minutes 240 --window 60 --seed 1
+ *   java mysuika.tools.SoakTest --minutes 10 --window 20 --tolerance 0.25 --strikes 3
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class SoakTest {
+	private static final int    MAX_DROPS  = 400;       // 1ゲームの落下回数の上限
+	private static final int    MAX_STEPS  = 60_000;    // 1ゲームの物理ステップ数の上限
+	private static final long   HEAP_SLACK = 4L << 20;  // ヒープの比較で許容する絶対量（GCの揺らぎ分、バイト）
+	private static final double TIME_SLACK = 0.5;       // ステップ時間の比較で許容する絶対量（ミリ秒）
+	private static final int    BODY_SLACK = 16;        // Body数・使用スロット数の比較で許容する絶対量（盤面の揺らぎ分）
+
+	public static void main(String[] args) {
+		Map<String, String> opts = parseArgs(args);
+		double minutes   = Double.parseDouble(opts.getOrDefault("minutes", "60"));
+		int    window    = Integer.parseInt(opts.getOrDefault("window", "60"));
+		long   seed      = Long.parseLong(opts.getOrDefault("seed", "1"));
+		double tolerance = Double.parseDouble(opts.getOrDefault("tolerance", "0.25"));
+		int    strikes   = Integer.parseInt(opts.getOrDefault("strikes", "3"));
+
+		HeadlessGame game    = new HeadlessGame(new GameConfig(), seed);
+		PhysicsWorld physics = game.getPhysics();
+		int          statics = physics.getWorld().getBodyCount(); // 床・壁・危険ゾーン
+		StepTimes    times   = new StepTimes();
+		long         end     = System.nanoTime() + (long) (minutes * 60e9);
+		long         windowNanos = window * 1_000_000_000L;
+
+		System.out.printf("soak: %.0f min, %ds windows, tolerance %.0f%% x %d windows%n", minutes, window, tolerance * 100, strikes);
+		System.out.println("window,games,steps,heap_mb,direct_kb,alloc_b_per_step,p50_ms,p99_ms,max_ms,max_bodies,slots");
+		Sample  baseline = null;
+		int     over     = 0;
+		long    games    = 0;
+		for (int w = 0; System.nanoTime() < end; w++) {
+			long windowEnd = System.nanoTime() + windowNanos;
+			long allocated = allocatedBytes();
+			int  maxBodies = 0, maxSlots = 0, windowGames = 0;
+			times.clear();
+			while (System.nanoTime() < windowEnd) {
+				game.reset(seed + games++);
+				long[] last = { System.nanoTime() };
+				game.play(MAX_DROPS, MAX_STEPS, manager -> {
+					long now = System.nanoTime();
+					times.add(now - last[0]);
+					last[0] = now;
+				});
+				windowGames++;
+				int bodies = physics.getWorld().getBodyCount();
+				int fruits = physics.getActiveFruitBodies().size();
+				if (bodies - statics != fruits || fruits != physics.getFruitState().getLiveCount()) {
+					System.out.printf("FAIL: game %d ended with %d bodies (%d static), %d fruit bodies, %d live slots%n",
+							games - 1, bodies, statics, fruits, physics.getFruitState().getLiveCount());
+					System.exit(1);
+				}
+				maxBodies = Math.max(maxBodies, bodies);
+				maxSlots  = Math.max(maxSlots, physics.getFruitState().getHighWater());
+			}
+			Sample s = new Sample(heapAfterGc(), directBytes(),
+					times.count == 0 ? 0 : (allocatedBytes() - allocated) / times.count, times, maxBodies, maxSlots);
+			System.out.printf(Locale.ROOT, "%d,%d,%d,%.1f,%d,%d,%.3f,%.3f,%.3f,%d,%d%n", w, windowGames, times.count,
+					s.heap / 1048576.0, s.direct / 1024, s.allocPerStep, s.p50, s.p99, s.max, s.maxBodies, s.maxSlots);
+			if (w == 0) continue;               // 準備運転（JITの最適化などが落ち着くまで）
+			if (baseline == null) { baseline = s; continue; }
+			String drift = baseline.drift(s, tolerance);
+			over = drift == null ? 0 : over + 1;
+			if (over >= strikes) {
+				System.out.printf("FAIL: %s for %d windows in a row%n", drift, over);
+				System.exit(1);
+			}
+		}
+		System.out.printf("PASS: %d games without drift%n", games);
+	}
+
+	/** GC後のヒープ使用量（バイト） */
+	private static long heapAfterGc() {
+		System.gc();
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/** ヒープ外メモリ（direct buffer）の使用量（バイト） */
+	private static long directBytes() {
+		for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+			if ("direct".equals(pool.getName())) return pool.getMemoryUsed();
+		}
+		return 0;
+	}
+
+	/** このスレッドがこれまでに確保したメモリ量（計測できないJVMでは0） */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return 0;
+		return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+	}
+
+	/**
+	 * 1つの窓の計測値
+	 */
+	private static class Sample {
+		final long   heap, direct, allocPerStep;
+		final double p50, p99, max; // ミリ秒
+		final int    maxBodies, maxSlots; // ゲーム終了時のBody数・状態ミラーの使用スロット数の上限の最大
+
+		Sample(long heap, long direct, long allocPerStep, StepTimes times, int maxBodies, int maxSlots) {
+			this.heap         = heap;
+			this.direct       = direct;
+			this.allocPerStep = allocPerStep;
+			this.maxBodies    = maxBodies;
+			this.maxSlots     = maxSlots;
+			times.sort();
+			this.p50 = times.percentile(0.50) / 1e6;
+			this.p99 = times.percentile(0.99) / 1e6;
+			this.max = times.percentile(1.00) / 1e6;
+		}
+
+		/**
+		 * 基準（this）と比べて許容幅を超えた値
+		 * @return 超えた値の説明（なければnull）
+		 */
+		String drift(Sample s, double tolerance) {
+			if (s.heap > heap * (1 + tolerance) + HEAP_SLACK) {
+				return String.format("heap %.1fMB > baseline %.1fMB", s.heap / 1048576.0, heap / 1048576.0);
+			}
+			if (s.direct > direct * (1 + tolerance)) {
+				return String.format("direct memory %dKB > baseline %dKB", s.direct / 1024, direct / 1024);
+			}
+			if (s.allocPerStep > allocPerStep * (1 + tolerance) + 64) {
+				return String.format("allocation %dB/step > baseline %dB/step", s.allocPerStep, allocPerStep);
+			}
+			if (s.p99 > p99 * (1 + tolerance) + TIME_SLACK) {
+				return String.format(Locale.ROOT, "p99 step %.3fms > baseline %.3fms", s.p99, p99);
+			}
+			if (s.maxBodies > maxBodies * (1 + tolerance) + BODY_SLACK) {
+				return String.format("bodies %d > baseline %d", s.maxBodies, maxBodies);
+			}
+			if (s.maxSlots > maxSlots * (1 + tolerance) + BODY_SLACK) {
+				return String.format("state slots %d > baseline %d", s.maxSlots, maxSlots);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * 1つの窓のステップ時間の記録（窓ごとに使い回し、配列は必要なときだけ広げる）
+	 */
+	private static class StepTimes {
+		private long[] nanos = new long[1 << 16];
+		private int    count;
+
+		void add(long n) {
+			if (count == nanos.length) nanos = Arrays.copyOf(nanos, count * 2);
+			nanos[count++] = n;
+		}
+		void clear() {
+			count = 0;
+		}
+		void sort() {
+			Arrays.sort(nanos, 0, count);
+		}
+		/** 並べ替え済みの記録のパーセンタイル（ナノ秒） */
+		long percentile(double p) {
+			return count == 0 ? 0 : nanos[Math.min(count - 1, (int) (count * p))];
+		}
+	}
+
+	/**
+	 * "--key value" 形式の引数を読み取る
+	 */
+	private static Map<String, String> parseArgs(String[] args) {
+		Map<String, String> opts = new HashMap<>();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			if (args[i].startsWith("--")) opts.put(args[i].substring(2), args[i + 1]);
+		}
+		return opts;
+	}
+}
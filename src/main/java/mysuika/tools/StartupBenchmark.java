@@ -0,0 +1,85 @@
+package mysuika.tools;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * StartupBenchmark クラス
+ *
+ * 起動から最初のフレームが描画されるまでの時間を計測するベンチマークです。
+ * ビルド済みのjarを別プロセスで繰り返し起動し、CDSアーカイブなし／ありの両方について
+ * プロセス起動から最初のフレームまでの時間（wall）と、JVM起動からの時間（StartupProbeの報告値）を集計します。
+ * 画面のある環境で実行してください。
+ *
+ * 使い方:
+ *   java -cp build/mysuika.jar mysuika.tools.StartupBenchmark build/mysuika.jar build/mysuika.jsa 10
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class StartupBenchmark {
+	private static final String MARK = "first-frame-ms="; // StartupProbeの出力の目印
+
+	public static void main(String[] args) throws Exception {
+		String jar     = args.length > 0 ? args[0] : "build/mysuika.jar";
+		String archive = args.length > 1 ? args[1] : "build/mysuika.jsa";
+		int    runs    = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+		measure("default", jar, null, runs);
+		if (new File(archive).exists()) measure("appcds", jar, archive, runs);
+		else System.out.println("appcds: " + archive + " not found (run ./build.sh cds first)");
+	}
+
+	/**
+	 * 指定条件で繰り返し起動し、中央値・最小・最大を表示する
+	 * @param label 表示名
+	 * @param jar 起動するjar
+	 * @param archive CDSアーカイブ（使わない場合はnull）
+	 * @param runs 起動回数
+	 */
+	private static void measure(String label, String jar, String archive, int runs) throws IOException, InterruptedException {
+		long[] wall  = new long[runs];
+		long[] probe = new long[runs];
+		for (int i = 0; i < runs; i++) {
+			List<String> cmd = new ArrayList<>();
+			cmd.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+			if (archive != null) cmd.add("-XX:SharedArchiveFile=" + archive);
+			cmd.add("-Dmysuika.startup.report=true");
+			cmd.add("-Dmysuika.startup.exit=true");
+			cmd.add("-jar");
+			cmd.add(jar);
+			long start = System.nanoTime();
+			Process process = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+			try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = out.readLine()) != null) {
+					if (line.startsWith(MARK)) {
+						wall[i]  = (System.nanoTime() - start) / 1_000_000L;
+						probe[i] = Long.parseLong(line.substring(MARK.length()).trim());
+					}
+				}
+			}
+			process.waitFor();
+		}
+		System.out.printf("%-8s wall median %4d ms (min %d, max %d) / from JVM start median %4d ms%n",
+				label, median(wall), min(wall), max(wall), median(probe));
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+	private static long min(long[] values) {
+		return Arrays.stream(values).min().orElse(0);
+	}
+	private static long max(long[] values) {
+		return Arrays.stream(values).max().orElse(0);
+	}
+}
@@ -0,0 +1,89 @@
+package mysuika.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import mysuika.TraceRecorder;
+import mysuika.model.GameConfig;
+
+/**
+ * TraceOverheadBenchmark クラス
+ *
+ * 処理時間の記録（TraceRecorder）による負荷を計測するベンチマークです。
+ * 同じ乱数の種のゲームを画面なしで、記録あり・なしを交互に何回か進めて最短時間を比べ、
+ * 記録ありの方が何%遅いかを表示します（目標は1%未満）。
+ * あわせて、1スパンの記録にかかる時間とスパン数から見積もった負荷も表示します。
+ * 最後に記録を両方の形式で書き出し、書き出せることを確認します。
+ *
+ * 使い方:
+ *   java mysuika.tools.TraceOverheadBenchmark [ゲーム数=10] [繰り返し回数=5] [書き出し先=.]
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class TraceOverheadBenchmark {
+	private static final int MAX_DROPS = 150;    // 1ゲームの落下回数の上限
+	private static final int MAX_STEPS = 20_000; // 1ゲームの物理ステップ数の上限
+
+	public static void main(String[] args) throws IOException {
+		int  games  = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int  rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		Path dir    = Paths.get(args.length > 2 ? args[2] : ".");
+
+		play(games, true); // JITのウォームアップ
+		play(games, false);
+		// 仮想環境では実行ごとのばらつきが数%あるため、順番を入れ替えながら最短時間どうしで比べる
+		long on = Long.MAX_VALUE, off = Long.MAX_VALUE;
+		for (int r = 0; r < rounds; r++) {
+			boolean traceFirst = r % 2 == 0;
+			long    a          = play(games, traceFirst);
+			long    b          = play(games, !traceFirst);
+			on  = Math.min(on,  traceFirst ? a : b);
+			off = Math.min(off, traceFirst ? b : a);
+		}
+		// 1スパンあたりの時間とスパン数からも見積もる（ばらつきの影響を受けにくい）
+		double perSpan = spanCost();
+		long   spans   = countSpans(games); // 書き出す記録がゲームのスパンになるよう最後に進める
+		System.out.printf("trace off %.1f ms, on %.1f ms, measured overhead %.2f%%%n",
+				off / 1e6, on / 1e6, (on - off) * 100.0 / off);
+		System.out.printf("%d spans x %.1f ns = estimated overhead %.2f%%%n",
+				spans, perSpan, spans * perSpan * 100.0 / off);
+
+		for (TraceRecorder.Format format : TraceRecorder.Format.values()) {
+			System.out.println("saved " + TraceRecorder.dump(60.0, format, dir));
+		}
+	}
+
+	/** 指定数のゲームで記録されるスパン数 */
+	private static long countSpans(int games) {
+		long recorded = TraceRecorder.getRecorded();
+		play(games, true);
+		return TraceRecorder.getRecorded() - recorded;
+	}
+
+	/** 1スパンの記録にかかる時間（ns、beginとendの組） */
+	private static double spanCost() {
+		TraceRecorder.setEnabled(true);
+		int  n     = 2_000_000;
+		long start = System.nanoTime();
+		for (int i = 0; i < n; i++) {
+			TraceRecorder.end(TraceRecorder.Span.TICK, TraceRecorder.begin());
+		}
+		return (System.nanoTime() - start) / (double) n;
+	}
+
+	/**
+	 * 指定数のゲームを進めた時間
+	 * @param trace 記録するか
+	 * @return 経過時間（ns）
+	 */
+	private static long play(int games, boolean trace) {
+		TraceRecorder.setEnabled(trace);
+		long start = System.nanoTime();
+		for (long seed = 1; seed <= games; seed++) {
+			new HeadlessGame(new GameConfig(), seed).play(MAX_DROPS, MAX_STEPS);
+		}
+		return System.nanoTime() - start;
+	}
+}
@@ -0,0 +1,144 @@
+package mysuika.tools;
+
+import java.io.IOException;
+
+import mysuika.model.GameConfig;
+import mysuika.net.RemoteBoard;
+import mysuika.net.RemoteFrame;
+import mysuika.net.SnapshotEncoder;
+import mysuika.net.VersusLink;
+import mysuika.net.VersusSession;
+import mysuika.physics.FruitStateBuffer;
+
+/**
+ * VersusLoopback クラス
+ *
+ * 対戦モードの通信を1台のPCの中（localhost）で確かめるツールです（画面なしで実行）。
+ * 待ち受け側と接続側の2つのゲームを別々のスレッドで進め、実際のソケット越しに盤面・入力・お邪魔フルーツをやり取りします。
+ *
+ * 最後に次の内容を表示し、受け取った盤面が量子化の誤差を超えて食い違っていれば終了コード1で終了します。
+ * - 片方向あたりの通信量（ゲーム内の1秒あたりのバイト数）と、フルーツ数の平均・最大
+ * - 送った・受け取ったお邪魔フルーツの数と、相手が落としたフルーツの数
+ * - 相手側で復元した最後の盤面と、送った側の実際の盤面との座標の最大誤差
+ *
+ * 使い方:
+ *   java mysuika.tools.VersusLoopback [乱数の種=1] [落下回数の上限=150] [実時間で進めるか=false]
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class VersusLoopback {
+	private static final int  MAX_STEPS        = 20_000; // 物理ステップ数の上限
+	private static final int  STEPS_PER_SECOND = 60;     // 1秒あたりの物理ステップ数
+	private static final long CONNECT_TIMEOUT  = 5_000;  // 接続を待つ時間（ミリ秒）
+
+	public static void main(String[] args) throws Exception {
+		long    seed     = args.length > 0 ? Long.parseLong(args[0]) : 1L;
+		int     maxDrops = args.length > 1 ? Integer.parseInt(args[1]) : 150;
+		boolean realtime = args.length > 2 && Boolean.parseBoolean(args[2]);
+
+		VersusLink hostLink = VersusLink.host(0);
+		VersusLink joinLink = VersusLink.join("localhost", hostLink.getLocalPort());
+		long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+		while (!(hostLink.isConnected() && joinLink.isConnected())) {
+			if (System.currentTimeMillis() > deadline) throw new IOException("could not connect on localhost:" + hostLink.getLocalPort());
+			Thread.sleep(10);
+		}
+		Player host = new Player("host", new HeadlessGame(new GameConfig(), seed), hostLink, maxDrops, realtime);
+		Player join = new Player("join", new HeadlessGame(new GameConfig(), seed + 1), joinLink, maxDrops, realtime);
+		host.start();
+		join.start();
+		host.join();
+		join.join();
+		Thread.sleep(200);        // 最後のメッセージが届くのを待つ
+		host.session.receive();
+		join.session.receive();
+
+		boolean ok = host.report(join) & join.report(host);
+		hostLink.close();
+		joinLink.close();
+		if (!ok) System.exit(1);
+	}
+
+	/**
+	 * 片方のプレイヤー（1つのゲームとその通信）
+	 */
+	private static class Player extends Thread {
+		private final HeadlessGame  game;
+		private final VersusSession session;
+		private final int           maxDrops;
+		private final boolean       realtime;
+		private HeadlessGame.Result result;
+		private long                fruitSum;  // ステップごとのフルーツ数の合計
+		private int                 fruitMax;  // フルーツ数の最大
+
+		Player(String name, HeadlessGame game, VersusLink link, int maxDrops, boolean realtime) {
+			super(name);
+			this.game     = game;
+			this.session  = new VersusSession(game.getManager(), link, new RemoteBoard());
+			this.maxDrops = maxDrops;
+			this.realtime = realtime;
+		}
+
+		@Override
+		public void run() {
+			long[] next = { System.nanoTime() };
+			result = game.play(maxDrops, MAX_STEPS, manager -> {
+				session.afterTick();
+				int fruits = manager.getWorld().getFruitState().getLiveCount();
+				fruitSum += fruits;
+				fruitMax  = Math.max(fruitMax, fruits);
+				if (!realtime) return;
+				next[0] += 1_000_000_000L / STEPS_PER_SECOND;
+				long wait = (next[0] - System.nanoTime()) / 1_000_000;
+				if (wait > 0) {
+					try {
+						Thread.sleep(wait);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			session.sendState(); // 途中で止めた場合も最後の盤面を送る
+		}
+
+		/**
+		 * 結果を表示し、相手側で復元された自分の盤面を確かめる
+		 * @param peer 相手のプレイヤー
+		 * @return 復元された盤面が量子化の誤差の範囲内で一致すればtrue
+		 */
+		boolean report(Player peer) {
+			VersusLink  link    = session.getLink();
+			double      seconds = result.getSteps() / (double) STEPS_PER_SECOND;
+			RemoteBoard mine    = peer.session.getBoard(); // 相手が受け取った自分の盤面
+			System.out.printf("%s: score=%d steps=%d fruits avg=%.0f max=%d sent=%.2fKB/s garbage sent=%d received=%d peer saw drops=%d/%d%n",
+					getName(), result.getScore(), result.getSteps(), fruitSum / (double) result.getSteps(), fruitMax,
+					link.getBytesSent() / seconds / 1024, session.getBoard().getGarbageSent(),
+					session.getBoard().getGarbageReceived(), mine.getDrops(), result.getDrops());
+			RemoteFrame frame = mine.getLatest();
+			FruitStateBuffer state = game.getPhysics().getFruitState();
+			if (frame == null || frame.getStep() != state.getStep()) {
+				System.out.printf("%s: FAIL peer's last frame is at step %s, expected %d%n",
+						getName(), frame == null ? "-" : frame.getStep(), state.getStep());
+				return false;
+			}
+			float maxError = 0.0f;
+			int   live     = 0;
+			for (int s = 0; s < Math.max(frame.getSlots(), state.getHighWater()); s++) {
+				boolean mirrored = s < frame.getSlots() && frame.getType(s) >= 0;
+				boolean actual   = s < state.getHighWater() && state.isLive(s);
+				if (mirrored != actual || (actual && frame.getType(s) != state.getType(s))) {
+					System.out.printf("%s: FAIL slot %d differs on the peer%n", getName(), s);
+					return false;
+				}
+				if (!actual) continue;
+				live++;
+				maxError = Math.max(maxError, Math.max(Math.abs(frame.getX(s) - state.getX(s)), Math.abs(frame.getY(s) - state.getY(s))));
+			}
+			boolean ok = maxError <= SnapshotEncoder.PRECISION / 2 + 1e-6f;
+			System.out.printf("%s: %s %d fruits mirrored, max error %.4fm (quantum %.4fm)%n",
+					getName(), ok ? "OK" : "FAIL", live, maxError, SnapshotEncoder.PRECISION);
+			return ok;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package mysuika.ui;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+
+import mysuika.StartupProbe;
+import mysuika.TraceRecorder;
+import mysuika.logic.GameManager;
+
+/**
+ * ActiveRenderLoop クラス
+ *
+ * Swingの再描画管理に頼らず、専用スレッドからCanvasのBufferStrategyへ直接描画する
+ * アクティブレンダリング方式のゲームループです。
+ *
+ * 物理演算は1/60秒固定ステップで進め、描画は上限フレームレートに合わせて
+ * 次のフレーム期限まで待機（直前はスピン待ち）することで一定間隔に揃えます。
+ * フレーム時間はFrameStatsに記録し、計測値表示（F3キー）で画面左上に表示します。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class ActiveRenderLoop implements Runnable {
+	private static final long STEP_NANOS  = 1_000_000_000L / 60; // 物理演算1ステップの時間
+	private static final int  MAX_STEPS   = 5;                   // 1フレームで追いつく最大ステップ数
+	private static final long SPIN_NANOS  = 2_000_000L;          // 期限直前はsleepせずスピン待ちする時間
+	private static final int  BUFFERS     = 3;                   // バッファ数（トリプルバッファ）
+	private static final long STATS_NANOS = 500_000_000L;        // 統計表示の更新間隔
+
+	private final GameManager manager; // ゲーム全体の管理クラスへの参照
+	private final GamePanel   panel;   // 描画内容を持つゲームパネル
+	private final Canvas      canvas;  // 描画先
+	private final long        frameNanos; // 1フレームの目標時間
+	private final FrameStats  stats = new FrameStats();
+	private volatile boolean  running;     // ループ実行中か
+	private volatile boolean  simulating = true; // 物理演算を進めるか（ゲームオーバーで停止）
+	private Thread            thread;
+	private volatile String   statsText = ""; // 表示中の統計テキスト
+	private long              statsAt;        // 統計テキストを更新した時刻
+
+	/**
+	 * コンストラクタ
+	 * @param manager ゲームロジック管理クラス
+	 * @param panel 描画内容を持つゲームパネル
+	 * @param canvas 描画先のCanvas
+	 * @param fpsCap 描画の上限フレームレート
+	 */
+	ActiveRenderLoop(GameManager manager, GamePanel panel, Canvas canvas, int fpsCap) {
+		this.manager    = manager;
+		this.panel      = panel;
+		this.canvas     = canvas;
+		this.frameNanos = 1_000_000_000L / Math.max(1, fpsCap);
+	}
+
+	/** ループ用スレッドを開始 */
+	public void start() {
+		if (running) return;
+		running = true;
+		thread  = new Thread(this, "active-render-loop");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/** ループを終了 */
+	public void stop() {
+		running = false;
+	}
+
+	/** 物理演算だけを止め、描画は続ける */
+	public void pauseSimulation() {
+		simulating = false;
+	}
+
+	/** 止めていた物理演算を再開する（新しいゲームを始めるとき） */
+	public void resumeSimulation() {
+		simulating = true;
+	}
+
+	@Override
+	public void run() {
+		long previous = System.nanoTime();
+		long deadline = previous;
+		long pending  = 0; // まだ進めていない物理演算の時間
+		while (running) {
+			long now = System.nanoTime();
+			pending  = Math.min(pending + (now - previous), STEP_NANOS * MAX_STEPS);
+			previous = now;
+			// 固定ステップで物理演算を進める
+			while (pending >= STEP_NANOS) {
+				if (simulating) manager.tick(now - pending + STEP_NANOS); // このステップの予定時刻まで（遅れを取り戻す間も入力をまとめない）
+				pending -= STEP_NANOS;
+			}
+			render();
+			// 次のフレーム期限まで待機（遅れた場合は持ち越さない）
+			deadline += frameNanos;
+			long end = System.nanoTime();
+			if (end > deadline) deadline = end;
+			else waitUntil(deadline);
+			long frameEnd = System.nanoTime();
+			stats.record(frameEnd - now);
+			// 統計テキストは一定間隔でのみ作り直す（毎フレームの文字列生成を避ける）
+			if (frameEnd - statsAt > STATS_NANOS) {
+				statsText = stats.summary();
+				statsAt   = frameEnd;
+			}
+		}
+	}
+
+	/**
+	 * 指定時刻まで待機する
+	 * 大半はsleepで待ち、最後の数ミリ秒はスピン待ちで精度を確保する
+	 * @param deadline 待機終了時刻（System.nanoTime基準）
+	 */
+	private void waitUntil(long deadline) {
+		long remain;
+		while ((remain = deadline - System.nanoTime()) > SPIN_NANOS) {
+			try {
+				Thread.sleep((remain - SPIN_NANOS) / 1_000_000L, 0);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		while (deadline - System.nanoTime() > 0) Thread.onSpinWait();
+	}
+
+	/**
+	 * バックバッファに1フレーム描画して表示
+	 */
+	private void render() {
+		if (!canvas.isDisplayable() || canvas.getWidth() <= 0) return;
+		BufferStrategy strategy = canvas.getBufferStrategy();
+		if (strategy == null) {
+			canvas.createBufferStrategy(BUFFERS);
+			return;
+		}
+		long t = TraceRecorder.begin();
+		do {
+			do {
+				Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+				try {
+					g.setColor(Color.WHITE);
+					g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+					panel.drawField(g);
+					g.setColor(Color.GRAY);
+					g.drawRect(0, 0, canvas.getWidth() - 1, canvas.getHeight() - 1); // 枠線
+				} finally {
+					g.dispose();
+				}
+			} while (strategy.contentsRestored());
+			strategy.show();
+		} while (strategy.contentsLost());
+		Toolkit.getDefaultToolkit().sync(); // 表示を即座に反映
+		TraceRecorder.end(TraceRecorder.Span.RENDER_FRAME, t);
+		manager.getInputLatency().presented(); // 入力遅延の計測（表示完了）
+		StartupProbe.framePainted();           // 起動時間の計測（最初のフレームのみ）
+	}
+
+	public FrameStats getStats() {
+		return stats;
+	}
+	/** 表示用のフレーム統計テキスト（一定間隔で更新） */
+	String getStatsText() {
+		return statsText;
+	}
+}
@@ -0,0 +1,232 @@
+package mysuika.ui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+
+import mysuika.logic.GameManager;
+import mysuika.logic.GameSnapshot;
+import mysuika.model.GameConfig;
+import mysuika.physics.BoardAnalytics;
+
+/**
+ * FieldRenderer クラス
+ *
+ * ゲームフィールドの内容（フルーツ・ガイドと着地点予測・危険ゾーンの警告・ゲームオーバー表示）を、
+ * GameSnapshotだけを元に任意のGraphicsへ描画します。
+ * 画面に表示するGamePanelと、画面を持たない環境で画像を作るOffscreenRendererの両方から使います。
+ *
+ * 座標はすべて ViewTransform で物理ワールド（m単位）から画面に変換するため、パネルの大きさに合わせて拡大・縮小されます。
+ * フルーツの半径は盤面の調整値（GameConfig）のものを使うため、半径を変えた調整値でも物理演算と同じ大きさで描きます。
+ * フルーツは拡大率ごとに作っておいた絵（FruitSprites）を貼り、ゲームオーバー表示のフォントなどの
+ * 拡大率に応じた値も、拡大率が変わったときだけ作り直します。
+ *
+ * 描画範囲（幅・高さ・横スクロール量）とキャッシュを保持するため、1つのインスタンスは1つのスレッドから使います。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class FieldRenderer {
+	private static final int   WARNING_BLINK    = 250; // 危険ゾーン警告の点滅間隔（ミリ秒）
+	private static final int   STEPS_PER_SECOND = 60;  // 1秒あたりの物理ステップ数
+	private static final Color GUIDE_GHOST      = new Color(0, 0, 0, 110); // 着地点予測の表示色（半透明の黒）
+	private static final Color COLUMN_LINE      = new Color(0, 90, 200);   // 列の高さの折れ線の色
+	private static final int   HEAT_ALPHA       = 140; // ヒートマップの最も濃いマスの不透明度
+	private static final Color[] HEAT_COLORS    = heatColors(); // 不透明度ごとのヒートマップの色（マスごとに色を作らないよう事前に作る）
+	private static final Font  GAME_OVER_FONT   = new Font("Arial", Font.BOLD, 40); // ゲームオーバー表示のフォント（既定の大きさでの値）
+	private final GameConfig    config;                  // 盤面の調整値（フィールドの幅・フルーツの半径）
+	private final ViewTransform view    = new ViewTransform(); // 物理ワールドから画面への変換
+	private final FruitSprites  sprites;                 // フルーツの絵のキャッシュ
+	private int                 metricsVersion = -1;     // 拡大率に応じた値を作ったときの変換の番号
+	private Font                gameOverFont;            // 拡大率に合わせたゲームオーバー表示のフォント
+
+	/**
+	 * コンストラクタ
+	 * @param config 描画する盤面の調整値
+	 */
+	public FieldRenderer(GameConfig config) {
+		this.config  = config;
+		this.sprites = new FruitSprites(config);
+	}
+
+	/**
+	 * スナップショットの内容をまとめて描画する（画像の書き出し用）
+	 * @param g グラフィックスオブジェクト
+	 * @param snap 描画するスナップショット
+	 * @param width 描画範囲の幅（px）
+	 * @param height 描画範囲の高さ（px）
+	 * @param viewLeft 表示範囲の左端（m単位）
+	 */
+	public void draw(Graphics g, GameSnapshot snap, int width, int height, float viewLeft) {
+		setView(g, width, height, viewLeft);
+		drawFruits(g, snap);
+		drawGuide(g, snap);
+		drawWarning(g, snap);
+		drawGameOver(g, snap);
+	}
+
+	/**
+	 * 描画範囲を設定する（大きさか画面の拡大率が変わった場合は、拡大率に応じた値を作り直す）
+	 * @param g 描画先（画面の拡大率の取得用）
+	 * @param width 描画範囲の幅（px）
+	 * @param height 描画範囲の高さ（px）
+	 * @param viewLeft 表示範囲の左端（m単位）
+	 */
+	void setView(Graphics g, int width, int height, float viewLeft) {
+		view.setView(width, height, config.getFieldWidth(), ((Graphics2D) g).getTransform().getScaleX(), viewLeft);
+		if (view.getVersion() != metricsVersion) {
+			metricsVersion = view.getVersion();
+			gameOverFont   = GAME_OVER_FONT.deriveFont(GAME_OVER_FONT.getSize2D() * view.getScale() / ViewTransform.REFERENCE_SCALE);
+		}
+	}
+
+	/**
+	 * フィールド内の全フルーツを描画
+	 * @param g グラフィックスオブジェクト
+	 * @param snap 描画するスナップショット
+	 */
+	void drawFruits(Graphics g, GameSnapshot snap) {
+		// スナップショット内のフルーツの写しを走査して描画（物理ワールドには触れない）
+		Graphics2D g2    = (Graphics2D) g;
+		float      left  = view.getViewLeft();  // 表示範囲の左端（m単位）
+		float      right = view.getViewRight(); // 表示範囲の右端（m単位）
+		sprites.begin(g2, view);
+		for (int i = 0; i < snap.getFruitCount(); i++) {
+			int   type = snap.getFruitType(i);
+			float fx   = snap.getFruitX(i);
+			float fr   = config.getRadius(type);
+			if (fx + fr < left || fx - fr > right) continue; // 画面外のフルーツは描画しない
+			sprites.draw(g2, type, view.toScreenX(fx), view.toScreenY(snap.getFruitY(i)));
+		}
+		sprites.end(g2);
+	}
+
+	/**
+	 * ガイド（落下予測線と仮フルーツ）を描画
+	 * 落下予測線は実際に着地する位置までとし、着地点に仮フルーツの輪郭、
+	 * 最初に触れるフルーツに強調枠を表示する
+	 * @param g グラフィックスオブジェクト
+	 * @param snap 描画するスナップショット
+	 */
+	void drawGuide(Graphics g, GameSnapshot snap) {
+		int type = snap.getConst();
+		// 落下中でなければガイドを描画
+		if (type != -1) {
+			Graphics2D g2 = (Graphics2D) g;
+			float guideX  = snap.getCursorX() / ViewTransform.REFERENCE_SCALE; // ガイドのX座標（m単位）
+			int   cursorX = Math.round(view.toScreenX(guideX)); // 着地点の予測はスナップショット作成時のガイド位置で行っている
+			int   guideY  = Math.round(view.toScreenY(GameManager.DROP_Y));
+			int   radius  = Math.round(view.toScreen(config.getRadius(type)));
+			// 着地点の予測（ゲームループのスレッドでスナップショット作成時に求めたもの）
+			int   landY   = Math.round(view.toScreenY(snap.getLandY()));
+			int   hit     = snap.getHitIndex();
+			g.setColor(Color.BLACK);
+			g.drawLine(cursorX, guideY, cursorX, landY); // 落下予測線
+			// 着地点の仮フルーツ（輪郭のみ）
+			g.setColor(GUIDE_GHOST);
+			g.drawOval(cursorX - radius, landY - radius, 2 * radius, 2 * radius);
+			// 最初に触れるフルーツを強調
+			if (hit != -1) drawHitMarker(g, snap, hit);
+			// ガイド用フルーツの描画
+			sprites.begin(g2, view);
+			sprites.draw(g2, type, view.toScreenX(guideX), view.toScreenY(GameManager.DROP_Y));
+			sprites.end(g2);
+		}
+	}
+
+	/**
+	 * 着地時に最初に触れるフルーツへ強調枠を描画
+	 * @param g グラフィックスオブジェクト
+	 * @param snap 描画するスナップショット
+	 * @param index 対象フルーツのスナップショット内の番号
+	 */
+	private void drawHitMarker(Graphics g, GameSnapshot snap, int index) {
+		int radius = Math.round(view.toScreen(config.getRadius(snap.getFruitType(index)))) + 2;
+		int x      = Math.round(view.toScreenX(snap.getFruitX(index))) - radius;
+		int y      = Math.round(view.toScreenY(snap.getFruitY(index))) - radius;
+		g.setColor(GUIDE_GHOST);
+		g.drawOval(x, y, radius * 2, radius * 2);
+		g.drawOval(x - 1, y - 1, radius * 2 + 2, radius * 2 + 2);
+	}
+
+	/** 不透明度0～255それぞれの半透明の赤 */
+	private static Color[] heatColors() {
+		Color[] colors = new Color[256];
+		for (int a = 0; a < colors.length; a++) colors[a] = new Color(255, 0, 0, a);
+		return colors;
+	}
+
+	/**
+	 * 盤面の密度ヒートマップ（半透明の赤）と列の高さの折れ線を描画
+	 * @param g グラフィックスオブジェクト
+	 * @param heatmap BoardAnalyticsが公開した写し（nullなら何もしない）
+	 */
+	void drawHeatmap(Graphics g, BoardAnalytics.HeatmapView heatmap) {
+		if (heatmap == null) return;
+		float cellM = BoardAnalytics.CELL;
+		int   first = Math.max(0, (int)(view.getViewLeft() / cellM));
+		int   last  = Math.min(heatmap.getCols() - 1, (int)(view.getViewRight() / cellM)); // 表示範囲の列のみ
+		for (int c = first; c <= last; c++) {
+			int x0 = Math.round(view.toScreenX(c * cellM)), x1 = Math.round(view.toScreenX((c + 1) * cellM));
+			for (int r = 0; r < heatmap.getRows(); r++) {
+				int alpha = (int)(heatmap.getLevel(c, r) * HEAT_ALPHA);
+				if (alpha == 0) continue;
+				int y0 = Math.round(view.toScreenY((r + 1) * cellM)), y1 = Math.round(view.toScreenY(r * cellM));
+				g.setColor(HEAT_COLORS[alpha]);
+				g.fillRect(x0, y0, x1 - x0, y1 - y0);
+			}
+		}
+		g.setColor(COLUMN_LINE);
+		for (int c = first; c <= last; c++) {
+			int x0 = Math.round(view.toScreenX(c * cellM)), x1 = Math.round(view.toScreenX((c + 1) * cellM));
+			int y  = Math.round(view.toScreenY(heatmap.getHeight(c)));
+			g.drawLine(x0, y, x1, y);
+			if (c < last) g.drawLine(x1, y, x1, Math.round(view.toScreenY(heatmap.getHeight(c + 1))));
+		}
+	}
+
+	/**
+	 * 危険ゾーンにフルーツが留まっている間、ライン上部を赤く点滅させる
+	 * 赤の濃さはゲームオーバーまでの残り時間に応じて強くなる
+	 * @param g グラフィックスオブジェクト
+	 * @param snap 描画するスナップショット
+	 */
+	void drawWarning(Graphics g, GameSnapshot snap) {
+		float level = snap.getDangerLevel();
+		if (level <= 0.0f || snap.isGameOver()) return;
+		int lineY = Math.round(view.toScreenY(GameManager.GAMEOVER_LINE));
+		// 約0.5秒周期で点滅（ステップ数から求めるため、リプレイの書き出しでも同じ見た目になる）
+		boolean blink = (snap.getStep() * 1000L / STEPS_PER_SECOND / WARNING_BLINK) % 2 == 0;
+		int alpha = (int)((blink ? 60 : 30) + 100 * level);
+		g.setColor(new Color(255, 0, 0, alpha));
+		g.fillRect(0, 0, view.getWidth(), lineY); // 危険ゾーン（表示範囲のみ）
+		g.setColor(Color.RED);
+		g.drawLine(0, lineY, view.getWidth(), lineY); // ゲームオーバーライン
+	}
+
+	/**
+	 * ゲームオーバー時の表示を描画
+	 * @param g グラフィックスオブジェクト
+	 * @param snap 描画するスナップショット
+	 */
+	void drawGameOver(Graphics g, GameSnapshot snap) {
+		if (snap.isGameOver()) {
+			String text = "GAME OVER";
+			g.setColor(Color.BLACK);
+			g.setFont(gameOverFont);
+			// フォントメトリクスを使って文字列の幅と高さを取得
+			FontMetrics fm = g.getFontMetrics();
+			int textWidth  = fm.stringWidth(text);
+			int textHeight = fm.getAscent(); // ベースラインから上方向の高さ
+			// 表示範囲の中央に文字列の中心が来るように位置を調整
+			g.drawString(text, (view.getWidth() - textWidth) / 2, (view.getHeight() + textHeight) / 2);
+		}
+	}
+
+	/** 物理ワールドから画面への変換（setView後の値） */
+	ViewTransform getView() {
+		return view;
+	}
+}
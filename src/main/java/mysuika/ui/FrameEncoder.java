@@ -0,0 +1,237 @@
+package mysuika.ui;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * FrameEncoder クラス
+ *
+ * 描画済みのフレームを受け取り、裏のパイプラインで画像ファイルに書き出すエンコーダーです。
+ *
+ * 書き出し形式:
+ * - PNG_SEQUENCE : 連番のPNGファイル（frame-000000.png ...）。各フレームを複数スレッドで並列に圧縮する
+ * - GIF          : アニメーションGIF（無限ループ）。256色への変換を複数スレッドで並列に行い、
+ *                  ファイルへの追記だけをフレーム順に1つのスレッドで行う
+ *
+ * submitは書き出し待ちのフレームが一定数を超えると空くまで待つため、
+ * 描画側がエンコードより速くてもメモリを使い果たしません。
+ * 書き出し中のエラーは次のsubmitかcloseでIOExceptionとして通知します。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class FrameEncoder implements AutoCloseable {
+	/**
+	 * 書き出し形式
+	 */
+	public enum Format {
+		PNG_SEQUENCE,
+		GIF
+	}
+
+	private static final Future<BufferedImage> END = CompletableFuture.completedFuture(null); // 書き出し終了の合図
+
+	private final Format                              format;   // 書き出し形式
+	private final Path                                output;   // 書き出し先（PNGはディレクトリ、GIFはファイル）
+	private final int                                 delayMs;  // フレームの表示時間（ミリ秒、GIF用）
+	private final ExecutorService                     workers;  // フレームを変換・圧縮するスレッド
+	private final BlockingQueue<Future<BufferedImage>> pending; // 変換中のフレーム（投入順）
+	private final Thread                              writer;   // フレーム順にファイルへ書き出すスレッド
+	private volatile Throwable                        error;    // 書き出し中に起きた最初のエラー
+	private int                                       frames;   // 投入したフレーム数
+	private ImageWriter                               gifWriter; // GIFの書き出し（GIF以外はnull）
+	private ImageOutputStream                         gifStream;
+	private int                                       gifFrames; // 書き出したGIFのフレーム数（書き出し用スレッドのみ）
+
+	/**
+	 * コンストラクタ
+	 * @param format 書き出し形式
+	 * @param output 書き出し先（PNG_SEQUENCEはディレクトリ、GIFはファイル）
+	 * @param fps 1秒あたりのフレーム数（GIFの表示時間に使う）
+	 * @param threads 変換・圧縮に使うスレッド数
+	 * @throws IOException 書き出し先を用意できない場合
+	 */
+	public FrameEncoder(Format format, Path output, int fps, int threads) throws IOException {
+		this.format  = format;
+		this.output  = output;
+		this.delayMs = 1000 / Math.max(1, fps);
+		this.workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+			Thread t = new Thread(r, "frame-encoder");
+			t.setDaemon(true);
+			return t;
+		});
+		this.pending = new ArrayBlockingQueue<>(Math.max(1, threads) * 2);
+		if (format == Format.PNG_SEQUENCE) {
+			Files.createDirectories(output);
+		} else {
+			Path parent = output.toAbsolutePath().getParent();
+			if (parent != null) Files.createDirectories(parent);
+			Files.deleteIfExists(output);
+			Iterator<ImageWriter> it = ImageIO.getImageWritersByFormatName("gif");
+			this.gifWriter = it.next();
+			this.gifStream = ImageIO.createImageOutputStream(output.toFile());
+			gifWriter.setOutput(gifStream);
+			gifWriter.prepareWriteSequence(null);
+		}
+		this.writer = new Thread(this::writeLoop, "frame-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * フレームを投入する（書き出し待ちが多い場合は空くまで待つ）
+	 * 投入後にフレームの画像を書き換えないこと
+	 * @param frame フレームの画像
+	 * @throws IOException それまでの書き出しでエラーが起きていた場合
+	 */
+	public void submit(BufferedImage frame) throws IOException {
+		checkError();
+		int index = frames++;
+		Future<BufferedImage> task = workers.submit(() -> encode(frame, index));
+		try {
+			pending.put(task);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while queueing frame " + index, e);
+		}
+	}
+
+	/**
+	 * フレームを変換・圧縮する（複数スレッドで並列に実行される）
+	 * @return GIFならファイルに追記する256色の画像、PNGなら書き出し済みのためnull
+	 */
+	private BufferedImage encode(BufferedImage frame, int index) throws IOException {
+		if (format == Format.PNG_SEQUENCE) {
+			ImageIO.write(frame, "png", output.resolve(String.format("frame-%06d.png", index)).toFile());
+			return null;
+		}
+		BufferedImage indexed = new BufferedImage(frame.getWidth(), frame.getHeight(), BufferedImage.TYPE_BYTE_INDEXED);
+		Graphics2D g = indexed.createGraphics();
+		try {
+			g.drawImage(frame, 0, 0, null);
+		} finally {
+			g.dispose();
+		}
+		return indexed;
+	}
+
+	/**
+	 * 変換済みのフレームを投入順に取り出してファイルへ書き出す（書き出し用スレッド）
+	 */
+	private void writeLoop() {
+		try {
+			while (true) {
+				Future<BufferedImage> task = pending.take();
+				if (task == END) break;
+				BufferedImage image = task.get();
+				if (error == null && gifWriter != null) {
+					gifWriter.writeToSequence(new IIOImage(image, null, gifMetadata(image)), null);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			error = e.getCause();
+			drain();
+		} catch (IOException | RuntimeException e) {
+			error = e;
+			drain();
+		}
+	}
+
+	/** エラー後も投入側が待ち続けないよう、残りのフレームを読み捨てる */
+	private void drain() {
+		try {
+			while (pending.take() != END) { /* 読み捨て */ }
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * GIFの1フレーム分のメタデータ（表示時間、最初のフレームのみ無限ループの指定）
+	 */
+	private IIOMetadata gifMetadata(BufferedImage image) throws IOException {
+		IIOMetadata metadata = gifWriter.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), null);
+		String format = metadata.getNativeMetadataFormatName();
+		IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+		IIOMetadataNode control = child(root, "GraphicControlExtension");
+		control.setAttribute("disposalMethod", "none");
+		control.setAttribute("userInputFlag", "FALSE");
+		control.setAttribute("transparentColorFlag", "FALSE");
+		control.setAttribute("delayTime", String.valueOf(Math.max(1, delayMs / 10))); // 1/100秒単位
+		control.setAttribute("transparentColorIndex", "0");
+		if (gifFrames++ == 0) {
+			IIOMetadataNode extensions = child(root, "ApplicationExtensions");
+			IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+			loop.setAttribute("applicationID", "NETSCAPE");
+			loop.setAttribute("authenticationCode", "2.0");
+			loop.setUserObject(new byte[] { 1, 0, 0 }); // 0回 = 無限ループ
+			extensions.appendChild(loop);
+		}
+		metadata.setFromTree(format, root);
+		return metadata;
+	}
+
+	/** 指定名の子ノード（なければ追加する） */
+	private static IIOMetadataNode child(IIOMetadataNode root, String name) {
+		for (int i = 0; i < root.getLength(); i++) {
+			if (root.item(i).getNodeName().equalsIgnoreCase(name)) return (IIOMetadataNode) root.item(i);
+		}
+		IIOMetadataNode node = new IIOMetadataNode(name);
+		root.appendChild(node);
+		return node;
+	}
+
+	private void checkError() throws IOException {
+		Throwable e = error;
+		if (e instanceof IOException) throw (IOException) e;
+		if (e != null) throw new IOException(e);
+	}
+
+	/**
+	 * 投入済みのフレームをすべて書き出してから終了する
+	 * @throws IOException 書き出し中にエラーが起きていた場合
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			pending.put(END);
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			workers.shutdown();
+			if (gifWriter != null) {
+				if (error == null) gifWriter.endWriteSequence();
+				gifStream.close();
+				gifWriter.dispose();
+			}
+		}
+		checkError();
+	}
+
+	// 以下、ゲッター
+	public int getFrames() {
+		return frames;
+	}
+}
@@ -0,0 +1,69 @@
+package mysuika.ui;
+
+import java.util.Arrays;
+
+/**
+ * FrameStats クラス
+ *
+ * 直近のフレーム時間をリングバッファに記録し、平均・最大・99パーセンタイルを集計します。
+ * 記録は描画ループのスレッドから、読み出しは表示時に行います。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class FrameStats {
+	private static final int WINDOW = 240; // 集計するフレーム数（約4秒分）
+
+	private final long[] frameNanos = new long[WINDOW]; // フレーム時間（ナノ秒）
+	private final long[] sorted     = new long[WINDOW]; // パーセンタイル計算用の作業領域
+	private int          count;                         // 記録済みフレーム数（WINDOWで頭打ち）
+	private int          head;                          // 次に書き込む位置
+
+	/**
+	 * 1フレーム分の時間を記録
+	 * @param nanos フレーム時間（ナノ秒）
+	 */
+	public synchronized void record(long nanos) {
+		frameNanos[head] = nanos;
+		head = (head + 1) % WINDOW;
+		if (count < WINDOW) count++;
+	}
+
+	/** 平均フレーム時間（ミリ秒） */
+	public synchronized double getAverageMillis() {
+		if (count == 0) return 0.0;
+		long sum = 0;
+		for (int i = 0; i < count; i++) sum += frameNanos[i];
+		return sum / (double) count / 1_000_000.0;
+	}
+
+	/** 最大フレーム時間（ミリ秒） */
+	public synchronized double getMaxMillis() {
+		long max = 0;
+		for (int i = 0; i < count; i++) max = Math.max(max, frameNanos[i]);
+		return max / 1_000_000.0;
+	}
+
+	/** 99パーセンタイルのフレーム時間（ミリ秒） */
+	public synchronized double getP99Millis() {
+		if (count == 0) return 0.0;
+		System.arraycopy(frameNanos, 0, sorted, 0, count);
+		Arrays.sort(sorted, 0, count);
+		return sorted[Math.min(count - 1, (int)(count * 0.99))] / 1_000_000.0;
+	}
+
+	/** 平均フレームレート */
+	public double getFps() {
+		double avg = getAverageMillis();
+		return avg == 0.0 ? 0.0 : 1000.0 / avg;
+	}
+
+	/**
+	 * 表示用の1行テキスト
+	 * @return 例: "60fps avg 16.7ms p99 17.1ms max 18.0ms"
+	 */
+	public String summary() {
+		return String.format("%.0ffps avg %.1fms p99 %.1fms max %.1fms",
+				getFps(), getAverageMillis(), getP99Millis(), getMaxMillis());
+	}
+}
@@ -0,0 +1,137 @@
+package mysuika.ui;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+
+import mysuika.logic.GameManager;
+import mysuika.model.GameConfig;
+
+/**
+ * FruitSprites クラス
+ *
+ * フルーツの絵（本体の塗りと枠線）を、種別ごとに実際の画素の大きさで描いておいた画像のキャッシュです。
+ * 描画のたびに円をアンチエイリアス付きで塗る代わりに、画像を画素単位の位置にそのまま貼ります。
+ * 画像は1mあたりの画素数（ViewTransform.getVersion）が変わったとき、つまりパネルの大きさか
+ * 画面の拡大率が変わったときだけ作り直します。
+ *
+ * 画像は拡大・縮小せずに貼るため、Hi-DPI（4Kなど）の画面でもぼやけません。
+ * 貼るときはGraphicsの変換から拡大率を外し、画素の座標で貼ります（begin～end の間）。
+ *
+ * 絵の大きさは盤面の調整値（GameConfig）の半径に合わせます。
+ *
+ * 描画スレッドから使います。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class FruitSprites {
+	private static final int PADDING = 2; // 枠線とアンチエイリアスのための余白（画素）
+
+	private final GameConfig       radii;        // 種別ごとの半径を持つ調整値
+	private final BufferedImage[]  images;       // 種別ごとの絵
+	private final AffineTransform  device  = new AffineTransform(); // 画素の座標で貼るための変換（使い回す）
+	private AffineTransform        saved;        // beginで退避した変換
+	private int                    version = -1; // 絵を作ったときの ViewTransform の番号
+	private GraphicsConfiguration  config;       // 絵を作ったときの描画先
+	private double                 pixelScale;   // 絵を作ったときの1mあたりの画素数
+	private double                 deviceScale = 1.0; // begin時の論理ピクセルあたりの画素数
+	private double                 deviceX, deviceY;   // begin時の原点の画素の座標
+
+	/**
+	 * コンストラクタ
+	 * @param radii 種別ごとの半径を持つ調整値
+	 */
+	public FruitSprites(GameConfig radii) {
+		this.radii  = radii;
+		this.images = new BufferedImage[radii.getTypeCount()];
+	}
+
+	/**
+	 * 貼り始める（拡大率が変わっていれば絵を作り直し、Graphicsの変換を画素の座標に切り替える）
+	 * @param g 描画先
+	 * @param view 座標変換
+	 */
+	public void begin(Graphics2D g, ViewTransform view) {
+		GraphicsConfiguration gc = g.getDeviceConfiguration();
+		if (view.getVersion() != version || gc != config) rebuild(gc, view);
+		saved       = g.getTransform();
+		deviceScale = saved.getScaleX();
+		deviceX     = saved.getTranslateX();
+		deviceY     = saved.getTranslateY();
+		device.setToTranslation(0, 0);
+		g.setTransform(device);
+	}
+
+	/**
+	 * フルーツの絵を貼る（begin～endの間に呼ぶ）
+	 * @param g 描画先
+	 * @param type フルーツ種別
+	 * @param x 中心の画面上のX座標（論理ピクセル）
+	 * @param y 中心の画面上のY座標（論理ピクセル）
+	 */
+	public void draw(Graphics2D g, int type, float x, float y) {
+		BufferedImage image = images[type];
+		int half = image.getWidth() / 2;
+		g.drawImage(image, (int) Math.round(deviceX + x * deviceScale) - half,
+				(int) Math.round(deviceY + y * deviceScale) - half, null);
+	}
+
+	/**
+	 * 貼り終える（Graphicsの変換を元に戻す）
+	 * @param g 描画先
+	 */
+	public void end(Graphics2D g) {
+		g.setTransform(saved);
+		saved = null;
+	}
+
+	/** 現在の拡大率で全種別の絵を作り直す */
+	private void rebuild(GraphicsConfiguration gc, ViewTransform view) {
+		this.version    = view.getVersion();
+		this.config     = gc;
+		this.pixelScale = view.getPixelScale();
+		float stroke = (float) Math.max(1.0, view.getDeviceScale()); // 枠線の太さ（論理ピクセルで1px相当）
+		for (int type = 0; type < images.length; type++) {
+			double diameter = 2 * radii.getRadius(type) * pixelScale;
+			int    size     = (int) Math.ceil(diameter) + 2 * PADDING;
+			if (size % 2 == 1) size++; // 中心が画素の境目に来るように偶数にする
+			BufferedImage image = gc != null
+					? gc.createCompatibleImage(size, size, Transparency.TRANSLUCENT)
+					: new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+			Graphics2D g = image.createGraphics();
+			try {
+				g.setComposite(AlphaComposite.Src);
+				g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+				Ellipse2D.Double circle = new Ellipse2D.Double((size - diameter) / 2, (size - diameter) / 2, diameter, diameter);
+				g.setColor(GameManager.TYPES[type].getColor());
+				g.fill(circle); // 本体
+				g.setComposite(AlphaComposite.SrcOver);
+				g.setColor(Color.BLACK);
+				g.setStroke(new BasicStroke(stroke));
+				g.draw(circle); // 枠線
+			} finally {
+				g.dispose();
+			}
+			images[type] = image;
+		}
+	}
+
+	// 以下、ゲッター
+	/** 絵を作ったときの1mあたりの画素数 */
+	public double getPixelScale() {
+		return pixelScale;
+	}
+	/** 種別の絵（作り直し前はnull） */
+	public BufferedImage getImage(int type) {
+		return images[type];
+	}
+}
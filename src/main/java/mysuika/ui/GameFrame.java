@@ -14,6 +14,7 @@ import mysuika.logic.GameManager;
  * スイカゲームのメインウィンドウを構成するクラスです。
  * ゲーム画面（GamePanel）とサイドパネル（SidePanel）をレイアウトし、
  * ウィンドウ全体の外観を構築します
+ * ウィンドウの大きさは変更でき、広げた分はゲーム画面が受け持ちます（フィールドは拡大して描画）。
  * 
  * 
  * 作成者: 岡本
@@ -33,11 +34,12 @@ public class GameFrame extends JFrame {
 	public GameFrame(GameManager manager) {
 		this.manager = manager;
 		setTitle("スイカゲーム ver 1.1");        // ウィンドウタイトル
-		setSize(600, 600);                        // ウィンドウサイズ
 		setDefaultCloseOperation(EXIT_ON_CLOSE);  //閉じるボタン
-		setResizable(false);                      //ウィンドウサイズ変更の不可
-		setLocationRelativeTo(null);              // 画面中央に表示
+		setResizable(true);                       //ウィンドウサイズ変更の可
 		setupPanels();                            // ゲームの初期化
+		pack();                                   // ゲーム画面がちょうど400×600pxになる大きさ
+		setMinimumSize(getSize());                // 既定の大きさより小さくはしない
+		setLocationRelativeTo(null);              // 画面中央に表示
 	}
 	
 	/**
@@ -52,7 +54,6 @@ public class GameFrame extends JFrame {
 		sidePanel.setPreferredSize(new Dimension(200, 600));
 		// メインパネルのレイアウト設定
 		this.contentPane = new JPanel(new BorderLayout());
-		contentPane.setPreferredSize(new Dimension(600, 600));
 		contentPane.add(gamePanel, BorderLayout.CENTER);
 		contentPane.add(sidePanel, BorderLayout.EAST);
 		add(contentPane);
@@ -60,6 +61,23 @@ public class GameFrame extends JFrame {
 		gamePanel.setFocusable(true);
 	}
 
+	/**
+	 * 対戦モードで、相手の盤面をサイドパネルの右に並べて表示する
+	 * @param opponent 相手の盤面のパネル
+	 */
+	public void showOpponent(OpponentPanel opponent) {
+		opponent.setPreferredSize(new Dimension(400, 600));
+		contentPane.remove(sidePanel);
+		JPanel right = new JPanel(new BorderLayout());
+		right.add(sidePanel, BorderLayout.WEST);
+		right.add(opponent, BorderLayout.CENTER);
+		contentPane.add(right, BorderLayout.EAST);
+		setMinimumSize(null);
+		pack();
+		setMinimumSize(getSize());
+		setLocationRelativeTo(null);
+	}
+
 	//以下、ゲッター
 	public SidePanel getSidePanel() {
 		return sidePanel;
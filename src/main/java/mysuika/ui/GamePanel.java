@@ -1,23 +1,31 @@
 package mysuika.ui;
 
+import java.awt.BorderLayout;
+import java.awt.Canvas;
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import javax.swing.JPanel;
 import javax.swing.Timer;
 import javax.swing.border.LineBorder;
 
-import org.jbox2d.common.Vec2;
-import org.jbox2d.dynamics.Body;
-
+import mysuika.StartupProbe;
+import mysuika.TraceRecorder;
 import mysuika.logic.GameManager;
+import mysuika.logic.GameSnapshot;
+import mysuika.logic.InputCommand;
+import mysuika.logic.InputQueue;
+import mysuika.logic.RewindBuffer;
+import mysuika.logic.SimulationLoop;
 
 /**
  * GamePanel クラス
@@ -26,6 +34,22 @@ import mysuika.logic.GameManager;
  *  * ゲーム画面やサイドパネルのレイアウト、ユーザー入力（マウス・キーボード）、
  * ゲームループ（Timerによる定期更新）など、UI全体の制御をここで行います。
  * 
+ * システムプロパティ mysuika.render=active を指定すると、Canvasと専用スレッドによる
+ * アクティブレンダリング（ActiveRenderLoop）で描画します。未指定時は従来通り
+ * TimerとpaintComponentによる描画です。上限フレームレートは mysuika.fpsCap で指定します。
+ * mysuika.simThread=true を指定すると、従来の描画のまま物理演算を専用スレッド（SimulationLoop）で進めます。
+ * 描画はいずれの方式でもGameManagerが公開したスナップショットだけを読みます。
+ * 
+ * mysuika.board=mega で起動した横長のフィールド（メガボード）では、表示範囲を横スクロールし、
+ * 画面外のフルーツは描画しません。複数のガイドをTABキーで切り替えて使えます。
+ * 
+ * mysuika.rewind=秒数 で起動した練習モードでは、Zキーで物理演算を止めて直近の数秒を巻き戻せます。
+ * 左右キー（Shiftで大きく）かマウスの左右で戻す先を選び、Zキー・Enterキー・クリックでそこから再開します。
+ * 
+ * ウィンドウの大きさに合わせてフィールドを拡大・縮小して描画します（座標の変換は ViewTransform）。
+ * ガイドの位置とスクロール量は、画面の大きさによらないよう、既定の拡大率（1mあたり30px）での
+ * フィールド左端からのピクセル数で持ちます。
+ * 
  * フィールド内の全フルーツの描画、ガイド表示、落下予測線、ゲームオーバー表示など
  * ゲームのビジュアルを一括して管理します。
  * マウスの左右移動でガイド位置を動かすことができます。
@@ -34,158 +58,455 @@ import mysuika.logic.GameManager;
  * 作成日: 2025-06-02
  */
 public class GamePanel extends JPanel {
-	public  static final float SCALE = 30;     // 物理ワールドの1mを30pxに変換するスケール係数
 	private static final int   FPS = 16;       // 約60fpsでゲームを更新するタイマー間隔（ミリ秒）
 	private static final int   CURSOR_X = 200; // ガイドのX座標の初期値をゲーム画面中央に
+	private static final int   FPS_CAP  = 60;  // アクティブレンダリング時の上限フレームレートの既定値
+	private static final int   MEGA_CURSORS  = 4;  // メガボードでのガイドの数の既定値
+	private static final int   SCROLL_STEP   = 40; // マウスホイール1目盛りのスクロール量（既定の拡大率でのpx）
+	private static final int   SCROLL_MARGIN = 60; // ガイドを画面端からこれだけ離して表示する（既定の拡大率でのpx）
+	private static final Color SCROLL_BAR   = new Color(0, 0, 0, 80);  // 表示範囲の目安の色
+	private static final int   SCRUB_STEP   = 6;  // 巻き戻し中の左右キー1回で動かすステップ数（0.1秒、Shiftで10倍）
+	private static final int   SCRUB_MARGIN = 20; // 巻き戻しの時間軸の左右の余白（px）
+	private static final Color SCRUB_BAR    = new Color(0, 0, 0, 60);   // 巻き戻しの時間軸の色
+	private static final Color SCRUB_MARK   = new Color(0, 90, 200);    // 巻き戻しの時間軸の現在位置の色
+	private static final Font  METRICS_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11); // 計測値表示用のフォント
 	private GameManager        manager;        // ゲーム全体の管理クラスへの参照
-	private int                cursorX;        // ガイドのX座標（ピクセル単位）
+	private volatile int[]     cursors;        // ガイド（落下カーソル）ごとのX座標（フィールド左端から、既定の拡大率でのpx単位）
+	private volatile int       activeCursor;   // 操作中のガイドの番号
+	private volatile int       viewX;          // 表示範囲の左端（フィールド左端から、既定の拡大率でのpx単位、横スクロール量）
+	private volatile boolean   showMetrics;    // 計測値（フレーム時間・入力遅延）を表示するか
+	private volatile boolean   showHeatmap;    // 盤面の密度ヒートマップと列の高さを表示するか
+	private volatile boolean   scrubbing;      // 巻き戻し中か（練習モード）
+	private volatile int       scrubStep;      // 巻き戻し中に選んでいるステップ
 	private Timer              timer;          // ゲームループ用タイマー
+	private ActiveRenderLoop   activeLoop;     // アクティブレンダリング時のゲームループ（未使用時はnull）
+	private SimulationLoop     simLoop;        // 物理演算を専用スレッドで進める場合のループ（未使用時はnull）
+	private final FieldRenderer renderer;      // フィールドの描画（描画スレッドからのみ使う）
+	private final ViewTransform inputView = new ViewTransform(); // マウス位置の変換（イベントディスパッチスレッドからのみ使う）
 	
 	/**
 	 * コンストラクタ
 	 * @param manager ゲームロジック管理クラス
 	 */
 	GamePanel(GameManager manager) {
-		this.manager = manager;
-		this.cursorX = CURSOR_X; // 初期位置は中央
+		this.manager  = manager;
+		this.renderer = new FieldRenderer(manager.getWorld().getConfig());
+		setupCursors();
 		setBackground(Color.WHITE);// 背景色
-		setBorder(new LineBorder(Color.GRAY, 2)); // 枠線
-		setupListeners();
-		setupTimer();
+		if ("active".equals(System.getProperty("mysuika.render"))) {
+			setupActiveRendering();
+		} else {
+			setBorder(new LineBorder(Color.GRAY, 2)); // 枠線
+			setFocusTraversalKeysEnabled(false); // TABキーを入力として受け取る
+			setupListeners(this);
+			if (Boolean.getBoolean("mysuika.simThread")) setupSimulationThread();
+			else setupTimer();
+		}
+	}
+	
+	/**
+	 * ガイドの初期配置
+	 * 通常は画面中央に1つ。メガボードではフィールド全体に等間隔で複数並べる
+	 * （数はシステムプロパティ mysuika.cursors で指定）
+	 */
+	private void setupCursors() {
+		int fieldPx = getFieldUnits();
+		int count   = Integer.getInteger("mysuika.cursors", isMegaBoard() ? MEGA_CURSORS : 1);
+		this.cursors = new int[Math.max(1, count)];
+		if (cursors.length == 1 && !isMegaBoard()) {
+			cursors[0] = CURSOR_X; // 初期位置は中央
+		} else {
+			for (int i = 0; i < cursors.length; i++) cursors[i] = fieldPx * (2 * i + 1) / (2 * cursors.length);
+		}
+		this.activeCursor = 0;
+		this.viewX        = 0;
+	}
+	
+	/**
+	 * アクティブレンダリングの準備
+	 * パネル全体を覆うCanvasを配置し、入力もCanvasで受け取る
+	 */
+	private void setupActiveRendering() {
+		Canvas canvas = new Canvas();
+		canvas.setIgnoreRepaint(true); // OSからの再描画要求は無視（ループが描く）
+		canvas.setFocusable(true);
+		setLayout(new BorderLayout());
+		add(canvas, BorderLayout.CENTER);
+		canvas.setFocusTraversalKeysEnabled(false); // TABキーを入力として受け取る
+		setupListeners(canvas);
+		this.showMetrics = true; // アクティブレンダリング時は計測値を最初から表示
+		int fpsCap = Integer.getInteger("mysuika.fpsCap", FPS_CAP);
+		this.activeLoop = new ActiveRenderLoop(manager, this, canvas, fpsCap);
+	}
+	
+	/**
+	 * 表示可能になった時点でアクティブレンダリングのループを開始
+	 */
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		if (activeLoop != null) {
+			activeLoop.start();
+			getComponent(0).requestFocusInWindow(); // Canvasにフォーカスを当てる
+		}
+		if (simLoop != null) simLoop.start();
 	}
 	
 	/**
 	 * 入力リスナー登録（マウス・キーボード）
+	 * @param target 入力を受け取るコンポーネント
 	 */
-	private void setupListeners() {
+	private void setupListeners(Component target) {
 		// --- ユーザー入力リスナーの設定 ---
 		// マウスクリックでフルーツを落下
-		addMouseListener(new MouseAdapter() {
+		// 入力はコマンドとしてキューに積み、ゲームループが次のステップで適用する
+		InputQueue input = manager.getInput();
+		target.addMouseListener(new MouseAdapter() {
 			@Override
 			public void mouseClicked(MouseEvent e) {
-				manager.dropFruit();//ドロップメソッドを呼ぶ
+				if (scrubbing) {
+					resumeFromRewind(); // 選んだステップから再開
+					return;
+				}
+				input.submit(InputCommand.Type.DROP, 0); // ドロップを予約
 			}
 		});
 		// マウスの左右移動でガイド位置をリアルタイム更新
-		addMouseMotionListener(new MouseMotionAdapter() {
+		target.addMouseMotionListener(new MouseMotionAdapter() {
 			@Override
 			public void mouseMoved(MouseEvent e) {
-				if (manager.siGameOver()) return; // ゲームオーバー時は操作不可
-				cursorX = e.getX();
-				// 画面端からはみ出さないように制限
-				cursorX = Math.max(0, Math.min(getWidth() - 1, cursorX));
-				repaint(); // 再描画
+				if (scrubbing) {
+					scrubTo(toScrubStep(e.getX())); // 巻き戻し中は戻す先を選ぶ
+					return;
+				}
+				if (manager.getSnapshot().isGameOver()) return; // ゲームオーバー時は操作不可
+				input.submit(InputCommand.Type.MOVE_TO, toFieldUnits(e.getX())); // フィールド上の座標に変換
 			}
 		});
+		// マウスホイールで横スクロール（フィールドが画面より広い場合）
+		target.addMouseWheelListener(e -> scrollTo(viewX + e.getWheelRotation() * SCROLL_STEP));
 		// --- キーボード操作の設定 ---
 		// ・下キーでフルーツを落下
 		// ・左右キーでガイド（落下位置）を移動
-		addKeyListener(new KeyAdapter() {
+		// ・F3キーで計測値（入力遅延など）の表示を切り替え
+		// ・Hキーで盤面の密度ヒートマップと列の高さの表示を切り替え
+		// ・Rキーで新しいゲームを始める（ゲームオーバー後も有効）
+		// ・TABキーで操作するガイドを切り替え（ガイドが複数ある場合）
+		// ・F9キーで直前の処理時間の記録をChrome trace JSONで保存（Shift+F9はcollapsed stack形式）
+		// ・Zキーで巻き戻しの開始・再開（練習モードのみ。巻き戻し中は左右キーで戻す先を選び、Enterキーでも再開）
+		target.addKeyListener(new KeyAdapter() {
 			@Override
 			public void keyPressed(KeyEvent e) {
+				if (scrubbing) {
+					int step = e.isShiftDown() ? SCRUB_STEP * 10 : SCRUB_STEP;
+					switch (e.getKeyCode()) {
+					case KeyEvent.VK_LEFT  -> scrubTo(scrubStep - step);
+					case KeyEvent.VK_RIGHT -> scrubTo(scrubStep + step);
+					case KeyEvent.VK_Z, KeyEvent.VK_ENTER -> resumeFromRewind();
+					case KeyEvent.VK_R     -> restart();
+					}
+					return;
+				}
 				switch (e.getKeyCode()) {
-				case KeyEvent.VK_DOWN  -> manager.dropFruit();
-				case KeyEvent.VK_LEFT  -> manager.moveGuideLeft();
-				case KeyEvent.VK_RIGHT -> manager.moveGuideRight();
+				case KeyEvent.VK_DOWN  -> input.submit(InputCommand.Type.DROP, 0);
+				case KeyEvent.VK_LEFT  -> input.submit(InputCommand.Type.MOVE_LEFT, 0);
+				case KeyEvent.VK_RIGHT -> input.submit(InputCommand.Type.MOVE_RIGHT, 0);
+				case KeyEvent.VK_F3    -> showMetrics = !showMetrics;
+				case KeyEvent.VK_H     -> toggleHeatmap();
+				case KeyEvent.VK_R     -> restart();
+				case KeyEvent.VK_TAB   -> input.submit(InputCommand.Type.SELECT_CURSOR, (activeCursor + 1) % cursors.length);
+				case KeyEvent.VK_Z     -> startRewind();
+				case KeyEvent.VK_F9    -> dumpTrace(e.isShiftDown() ? TraceRecorder.Format.COLLAPSED : TraceRecorder.Format.CHROME_JSON);
 			}}
 		});
 	}
 
+	/**
+	 * 処理時間の記録をファイルに書き出す（描画を止めないよう裏で行う）
+	 * @param format 書き出し形式
+	 */
+	private void dumpTrace(TraceRecorder.Format format) {
+		CompletableFuture.runAsync(() -> {
+			try {
+				System.out.println("trace saved: " + TraceRecorder.dump(format));
+			} catch (IOException ex) {
+				ex.printStackTrace();
+			}
+		});
+	}
+
 	/**
 	 * ゲームループ（タイマー）
 	 * FPS間隔で物理演算・描画・ゲームオーバー判定を繰り返す
 	 */
 	private void setupTimer() {
 		this.timer = new Timer(FPS, e -> {
-			manager.getWorld().step(); // 物理ワールド更新
-			repaint();                 // ゲーム画面再描画
-			manager.isGameOver();      // ゲームオーバー判定
+			manager.tick(); // 物理ワールド更新とゲームオーバー判定
+			repaint();      // ゲーム画面再描画
 		});
 		timer.start();
 		requestFocusInWindow(); // gamePanelにフォーカスを当てる
 	}
 	
+	/**
+	 * ゲームループ（専用スレッド）
+	 * 物理演算とゲームオーバー判定は専用スレッドで進め、ステップごとに両パネルの再描画を依頼する
+	 * （repaintはどのスレッドから呼んでもよく、描画自体はイベントディスパッチスレッドで行われる）
+	 */
+	private void setupSimulationThread() {
+		this.simLoop = new SimulationLoop(manager, manager::repaintPanels);
+		requestFocusInWindow();
+	}
+	
 	/**
 	 * パネルの描画処理
 	 * フィールド内の全フルーツ、ガイド、落下予測線、ゲームオーバー表示などを描画
 	 */
 	@Override
 	protected void paintComponent(Graphics g) {
+		long t = TraceRecorder.begin();
 		super.paintComponent(g);
-		drawFruits(g);   // フィールド内のフルーツを描画
-		drawGuide(g);    // ガイド（落下予測線と仮フルーツ）を描画
-		drawGameOver(g); // ゲームオーバー表示
+		drawField(g);
+		TraceRecorder.end(TraceRecorder.Span.PAINT_FIELD, t);
+		manager.getInputLatency().presented(); // 入力遅延の計測（表示完了）
+		StartupProbe.framePainted();           // 起動時間の計測（最初のフレームのみ）
 	}
 	
 	/**
-	 * フィールド内の全フルーツを描画
+	 * フィールドの描画内容（paintComponentとアクティブレンダリングで共通）
 	 * @param g グラフィックスオブジェクト
 	 */
-	private void drawFruits(Graphics g) {
-		for (Body body : manager.getWorld().getActiveFruitBodies()) {
-			Vec2  pos        = body.getPosition();
-			Color fruitColor = GameManager.TYPES[(int)body.getUserData()].getColor();
-			int radius       = (int)(GameManager.TYPES[(int)body.getUserData()].getRadius() * SCALE);
-			int diameter     = 2 * radius;
-			int x            = (int)(pos.x * SCALE) - radius;
-			int y            = (int)(getHeight() - pos.y * SCALE) - radius;
-			g.setColor(fruitColor);
-			g.fillOval(x, y, diameter, diameter); // 本体
-			g.setColor(Color.BLACK);
-			g.drawOval(x, y, diameter, diameter); // 枠線
-		}
+	void drawField(Graphics g) {
+		GameSnapshot snap = manager.getSnapshot(); // 1フレームの間は同じスナップショットを使う
+		renderer.setView(g, getWidth(), getHeight(), viewX / ViewTransform.REFERENCE_SCALE);
+		if (showHeatmap) renderer.drawHeatmap(g, manager.getWorld().getAnalytics().getView()); // フルーツの下に描く
+		renderer.drawFruits(g, snap);   // フィールド内のフルーツを描画
+		drawCursors(g);                 // 操作中でないガイドの位置
+		renderer.drawGuide(g, snap);    // ガイド（落下予測線と仮フルーツ）を描画
+		renderer.drawWarning(g, snap);  // 危険ゾーンの警告表示
+		drawScrollBar(g);               // 表示範囲の目安
+		drawScrubBar(g);                // 巻き戻しの時間軸（巻き戻し中のみ）
+		renderer.drawGameOver(g, snap); // ゲームオーバー表示
+		drawMetrics(g);                 // 計測値の表示
 	}
 	
 	/**
-	 * ガイド（落下予測線と仮フルーツ）を描画
+	 * 計測値（フレーム時間・入力遅延）を左上に描画（F3キーで切り替え）
 	 * @param g グラフィックスオブジェクト
 	 */
-	private void drawGuide(Graphics g) {
-		// 落下中でなければガイドを描画
-		if (manager.getConst() != -1) {
-			int guideY = GameManager.GUIDE_Y; // 上部から50pxの位置
-			g.setColor(Color.BLACK);
-			g.drawLine(cursorX, guideY, cursorX, getHeight()); // 落下予測線
-			// ガイド用フルーツの描画
-			Color fruitColor = GameManager.TYPES[manager.getConst()].getColor();
-			float scale      = GameManager.TYPES[manager.getConst()].getRadius() * SCALE;
-			int   fX         = (int)(cursorX - scale);
-			int   fY         = (int)(guideY - scale);
-			int   fS         = (int)(scale * 2); // 半径×2
-			g.setColor(fruitColor);
-			g.fillOval(fX, fY, fS, fS); // ガイドフルーツ本体
-			g.setColor(Color.BLACK);
-			g.drawOval(fX, fY, fS, fS); // ガイドフルーツ枠線
-		}
+	private void drawMetrics(Graphics g) {
+		if (!showMetrics) return;
+		g.setColor(Color.DARK_GRAY);
+		g.setFont(METRICS_FONT);
+		if (activeLoop != null) g.drawString(activeLoop.getStatsText(), 6, 14);
+		g.drawString(manager.getInputLatency().summary(), 6, 28);
+	}
+	
+	/**
+	 * 盤面の密度ヒートマップの表示を切り替える（表示中だけ集計の写しを公開させる）
+	 */
+	private void toggleHeatmap() {
+		showHeatmap = !showHeatmap;
+		manager.getWorld().getAnalytics().setPublishing(showHeatmap);
 	}
 	
 	/**
-	 * ゲームオーバー時の表示を描画
+	 * 操作中でないガイドの位置に小さな三角形を描画（ガイドが複数ある場合）
 	 * @param g グラフィックスオブジェクト
 	 */
-	private void drawGameOver(Graphics g) {
-		if (manager.siGameOver()) {
-			g.setColor(Color.BLACK);
-			String text = "GAME OVER";
-			g.setColor(Color.BLACK);
-			g.setFont(new Font("Arial", Font.BOLD, 40));
-			// フォントメトリクスを使って文字列の幅と高さを取得
-			FontMetrics fm = g.getFontMetrics();
-			int textWidth  = fm.stringWidth(text);
-			int textHeight = fm.getAscent(); // ベースラインから上方向の高さ
-			// パネルの中央に文字列の中心が来るように位置を調整
-			g.drawString(text, (getWidth()  - textWidth) / 2, (getHeight() + textHeight) / 2);
+	private void drawCursors(Graphics g) {
+		int[] xs = cursors;
+		if (xs.length == 1) return;
+		ViewTransform view = renderer.getView();
+		int y = Math.round(view.toScreenY(GameManager.DROP_Y));
+		g.setColor(Color.GRAY);
+		for (int i = 0; i < xs.length; i++) {
+			if (i == activeCursor) continue;
+			int x = Math.round(view.toScreenX(xs[i] / ViewTransform.REFERENCE_SCALE));
+			g.fillPolygon(new int[] {x - 6, x + 6, x}, new int[] {y - 10, y - 10, y}, 3);
 		}
 	}
 	
+	/**
+	 * フィールドが画面より広い場合、下端に表示範囲の目安を描画
+	 * @param g グラフィックスオブジェクト
+	 */
+	private void drawScrollBar(Graphics g) {
+		int fieldPx = getFieldUnits();
+		int visible = getVisibleUnits();
+		if (fieldPx <= visible) return;
+		int barX = (int)((long) viewX * getWidth() / fieldPx);
+		int barW = Math.max(8, (int)((long) visible * getWidth() / fieldPx));
+		g.setColor(SCROLL_BAR);
+		g.fillRect(barX, getHeight() - 6, barW, 4);
+	}
+	
+	/**
+	 * 巻き戻し中、下端に巻き戻せる範囲の時間軸と選んでいる位置を描画
+	 * @param g グラフィックスオブジェクト
+	 */
+	private void drawScrubBar(Graphics g) {
+		RewindBuffer rewind = manager.getRewind();
+		if (!scrubbing || rewind == null) return;
+		int from = rewind.getAvailableFrom(), to = rewind.getAvailableTo();
+		if (from < 0) return;
+		int left  = SCRUB_MARGIN, width = getWidth() - 2 * SCRUB_MARGIN, y = getHeight() - 28;
+		int x     = left + (to == from ? width : (int)((long)(scrubStep - from) * width / (to - from)));
+		g.setColor(SCRUB_BAR);
+		g.fillRect(left, y, width, 6);
+		g.setColor(SCRUB_MARK);
+		g.fillRect(x - 2, y - 4, 4, 14);
+		g.setFont(METRICS_FONT);
+		// 動くフルーツが多いと記録が早く押し出されるため、実際に残っている長さも示す
+		g.drawString(String.format("REWIND -%.1fs (%.1fs of %.1fs kept)   <- -> / mouse: select   Z / Enter / click: resume",
+				(to - scrubStep) / 60.0f, (to - from) / 60.0f, rewind.getWindowSteps() / 60.0f), left, y - 8);
+	}
+	
+	/**
+	 * 巻き戻しを始める（練習モードのみ）
+	 * 最新のステップを選んだ状態で物理演算を止める。ゲームオーバーで止まっていたループも、
+	 * 戻す先の切り替えを反映するために再開する
+	 */
+	private void startRewind() {
+		RewindBuffer rewind = manager.getRewind();
+		if (rewind == null || rewind.getAvailableTo() < 0) return;
+		scrubbing = true;
+		scrubTo(rewind.getAvailableTo());
+		resumeLoop();
+	}
+	
+	/**
+	 * 巻き戻し中に戻す先を選ぶ（巻き戻せる範囲に収める）
+	 * @param step 戻す先のステップ
+	 */
+	private void scrubTo(int step) {
+		RewindBuffer rewind = manager.getRewind();
+		int from = rewind.getAvailableFrom(), to = rewind.getAvailableTo();
+		if (from < 0) return;
+		scrubStep = Math.max(from, Math.min(to, step));
+		manager.getInput().submit(InputCommand.Type.REWIND, scrubStep);
+	}
+	
+	/**
+	 * 巻き戻しをやめて、選んだステップから続ける
+	 */
+	private void resumeFromRewind() {
+		scrubbing = false;
+		manager.getInput().submit(InputCommand.Type.RESUME, 0);
+	}
+	
+	/**
+	 * パネル上のX座標を、時間軸上のステップに変換する（巻き戻し中のマウス操作用）
+	 * @param x パネル上のX座標
+	 * @return ステップ
+	 */
+	private int toScrubStep(int x) {
+		RewindBuffer rewind = manager.getRewind();
+		int from = rewind.getAvailableFrom(), to = rewind.getAvailableTo();
+		int width = Math.max(1, getWidth() - 2 * SCRUB_MARGIN);
+		return from + (int)((long)(x - SCRUB_MARGIN) * (to - from) / width);
+	}
+	
 	// 以下、セッターゲッター
+	/**
+	 * 指定位置が見えるように横スクロールする
+	 * @param x フィールド上のX座標（既定の拡大率でのpx単位）
+	 */
+	private void follow(int x) {
+		int margin  = SCROLL_MARGIN;
+		int visible = getVisibleUnits();
+		if (x - margin < viewX) scrollTo(x - margin);
+		else if (x + margin > viewX + visible) scrollTo(x + margin - visible);
+	}
+	
+	/**
+	 * 表示範囲を移動する（フィールドの外には出ない）
+	 * @param x 表示範囲の左端（フィールド上のX座標、既定の拡大率でのpx単位）
+	 */
+	private void scrollTo(int x) {
+		this.viewX = Math.max(0, Math.min(getFieldUnits() - getVisibleUnits(), x));
+		repaint();
+	}
+	
+	/**
+	 * パネル上のX座標をフィールド上のX座標に変換する（マウス入力用）
+	 * @param screenX パネル上のX座標（論理ピクセル）
+	 * @return フィールド上のX座標（既定の拡大率でのpx単位）
+	 */
+	private int toFieldUnits(int screenX) {
+		inputView.setView(getWidth(), getHeight(), getFieldWidth(), 1.0, viewX / ViewTransform.REFERENCE_SCALE);
+		return Math.round(inputView.toWorldX(screenX) * ViewTransform.REFERENCE_SCALE);
+	}
+	
+	/** フィールド全体の幅（m単位） */
+	private float getFieldWidth() {
+		return manager.getWorld().getConfig().getFieldWidth();
+	}
+	
+	/** フィールド全体の幅（既定の拡大率でのpx単位） */
+	public int getFieldUnits() {
+		return (int)(getFieldWidth() * ViewTransform.REFERENCE_SCALE);
+	}
+	
+	/** パネルに表示できる幅（既定の拡大率でのpx単位） */
+	private int getVisibleUnits() {
+		return (int)(getWidth() * ViewTransform.REFERENCE_SCALE / ViewTransform.scaleFor(getWidth(), getHeight(), getFieldWidth()));
+	}
+	
+	/** メガボード（横長フィールド）で起動しているか */
+	private static boolean isMegaBoard() {
+		return "mega".equals(System.getProperty("mysuika.board"));
+	}
+	
+	/**
+	 * 操作するガイドを切り替える
+	 * @param index ガイドの番号
+	 */
+	public void selectCursor(int index) {
+		if (index < 0 || index >= cursors.length) return;
+		this.activeCursor = index;
+		follow(cursors[index]);
+	}
 	public int getCursorX() {
-		return cursorX;
+		return cursors[activeCursor];
 	}
 	public void setCursorX(int newX) {
-		this.cursorX = newX;
+		this.cursors[activeCursor] = newX;
+		follow(newX);
 	}
 	public Timer getTimer() {
 		return timer;
 	}
+	/**
+	 * 新しいゲームを始める
+	 * 初期化はゲームループのスレッドで行うため、入力キューに積んでから止まっていたループを再開する
+	 */
+	private void restart() {
+		scrubbing = false;
+		manager.getInput().submit(InputCommand.Type.RESTART, 0);
+		resumeLoop();
+	}
+	/**
+	 * 止まっていたゲームループを再開する
+	 */
+	private void resumeLoop() {
+		if (activeLoop != null) activeLoop.resumeSimulation();
+		else if (simLoop != null) simLoop.resume();
+		else timer.start();
+	}
+	/**
+	 * ゲームループを停止する（アクティブレンダリング時・専用スレッド時は物理演算のみ停止し描画は続ける）
+	 */
+	public void stopLoop() {
+		if (activeLoop != null) activeLoop.pauseSimulation();
+		else if (simLoop != null) simLoop.pause();
+		else timer.stop();
+	}
+	/**
+	 * アクティブレンダリング時のフレーム統計
+	 * @return フレーム統計（従来の描画方式ではnull）
+	 */
+	public FrameStats getFrameStats() {
+		return activeLoop == null ? null : activeLoop.getStats();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package mysuika.ui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import mysuika.logic.GameManager;
+import mysuika.logic.GameSnapshot;
+
+/**
+ * OffscreenRenderer クラス
+ *
+ * ゲーム画面（フィールドとサイドパネル）を、ウィンドウを作らずにBufferedImageへ描画します。
+ * java.awt.headless=true の環境（画面のないサーバー）でも動作し、リプレイの動画や
+ * バランス調整レポートのサムネイルの書き出しに使います。
+ * 描画内容はGameSnapshotだけを元にするため、ゲームループと別のスレッドからでも描画できます。
+ *
+ * 描画範囲などの作業状態を持つため、1つのインスタンスは1つのスレッドから使います。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class OffscreenRenderer {
+	public  static final int   FIELD_WIDTH = 400; // フィールド部分の幅（px、ゲーム画面と同じ）
+	public  static final int   SIDE_WIDTH  = 200; // サイドパネル部分の幅（px）
+	public  static final int   HEIGHT      = 600; // 画像の高さ（px）
+	private static final Color BORDER      = Color.GRAY; // フィールドの枠線の色
+
+	private final FieldRenderer field;                        // フィールドの描画
+	private final SidePanel     side;                         // サイドパネルの描画内容（画面には表示しない）
+	private final boolean       withSide;                     // サイドパネルも描画するか
+	private int                 viewX;                        // 表示範囲の左端（メガボード用、既定の拡大率でのpx単位）
+
+	/**
+	 * コンストラクタ
+	 * @param manager ゲームロジック管理クラス（ハイスコアの参照用）
+	 * @param withSide サイドパネルも描画するか（falseならフィールドのみの画像）
+	 */
+	public OffscreenRenderer(GameManager manager, boolean withSide) {
+		this.field    = new FieldRenderer(manager.getWorld().getConfig());
+		this.side     = new SidePanel(manager);
+		this.withSide = withSide;
+		side.setSize(SIDE_WIDTH, HEIGHT);
+	}
+
+	/**
+	 * スナップショットを1枚の画像に描画する
+	 * @param snap 描画するスナップショット（GameManager.setCaptureFruits(true) で作られたもの）
+	 * @return 描画した画像（呼ぶたびに新しく作るため、別スレッドでの書き出し中も書き換わらない）
+	 */
+	public BufferedImage render(GameSnapshot snap) {
+		BufferedImage image = new BufferedImage(getWidth(), HEIGHT, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		try {
+			g.setColor(Color.WHITE);
+			g.fillRect(0, 0, FIELD_WIDTH, HEIGHT);
+			g.setClip(0, 0, FIELD_WIDTH, HEIGHT);
+			field.draw(g, snap, FIELD_WIDTH, HEIGHT, viewX / ViewTransform.REFERENCE_SCALE);
+			g.setClip(null);
+			g.setColor(BORDER);
+			g.drawRect(0, 0, FIELD_WIDTH - 1, HEIGHT - 1); // 枠線
+			if (withSide) {
+				g.translate(FIELD_WIDTH, 0);
+				g.setColor(side.getBackground());
+				g.fillRect(0, 0, SIDE_WIDTH, HEIGHT);
+				side.drawInfo(g, snap);
+			}
+		} finally {
+			g.dispose();
+		}
+		return image;
+	}
+
+	// 以下、ゲッター・セッター
+	/** 画像の幅（px） */
+	public int getWidth() {
+		return withSide ? FIELD_WIDTH + SIDE_WIDTH : FIELD_WIDTH;
+	}
+	/**
+	 * 表示範囲を横スクロールする（メガボード用）
+	 * @param viewX 表示範囲の左端（フィールド左端から、既定の拡大率でのpx単位）
+	 */
+	public void setViewX(int viewX) {
+		this.viewX = Math.max(0, viewX);
+	}
+}
@@ -0,0 +1,71 @@
+package mysuika.ui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+
+import javax.swing.JPanel;
+import javax.swing.Timer;
+import javax.swing.border.LineBorder;
+
+import mysuika.logic.GameSnapshot;
+import mysuika.model.GameConfig;
+import mysuika.net.RemoteBoard;
+import mysuika.net.RemoteFrame;
+import mysuika.net.VersusLink;
+
+/**
+ * OpponentPanel クラス
+ *
+ * 対戦モードで、相手の盤面を自分の盤面の横に表示するパネルです。
+ * 相手から届いた盤面（RemoteBoard）を描画のたびに補間して描くため、
+ * 届く間隔（1秒に20回程度）より滑らかに動きます。
+ * 上部に相手のスコアと、送った・受け取ったお邪魔フルーツの数を表示します。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class OpponentPanel extends JPanel {
+	private static final int  FPS        = 16; // 再描画の間隔（ミリ秒）
+	private static final Font LABEL_FONT = new Font(Font.MONOSPACED, Font.BOLD, 13); // 相手の情報の表示用フォント
+	private static final Color WAITING   = Color.GRAY; // 接続待ちの表示色
+
+	private final RemoteBoard   board;    // 相手の盤面
+	private final VersusLink    link;     // 相手との通信路（接続状態の表示用）
+	private final FieldRenderer renderer = new FieldRenderer(new GameConfig()); // 盤面の描画（対戦は通常の広さの盤面、描画スレッドからのみ使う）
+
+	/**
+	 * コンストラクタ
+	 * @param board 相手の盤面
+	 * @param link 相手との通信路
+	 */
+	public OpponentPanel(RemoteBoard board, VersusLink link) {
+		this.board = board;
+		this.link  = link;
+		setBackground(Color.WHITE);
+		setBorder(new LineBorder(Color.GRAY, 1, false));
+		new Timer(FPS, e -> repaint()).start();
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		super.paintComponent(g);
+		g.setFont(LABEL_FONT);
+		RemoteFrame latest = board.getLatest();
+		if (latest == null) {
+			g.setColor(WAITING);
+			g.drawString(link.isClosed() ? "DISCONNECTED" : link.isConnected() ? "CONNECTED" : "WAITING FOR OPPONENT", 10, 20);
+			return;
+		}
+		GameSnapshot snap = board.snapshot(System.nanoTime());
+		renderer.setView(g, getWidth(), getHeight(), 0.0f);
+		renderer.drawFruits(g, snap);   // 補間した相手のフルーツ
+		renderer.drawWarning(g, snap);  // 相手の危険ゾーンの警告
+		renderer.drawGameOver(g, snap); // 相手のゲームオーバー表示
+		g.setColor(Color.DARK_GRAY);
+		g.setFont(LABEL_FONT);
+		g.drawString(String.format("OPPONENT %d", snap.getScore()), 10, 20);
+		g.drawString(String.format("garbage sent %d / received %d", board.getGarbageSent(), board.getGarbageReceived()), 10, 38);
+		if (link.isClosed()) g.drawString("DISCONNECTED", 10, 56);
+	}
+}
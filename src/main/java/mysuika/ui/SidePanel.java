@@ -4,11 +4,15 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import java.util.List;
 
 import javax.swing.JPanel;
 
+import mysuika.TraceRecorder;
 import mysuika.logic.GameManager;
+import mysuika.logic.GameSnapshot;
 
 /**
  * SidePanel クラス
@@ -22,12 +26,16 @@ import mysuika.logic.GameManager;
 public class SidePanel extends JPanel {
 
 	private final static Font FONT             = new Font("Yu Gothic UI Mono", Font.BOLD, 23);
+	private final static Font SMALL_FONT       = new Font("Yu Gothic UI Mono", Font.PLAIN, 13); // 連鎖数などの補足表示用
 	private final static int  NEXT_LABEL       = 10;  // ネクストのラベルのY座標
 	private final static int  NEXT_Y           = 80;  // ネクストのフルーツ円の中心のY座標
+	private final static int  UPCOMING_ICON    = 16;  // その先の先読みフルーツのアイコンの直径
+	private final static int  UPCOMING_GAP     = 22;  // 先読みフルーツのアイコンの縦の間隔
 	private final static int  FRUITRING_LABEL  = 130; // シンカの輪のラベルのY座標
 	private final static int  FRUITRING_Y      = 180; // シンカの輪のドーナツのY座標
 	private final static int  SCORE_LABEL      = 310; // スコアのラベルのY座標
 	private final static int  SCORE_Y          = 350; // スコア数値のY座標
+	private final static int  COMBO_Y          = 380; // 連鎖数・スコア毎秒のY座標
 	private final static int  HIGHSCORE_LABEL  = 400; // ハイスコアのラベルのY座標
 	private final static int  HIGHSCORE_Y      = 440; // ハイスコアランキングのY座標
 
@@ -49,6 +57,22 @@ public class SidePanel extends JPanel {
 		this.manager = manager;
 	}
 	
+	/**
+	 * フォントを事前に読み込む（起動時に裏のスレッドから呼ぶ）
+	 * 最初の描画時にフォントファイルの読み込みで待たされないよう、
+	 * 表示する文字の字形を一度計測しておく
+	 */
+	public static void preloadFonts() {
+		BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		try {
+			g.setFont(FONT);
+			g.getFontMetrics().stringWidth("ネクストシンカの輪スコアハイスコア位: 0123456789");
+		} finally {
+			g.dispose();
+		}
+	}
+	
 	/**
 	 * パネルの描画処理
 	 * NEXTフルーツ、スコア、進化の輪（全フルーツ一覧）を描画します。
@@ -57,19 +81,48 @@ public class SidePanel extends JPanel {
 	@Override
 	protected void paintComponent(Graphics g) {
 		
+		long t = TraceRecorder.begin();
 		super.paintComponent(g);
-		drawNextSection(g);      // NEXTフルーツ表示
-		drawFruitRingSection(g); // 進化の輪表示
-		drawScoreSection(g);     // スコア表示
-		drawHighScoreSection(g); // ハイスコア表示
+		drawInfo(g, manager.getSnapshot());
+		TraceRecorder.end(TraceRecorder.Span.PAINT_SIDE, t);
+	}
+	
+	/**
+	 * パネルの描画内容（paintComponentと画面を持たない画像の書き出しで共通）
+	 * @param g グラフィックスオブジェクト
+	 * @param snap 描画するスナップショット
+	 */
+	void drawInfo(Graphics g, GameSnapshot snap) {
+		drawNextSection(g, snap); // NEXTフルーツ表示
+		drawFruitRingSection(g);  // 進化の輪表示
+		drawScoreSection(g, snap); // スコア表示
+		drawHighScoreSection(g);  // ハイスコア表示
 	}
 	/**
 	 * NEXTフルーツのラベルとグラフィックを描画
 	 * @param g グラフィックスオブジェクト
+	 * @param snap 描画するスナップショット
 	 */
-	private void drawNextSection(Graphics g) {
+	private void drawNextSection(Graphics g, GameSnapshot snap) {
 		viewText(g, "ネクスト", NEXT_LABEL); // ラベル描画
-		drawNextFruit(g, NEXT_Y); // NEXTフルーツのグラフィック描画
+		drawNextFruit(g, snap.getNext(), NEXT_Y); // NEXTフルーツのグラフィック描画
+		drawUpcoming(g, snap);                     // その先の先読みフルーツ
+	}
+	
+	/**
+	 * NEXTフルーツより先の先読みフルーツを、右側に小さなアイコンで縦に並べて描画
+	 * @param g グラフィックスオブジェクト
+	 * @param snap 描画するスナップショット
+	 */
+	private void drawUpcoming(Graphics g, GameSnapshot snap) {
+		int x = getWidth() - UPCOMING_ICON - 12;
+		int y = NEXT_Y - (snap.getUpcomingCount() - 1) * UPCOMING_GAP / 2;
+		for (int i = 1; i < snap.getUpcomingCount(); i++, y += UPCOMING_GAP) {
+			g.setColor(GameManager.TYPES[snap.getUpcoming(i)].getColor());
+			g.fillOval(x, y, UPCOMING_ICON, UPCOMING_ICON); // 本体
+			g.setColor(Color.BLACK);
+			g.drawOval(x, y, UPCOMING_ICON, UPCOMING_ICON); // 枠線
+		}
 	}
 	
 	/**
@@ -82,12 +135,19 @@ public class SidePanel extends JPanel {
 	}
 	
 	/**
-	 * スコアのラベルと現在スコアを描画
+	 * スコアのラベルと現在スコア、連鎖数とスコア毎秒を描画
 	 * @param g グラフィックスオブジェクト
+	 * @param snap 描画するスナップショット
 	 */
-	private void drawScoreSection(Graphics g) {
+	private void drawScoreSection(Graphics g, GameSnapshot snap) {
 		viewText(g, "スコア", SCORE_LABEL);// ラベル描画
-		viewText(g, "" + manager.getScore(), SCORE_Y); // スコア数値描画
+		viewText(g, "" + snap.getScore(), SCORE_Y); // スコア数値描画
+		String combo = snap.getCombo() > 1 ? snap.getCombo() + "連鎖  " : "";
+		g.setFont(SMALL_FONT);
+		FontMetrics fm = g.getFontMetrics();
+		String text = combo + String.format("%.0f点/秒  最大%d連鎖", snap.getPointsPerSecond(), snap.getBestCombo());
+		g.setColor(Color.DARK_GRAY);
+		g.drawString(text, (getWidth() - fm.stringWidth(text)) / 2, fm.getAscent() + COMBO_Y);
 	}
 	
 	/**
@@ -102,19 +162,20 @@ public class SidePanel extends JPanel {
 	/**
 	 * NEXTフルーツのグラフィックを中央に描画
 	 * @param g グラフィックスオブジェクト
+	 * @param next 次に出現するフルーツ型
 	 */
-	private void drawNextFruit(Graphics g, int y) {
+	private void drawNextFruit(Graphics g, int next, int y) {
 		// 中心位置を決める（例：画面中央 + 高さ70px）
 		int cx = getWidth() / 2;
 		int cy = y; // 中心のy位置を固定（好みで調整）
 		// フルーツの半径（ピクセル）
-		float nextf = GameManager.TYPES[manager.getNext()].getRadius() * GamePanel.SCALE;
+		float nextf = GameManager.TYPES[next].getRadius() * ViewTransform.REFERENCE_SCALE;
 		int r = (int)nextf;
 		// 描画のために左上座標を計算（中心から半径分ずらす）
 		int fx = cx - r;
 		int fy = cy - r;
 		int fd = r * 2;
-		g.setColor(GameManager.TYPES[manager.getNext()].getColor());
+		g.setColor(GameManager.TYPES[next].getColor());
 		g.fillOval(fx, fy, fd, fd); // 本体
 		g.setColor(Color.BLACK);
 		g.drawOval(fx, fy, fd, fd); // 枠線
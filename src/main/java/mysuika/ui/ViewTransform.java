@@ -0,0 +1,144 @@
+package mysuika.ui;
+
+/**
+ * ViewTransform クラス
+ *
+ * 物理ワールドの座標（m単位、Y軸は上向き）と、パネル上の座標（論理ピクセル、Y軸は下向き）の変換です。
+ * フィールドの描画・ガイドの位置・マウス入力の変換はすべてこの変換を通します。
+ *
+ * 拡大率は、パネルに VIEW_WIDTH × VIEW_HEIGHT（m）の範囲がちょうど収まる大きさにします
+ * （既定の 400×600px のパネルで REFERENCE_SCALE ＝ 1mあたり30px）。
+ * 床はパネルの下端に合わせ、フィールドが表示範囲より狭い場合は左右の余白を等分して中央に置きます。
+ * メガボードのようにフィールドが表示範囲より広い場合は、高さで拡大率を決めて横スクロールします。
+ *
+ * Hi-DPIの画面では、論理ピクセルから実際の画素への拡大（deviceScale）はGraphicsの変換に含まれます。
+ * 画像（フルーツの絵など）を画素単位で用意する場合は getPixelScale を使います。
+ *
+ * パネルの大きさ・画面の拡大率・スクロール量が変わったときだけ値を計算し直します（変わらない間は何もしません）。
+ * 1mあたりの画素数が変わると getVersion が増えるため、拡大率ごとのキャッシュ（FruitSprites など）は
+ * これを見て作り直します。
+ * 描画スレッドから使います。
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class ViewTransform {
+	public  static final float REFERENCE_SCALE = 30.0f;  // 既定の大きさでの1mあたりの論理ピクセル数
+	public  static final float VIEW_WIDTH      = 400 / REFERENCE_SCALE; // 表示する幅（m単位、フィールドの幅＋余白）
+	public  static final float VIEW_HEIGHT     = 600 / REFERENCE_SCALE; // 表示する高さ（m単位）
+
+	private int    width, height;      // パネルの大きさ（論理ピクセル）
+	private float  fieldWidth;         // フィールドの幅（m単位）
+	private double deviceScale = 1.0;  // 論理ピクセルあたりの画素数（Hi-DPIで1より大きい）
+	private float  scale = REFERENCE_SCALE; // 1mあたりの論理ピクセル数
+	private float  originX;            // フィールド左端の画面上のX座標（スクロール量を含む、論理ピクセル）
+	private float  viewLeft;           // 表示範囲の左端（m単位、横スクロール量）
+	private int    version;            // 1mあたりの画素数が変わるたびに増える番号（キャッシュの作り直しの判定用）
+
+	/**
+	 * パネルの大きさ・フィールドの幅・スクロール量を設定する（変わっていなければ何もしない）
+	 * @param width パネルの幅（論理ピクセル）
+	 * @param height パネルの高さ（論理ピクセル）
+	 * @param fieldWidth フィールドの幅（m単位）
+	 * @param deviceScale 論理ピクセルあたりの画素数（Graphicsの変換の拡大率）
+	 * @param left 表示範囲の左端（m単位、フィールドの外に出ないように制限する）
+	 */
+	public void setView(int width, int height, float fieldWidth, double deviceScale, float left) {
+		if (width != this.width || height != this.height || fieldWidth != this.fieldWidth || deviceScale != this.deviceScale) {
+			float s = scaleFor(width, height, fieldWidth);
+			if (s * deviceScale != getPixelScale()) version++;
+			this.width       = width;
+			this.height      = height;
+			this.fieldWidth  = fieldWidth;
+			this.scale       = s;
+			this.deviceScale = deviceScale;
+		} else if (left == viewLeft) {
+			return;
+		}
+		float visible = width / scale;
+		if (fieldWidth <= visible) {
+			viewLeft = 0.0f;
+			originX  = (width - fieldWidth * scale) / 2; // 中央に置く
+		} else {
+			viewLeft = clampLeft(left, fieldWidth, visible);
+			originX  = -viewLeft * scale;
+		}
+	}
+
+	/**
+	 * パネルの大きさに対する1mあたりの論理ピクセル数
+	 * @param width パネルの幅（論理ピクセル）
+	 * @param height パネルの高さ（論理ピクセル）
+	 * @param fieldWidth フィールドの幅（m単位）
+	 * @return 1mあたりの論理ピクセル数
+	 */
+	public static float scaleFor(int width, int height, float fieldWidth) {
+		float s = Math.max(1, height) / VIEW_HEIGHT;
+		if (fieldWidth <= VIEW_WIDTH) s = Math.min(s, Math.max(1, width) / VIEW_WIDTH);
+		return s;
+	}
+
+	/**
+	 * 表示範囲の左端をフィールドの内側に制限する
+	 * @param left 表示範囲の左端（m単位）
+	 * @param fieldWidth フィールドの幅（m単位）
+	 * @param visible 表示範囲の幅（m単位）
+	 * @return 制限後の左端（m単位）
+	 */
+	public static float clampLeft(float left, float fieldWidth, float visible) {
+		return Math.max(0.0f, Math.min(fieldWidth - visible, left));
+	}
+
+	/** X座標（m単位）を画面上のX座標（論理ピクセル）に変換 */
+	public float toScreenX(float x) {
+		return originX + x * scale;
+	}
+	/** Y座標（m単位）を画面上のY座標（論理ピクセル）に変換 */
+	public float toScreenY(float y) {
+		return height - y * scale;
+	}
+	/** 長さ（m単位）を画面上の長さ（論理ピクセル）に変換 */
+	public float toScreen(float length) {
+		return length * scale;
+	}
+	/** 画面上のX座標（論理ピクセル）をX座標（m単位）に変換 */
+	public float toWorldX(float screenX) {
+		return (screenX - originX) / scale;
+	}
+
+	// 以下、ゲッター
+	public int getWidth() {
+		return width;
+	}
+	public int getHeight() {
+		return height;
+	}
+	/** 1mあたりの論理ピクセル数 */
+	public float getScale() {
+		return scale;
+	}
+	/** 1mあたりの画素数（Hi-DPIの拡大を含む） */
+	public double getPixelScale() {
+		return scale * deviceScale;
+	}
+	/** 論理ピクセルあたりの画素数 */
+	public double getDeviceScale() {
+		return deviceScale;
+	}
+	/** 表示範囲の左端（m単位） */
+	public float getViewLeft() {
+		return viewLeft;
+	}
+	/** 表示範囲の右端（m単位） */
+	public float getViewRight() {
+		return viewLeft + width / scale;
+	}
+	/** フィールドが表示範囲より広いか（横スクロールが必要か） */
+	public boolean isScrollable() {
+		return fieldWidth > width / scale;
+	}
+	/** 1mあたりの画素数（パネルの大きさか画面の拡大率）が変わるたびに増える番号 */
+	public int getVersion() {
+		return version;
+	}
+}
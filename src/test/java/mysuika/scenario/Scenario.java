@@ -0,0 +1,193 @@
+package mysuika.scenario;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Random;
+
+import mysuika.logic.GameManager;
+import mysuika.model.GameConfig;
+import mysuika.physics.PhysicsWorld;
+
+/**
+ * Scenario クラス
+ *
+ * 回帰テストの1つの場面です。乱数の種を固定した画面なしのゲームで、台本（Script）どおりに
+ * フルーツの種類と落下位置を指定して落とし、最後の状態（スコア・合体回数・ゲームオーバーのステップなど）と
+ * 1ステップあたりの時間・メモリ確保量を Outcome にまとめます。
+ *
+ * 台本は Driver を通してゲームを進めます。
+ * - drop(type, x)  : 指定の種類のフルーツを x に落とし、盤面が落ち着くまで早送りする（GameManager.fastForward）
+ * - play(drops)    : 種の決まった乱数の位置に、抽選どおりの種類を落とし、着地するまで1ステップずつtickする
+ * - rewind(steps)  : 巻き戻し用の記録から指定のステップ数だけ前の状態に戻す（GameManager.rewindTo）
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class Scenario {
+	public  static final int   SETTLE_LIMIT = 600;  // 1回の落下で早送りする物理ステップ数の上限
+	private static final int   LAND_LIMIT   = 600;  // playで1回の落下の着地を待つステップ数の上限
+	private static final float WALL_HALF    = 0.1f; // 壁の厚みの半分（壁の内側までの距離、m単位）
+
+	private final String name;   // 場面の名前（ゴールデンファイルの名前にも使う）
+	private final long   seed;   // 乱数の種
+	private final GameConfig config; // 調整値（実行のたびに新しい物理ワールドに渡す。変更しないこと）
+	private final Script script; // 台本
+
+	/**
+	 * コンストラクタ
+	 * @param name 場面の名前
+	 * @param seed 乱数の種（フルーツ型の抽選とplayの落下位置に使う）
+	 * @param script 台本
+	 */
+	public Scenario(String name, long seed, Script script) {
+		this(name, seed, new GameConfig(), script);
+	}
+
+	/**
+	 * コンストラクタ
+	 * @param name 場面の名前
+	 * @param seed 乱数の種（フルーツ型の抽選とplayの落下位置に使う）
+	 * @param config 調整値（盤面の集計は止める）
+	 * @param script 台本
+	 */
+	public Scenario(String name, long seed, GameConfig config, Script script) {
+		this.name   = name;
+		this.seed   = seed;
+		this.config = config.setAnalyticsInterval(0);
+		this.script = script;
+	}
+
+	/**
+	 * 新しいゲームで台本を最後まで実行する
+	 * @return 結果
+	 */
+	public Outcome run() {
+		PhysicsWorld physics = new PhysicsWorld(config);
+		GameManager  manager = new GameManager(physics, seed);
+		Driver       driver  = new Driver(manager, new Random(~seed));
+		long allocStart = allocatedBytes();
+		long start      = System.nanoTime();
+		script.play(driver);
+		long nanos = System.nanoTime() - start;
+		long alloc = allocatedBytes() - allocStart;
+		int  steps = physics.getFruitState().getStep();
+		return new Outcome(manager.getScore(), physics.getMergeCount(), manager.getScoreEngine().getMergesByType().clone(),
+				physics.getMaxType(), manager.getScoreEngine().getBestCombo(), manager.getDropCount(), steps,
+				manager.siGameOver() ? steps : -1,
+				steps == 0 ? 0.0 : nanos / 1e3 / steps, steps == 0 ? 0 : alloc / steps);
+	}
+
+	/** このスレッドがこれまでに確保したメモリ量（計測できないJVMでは0） */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return 0;
+		return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 台本
+	 */
+	public interface Script {
+		void play(Driver driver);
+	}
+
+	/**
+	 * 台本からゲームを進めるための操作
+	 */
+	public static class Driver {
+		private final GameManager manager;
+		private final Random      random; // playの落下位置の抽選用
+
+		Driver(GameManager manager, Random random) {
+			this.manager = manager;
+			this.random  = random;
+		}
+
+		/**
+		 * 指定の種類のフルーツを落とし、盤面が落ち着くまで早送りする
+		 * @param type フルーツ種別
+		 * @param x 落下位置（0.0＝左の壁際～1.0＝右の壁際）
+		 * @return ゲームオーバーでなければtrue
+		 */
+		public boolean drop(int type, float x) {
+			if (manager.siGameOver()) return false;
+			manager.setConst(type);
+			manager.dropFruitAt(toWorldX(type, x));
+			manager.fastForward(SETTLE_LIMIT);
+			return !manager.siGameOver();
+		}
+
+		/**
+		 * 抽選どおりの種類のフルーツを乱数の位置に落とし、着地するまで1ステップずつtickすることを繰り返す
+		 * @param drops 落とす回数
+		 */
+		public void play(int drops) {
+			for (int i = 0; i < drops && !manager.siGameOver() && !manager.isDropping(); i++) { // 着地しないまま上限に達したら止める
+				manager.dropFruitAt(toWorldX(manager.getConst(), random.nextFloat()));
+				for (int n = 0; n < LAND_LIMIT && manager.isDropping() && !manager.siGameOver(); n++) manager.tick();
+			}
+		}
+
+		/**
+		 * 巻き戻し用の記録から指定のステップ数だけ前の状態に戻し、落下中なら着地するまでtickする
+		 * （巻き戻せるステップ数を指定した設定の場面のみ）
+		 * @param steps 戻すステップ数
+		 */
+		public void rewind(int steps) {
+			int step = manager.getWorld().getFruitState().getStep() - steps;
+			if (!manager.rewindTo(step)) throw new IllegalStateException("cannot rewind to step " + step);
+			for (int n = 0; n < LAND_LIMIT && manager.isDropping() && !manager.siGameOver(); n++) manager.tick();
+		}
+
+		/** 壁にめり込まない範囲の位置に変換する（m単位） */
+		private float toWorldX(int type, float x) {
+			float r     = manager.getWorld().getConfig().getRadius(type);
+			float inner = manager.getWorld().getConfig().getFieldWidth() - 2 * WALL_HALF; // 壁の内側の幅
+			return WALL_HALF + r + Math.max(0.0f, Math.min(1.0f, x)) * (inner - 2 * r);
+		}
+	}
+
+	/**
+	 * 1回の実行の結果
+	 * 展開で決まる値（スコアなど）と、計測で揺れる値（1ステップの時間・メモリ確保量）を分けて持つ
+	 */
+	public static class Outcome {
+		final int    score, merges, maxType, bestCombo, drops, steps, gameOverStep;
+		final int[]  mergesByType;
+		final double stepMicros;    // 1ステップの平均時間（マイクロ秒）
+		final long   allocPerStep;  // 1ステップあたりのメモリ確保量（バイト）
+
+		Outcome(int score, int merges, int[] mergesByType, int maxType, int bestCombo, int drops, int steps,
+				int gameOverStep, double stepMicros, long allocPerStep) {
+			this.score        = score;
+			this.merges       = merges;
+			this.mergesByType = mergesByType;
+			this.maxType      = maxType;
+			this.bestCombo    = bestCombo;
+			this.drops        = drops;
+			this.steps        = steps;
+			this.gameOverStep = gameOverStep;
+			this.stepMicros   = stepMicros;
+			this.allocPerStep = allocPerStep;
+		}
+
+		/** 展開で決まる値をゴールデンファイルの形式（キーと値）で並べる */
+		String[][] facts() {
+			return new String[][] {
+				{ "score",          String.valueOf(score) },
+				{ "merges",         String.valueOf(merges) },
+				{ "merges_by_type", Arrays.toString(mergesByType).replaceAll("[\\[\\] ]", "") },
+				{ "max_type",       String.valueOf(maxType) },
+				{ "best_combo",     String.valueOf(bestCombo) },
+				{ "drops",          String.valueOf(drops) },
+				{ "steps",          String.valueOf(steps) },
+				{ "game_over_step", String.valueOf(gameOverStep) },
+			};
+		}
+	}
+}
@@ -0,0 +1,201 @@
+package mysuika.scenario;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import mysuika.model.GameConfig;
+
+/**
+ * ScenarioSuite クラス
+ *
+ * 物理演算と合体処理の回帰テストです（画面なしで実行、JUnitなどのライブラリは使いません）。
+ * 場面（Scenario）ごとに台本どおりにゲームを進め、結果をゴールデンファイルと照らし合わせます。
+ * - 展開で決まる値（スコア・合体回数・種別ごとの合体回数・最大の種別・最大連鎖・落下回数・ステップ数・
+ *   ゲームオーバーのステップ）は完全に一致すること
+ * - 1ステップあたりのメモリ確保量は、ゴールデンファイルの予算（budget.alloc_per_step）以下であること
+ * - 1ステップの平均時間は、ゴールデンファイルの予算（budget.step_us）以下であること
+ * 1つでも外れたら終了コード1で終了するため、ビルド（./build.sh test）が失敗します。
+ * 時間は計算機や負荷によって倍ほど揺れるため、予算は計測値の TIME_HEADROOM 倍（短い場面は TIME_FLOOR）にしてあります。
+ *
+ * 各場面は RUNS 回実行し、展開で決まる値がすべての回で同じことも確かめます（再現性の確認）。
+ * 時間は最初の回（JITの準備運転）を除いた最小値、メモリ確保量は最後の回の値で比べます。
+ * 遅い計算機では -Dmysuika.test.budgetScale=2.0 のように予算を一律に緩められます。
+ *
+ * 物理演算や合体処理を意図して変えた場合は --update でゴールデンファイルを書き直し、
+ * 差分を確かめてからコミットします（予算は書き直さず、新しい場面の場合のみ計測値から決めます）。
+ *
+ * 使い方:
+ *   java -ea -cp build/classes:build/test-classes:lib/jbox2d-library-2.2.1.1.jar mysuika.scenario.ScenarioSuite
+ *        [ゴールデンファイルのディレクトリ=src/test/resources/scenarios] [--update] [場面の名前...]
+ *
+ * 作成者: 岡本
+ * 作成日: 2026-10-19
+ */
+public class ScenarioSuite {
+	private static final int    RUNS          = 3;    // 1つの場面を実行する回数
+	private static final double TIME_HEADROOM = 3.0;  // 新しい場面の時間の予算（計測値の倍率）
+	private static final double ALLOC_HEADROOM = 1.5; // 新しい場面のメモリ確保量の予算（計測値の倍率）
+	private static final double TIME_FLOOR    = 100.0; // 新しい場面の時間の予算の下限（マイクロ秒、短い場面の揺らぎ分）
+	private static final long   ALLOC_FLOOR   = 512;  // 新しい場面のメモリ確保量の予算の下限（バイト）
+	private static final String STEP_BUDGET   = "budget.step_us";         // 1ステップの平均時間の予算のキー
+	private static final String ALLOC_BUDGET  = "budget.alloc_per_step";  // 1ステップあたりのメモリ確保量の予算のキー
+
+	/**
+	 * 場面の一覧（落下位置は 0.0＝左の壁際～1.0＝右の壁際）
+	 */
+	static List<Scenario> scenarios() {
+		List<Scenario> list = new ArrayList<>();
+		// 同じ位置に種別を1つずつ上げながら落とし、チェリーから順に合体を積み上げる
+		list.add(new Scenario("cascade", 1L, d -> {
+			d.drop(0, 0.5f);
+			d.drop(0, 0.5f);
+			for (int type = 1; type <= 6; type++) d.drop(type, 0.5f);
+		}));
+		// 中央に大きい順に積んだ上に同じ種別を落とし、合体してできたフルーツを次々に合体させる（5段の連鎖）
+		// 真上から落とすので塔は崩れず、合体後のフルーツは真下の同じ種別に触れる
+		list.add(new Scenario("chain", 2L, d -> {
+			for (int type = 4; type >= 0; type--) d.drop(type, 0.5f);
+			d.drop(0, 0.5f);
+		}));
+		// スイカを2つ重ねて消す（スイカ同士の合体）
+		list.add(new Scenario("watermelon-clear", 3L, d -> {
+			d.drop(10, 0.5f);
+			d.drop(10, 0.5f);
+			d.drop(9, 0.2f);
+			d.drop(9, 0.8f);
+		}));
+		// 合体を止めた設定で、左右の壁際に種別を交互に変えながら積み上げる（壁際での積み重なりと静止判定）
+		list.add(new Scenario("wall-stack", 4L, new GameConfig().setMerging(false), d -> {
+			for (int i = 0; i < 12; i++) {
+				d.drop(i % 2 == 0 ? 2 : 4, 0.0f);
+				d.drop(i % 2 == 0 ? 3 : 1, 1.0f);
+			}
+		}));
+		// 合体を止めた設定で大きいフルーツを落とし続け、あふれさせる（ゲームオーバー判定）
+		list.add(new Scenario("overflow", 5L, new GameConfig().setMerging(false), d -> {
+			for (int i = 0; i < 60 && d.drop(5 + i % 3, (i % 5) / 4.0f); i++) { }
+		}));
+		// 抽選どおりの種別を乱数の位置に落とす通常の進め方（1ステップずつtick）
+		list.add(new Scenario("random-play", 6L, d -> d.play(150)));
+		// 通常の進め方の途中で2秒巻き戻し、記録を捨てた先から続ける（練習モードの巻き戻し）
+		list.add(new Scenario("rewind", 7L, new GameConfig().setRewindSteps(300), d -> {
+			d.play(30);
+			d.rewind(120);
+			d.play(30);
+		}));
+		return list;
+	}
+
+	public static void main(String[] args) throws IOException {
+		Path         dir    = Paths.get("src/test/resources/scenarios");
+		boolean      update = false;
+		List<String> only   = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.equals("--update")) update = true;
+			else if (arg.contains("/")) dir = Paths.get(arg); // パスの区切りを含むものはディレクトリ
+			else only.add(arg);
+		}
+		double scale = Double.parseDouble(System.getProperty("mysuika.test.budgetScale", "1.0"));
+
+		int failures = 0, count = 0;
+		for (Scenario scenario : scenarios()) {
+			if (!only.isEmpty() && !only.contains(scenario.getName())) continue;
+			count++;
+			Path file = dir.resolve(scenario.getName() + ".golden");
+			List<String> errors = new ArrayList<>();
+			Scenario.Outcome outcome = runAll(scenario, errors);
+			Map<String, String> golden = Files.exists(file) ? read(file) : new LinkedHashMap<>();
+			if (update) {
+				write(file, scenario.getName(), outcome, golden);
+				System.out.printf("UPDATED %s%n", file);
+				continue;
+			}
+			if (golden.isEmpty()) errors.add("missing golden file " + file + " (run with --update)");
+			else check(outcome, golden, scale, errors);
+			System.out.printf(Locale.ROOT, "%s %-18s score=%d merges=%d steps=%d game_over_step=%d %.1fus/step %dB/step%n",
+					errors.isEmpty() ? "PASS" : "FAIL", scenario.getName(), outcome.score, outcome.merges, outcome.steps,
+					outcome.gameOverStep, outcome.stepMicros, outcome.allocPerStep);
+			for (String error : errors) System.out.println("    " + error);
+			if (!errors.isEmpty()) failures++;
+		}
+		System.out.printf("%d scenarios, %d failed%n", count, failures);
+		if (failures > 0 || count == 0) System.exit(1);
+	}
+
+	/**
+	 * 場面を RUNS 回実行し、展開が毎回同じかを確かめる
+	 * @return 最小の時間と最後のメモリ確保量を持つ結果
+	 */
+	private static Scenario.Outcome runAll(Scenario scenario, List<String> errors) {
+		Scenario.Outcome first = scenario.run(), best = null, last = first;
+		for (int i = 1; i < RUNS; i++) {
+			last = scenario.run();
+			if (!same(first, last)) errors.add("run " + (i + 1) + " differs from run 1 (nondeterministic)");
+			if (best == null || last.stepMicros < best.stepMicros) best = last;
+		}
+		if (best == null) return first;
+		return new Scenario.Outcome(best.score, best.merges, best.mergesByType, best.maxType, best.bestCombo,
+				best.drops, best.steps, best.gameOverStep, best.stepMicros, last.allocPerStep);
+	}
+
+	/** 展開で決まる値が同じか */
+	private static boolean same(Scenario.Outcome a, Scenario.Outcome b) {
+		String[][] fa = a.facts(), fb = b.facts();
+		for (int i = 0; i < fa.length; i++) if (!fa[i][1].equals(fb[i][1])) return false;
+		return true;
+	}
+
+	/** 結果をゴールデンファイルと照らし合わせる */
+	private static void check(Scenario.Outcome outcome, Map<String, String> golden, double scale, List<String> errors) {
+		for (String[] fact : outcome.facts()) {
+			String expected = golden.get(fact[0]);
+			if (!fact[1].equals(expected)) errors.add(fact[0] + ": expected " + expected + ", got " + fact[1]);
+		}
+		String step  = golden.get(STEP_BUDGET);
+		String alloc = golden.get(ALLOC_BUDGET);
+		if (step != null && outcome.stepMicros > Double.parseDouble(step) * scale) {
+			errors.add(String.format(Locale.ROOT, "step time %.1fus exceeds budget %sus", outcome.stepMicros, step));
+		}
+		if (alloc != null && outcome.allocPerStep > Long.parseLong(alloc) * scale) {
+			errors.add(String.format(Locale.ROOT, "allocation %dB/step exceeds budget %sB/step", outcome.allocPerStep, alloc));
+		}
+	}
+
+	/** ゴールデンファイルを読む（「キー=値」の行、#から始まる行は注釈） */
+	private static Map<String, String> read(Path file) throws IOException {
+		Map<String, String> map = new LinkedHashMap<>();
+		for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+			line = line.trim();
+			int eq = line.indexOf('=');
+			if (line.isEmpty() || line.startsWith("#") || eq < 0) continue;
+			map.put(line.substring(0, eq).trim(), line.substring(eq + 1).trim());
+		}
+		return map;
+	}
+
+	/** ゴールデンファイルを書く（予算は既にあればそのまま残す） */
+	private static void write(Path file, String name, Scenario.Outcome outcome, Map<String, String> old) throws IOException {
+		Files.createDirectories(file.getParent());
+		String step  = old.getOrDefault(STEP_BUDGET,
+				String.format(Locale.ROOT, "%.0f", Math.max(TIME_FLOOR, Math.ceil(outcome.stepMicros * TIME_HEADROOM))));
+		String alloc = old.getOrDefault(ALLOC_BUDGET,
+				String.valueOf(Math.max(ALLOC_FLOOR, (long) Math.ceil(outcome.allocPerStep * ALLOC_HEADROOM))));
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+			out.println("# scenario: " + name);
+			out.println("# 展開で決まる値（完全一致）");
+			for (String[] fact : outcome.facts()) out.println(fact[0] + "=" + fact[1]);
+			out.println("# 予算（以下であること）");
+			out.println(STEP_BUDGET + "=" + step);
+			out.println(ALLOC_BUDGET + "=" + alloc);
+		}
+	}
+}